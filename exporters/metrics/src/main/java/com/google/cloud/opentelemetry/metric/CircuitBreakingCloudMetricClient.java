@@ -0,0 +1,121 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.metric;
+
+import com.google.api.MetricDescriptor;
+import com.google.api.gax.grpc.GrpcStatusCode;
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.StatusCode;
+import com.google.api.gax.rpc.UnavailableException;
+import com.google.cloud.opentelemetry.exportsupport.CircuitBreaker;
+import com.google.cloud.opentelemetry.exportsupport.CircuitBreakerOpenException;
+import com.google.common.collect.ImmutableSet;
+import com.google.monitoring.v3.CreateMetricDescriptorRequest;
+import com.google.monitoring.v3.ProjectName;
+import com.google.monitoring.v3.TimeSeries;
+import io.grpc.Status;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * A {@link CloudMetricClient} that guards another one with a {@link CircuitBreaker}.
+ *
+ * <p>Calls rejected by an open breaker fail immediately with an {@link UnavailableException} caused
+ * by a {@link CircuitBreakerOpenException}.
+ */
+final class CircuitBreakingCloudMetricClient implements CloudMetricClient {
+
+  // Failures that say something about the health of Cloud Monitoring, rather than the request.
+  private static final Set<StatusCode.Code> BACKEND_FAILURE_CODES =
+      ImmutableSet.of(
+          StatusCode.Code.UNAVAILABLE,
+          StatusCode.Code.DEADLINE_EXCEEDED,
+          StatusCode.Code.RESOURCE_EXHAUSTED,
+          StatusCode.Code.INTERNAL);
+
+  private final CloudMetricClient delegate;
+  private final CircuitBreaker circuitBreaker;
+
+  CircuitBreakingCloudMetricClient(CloudMetricClient delegate, CircuitBreaker circuitBreaker) {
+    this.delegate = delegate;
+    this.circuitBreaker = circuitBreaker;
+  }
+
+  @Override
+  public MetricDescriptor createMetricDescriptor(CreateMetricDescriptorRequest request) {
+    return call(() -> delegate.createMetricDescriptor(request));
+  }
+
+  @Override
+  public void createTimeSeries(ProjectName name, List<TimeSeries> timeSeries) {
+    call(
+        () -> {
+          delegate.createTimeSeries(name, timeSeries);
+          return null;
+        });
+  }
+
+  @Override
+  public void createServiceTimeSeries(ProjectName name, List<TimeSeries> timeSeries) {
+    call(
+        () -> {
+          delegate.createServiceTimeSeries(name, timeSeries);
+          return null;
+        });
+  }
+
+  @Override
+  public void shutdown() {
+    delegate.shutdown();
+  }
+
+  @Override
+  public boolean awaitTermination(long duration, TimeUnit unit) throws InterruptedException {
+    return delegate.awaitTermination(duration, unit);
+  }
+
+  @Override
+  public void shutdownNow() {
+    delegate.shutdownNow();
+  }
+
+  private <T> T call(Supplier<T> rpc) {
+    if (!circuitBreaker.tryAcquirePermission()) {
+      throw new UnavailableException(
+          new CircuitBreakerOpenException("Cloud Monitoring circuit breaker is open."),
+          GrpcStatusCode.of(Status.Code.UNAVAILABLE),
+          false);
+    }
+    long start = System.nanoTime();
+    T result;
+    try {
+      result = rpc.get();
+    } catch (RuntimeException e) {
+      long duration = System.nanoTime() - start;
+      if (e instanceof ApiException
+          && BACKEND_FAILURE_CODES.contains(((ApiException) e).getStatusCode().getCode())) {
+        circuitBreaker.onFailure(duration);
+      } else {
+        circuitBreaker.onSuccess(duration);
+      }
+      throw e;
+    }
+    circuitBreaker.onSuccess(System.nanoTime() - start);
+    return result;
+  }
+}
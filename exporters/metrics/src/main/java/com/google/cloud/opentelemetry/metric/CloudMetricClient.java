@@ -20,6 +20,7 @@ import com.google.monitoring.v3.CreateMetricDescriptorRequest;
 import com.google.monitoring.v3.ProjectName;
 import com.google.monitoring.v3.TimeSeries;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /** Wrapper interface for writing to Google Cloud Monitoring. */
 public interface CloudMetricClient {
@@ -51,4 +52,21 @@ public interface CloudMetricClient {
 
   /** Shutdown this client, cleaning up any resources. */
   void shutdown();
+
+  /**
+   * Waits for the RPCs in flight to complete after {@link #shutdown()}.
+   *
+   * @param duration the maximum time to wait.
+   * @param unit the unit of {@code duration}.
+   * @return {@code true} if the client terminated, {@code false} if the timeout elapsed first.
+   * @throws InterruptedException if the current thread was interrupted while waiting.
+   */
+  default boolean awaitTermination(long duration, TimeUnit unit) throws InterruptedException {
+    return true;
+  }
+
+  /** Shuts down this client and cancels the RPCs still in flight. */
+  default void shutdownNow() {
+    shutdown();
+  }
 }
@@ -21,6 +21,7 @@ import com.google.monitoring.v3.CreateMetricDescriptorRequest;
 import com.google.monitoring.v3.ProjectName;
 import com.google.monitoring.v3.TimeSeries;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /** Directly talks to Cloud Monitoring. */
 public final class CloudMetricClientImpl implements CloudMetricClient {
@@ -49,4 +50,14 @@ public final class CloudMetricClientImpl implements CloudMetricClient {
   public void shutdown() {
     this.metricServiceClient.shutdown();
   }
+
+  @Override
+  public boolean awaitTermination(long duration, TimeUnit unit) throws InterruptedException {
+    return this.metricServiceClient.awaitTermination(duration, unit);
+  }
+
+  @Override
+  public void shutdownNow() {
+    this.metricServiceClient.shutdownNow();
+  }
 }
@@ -16,6 +16,7 @@
 package com.google.cloud.opentelemetry.metric;
 
 import com.google.cloud.ServiceOptions;
+import com.google.common.base.Preconditions;
 import com.google.common.base.Suppliers;
 import io.opentelemetry.sdk.common.CompletableResultCode;
 import io.opentelemetry.sdk.metrics.InstrumentType;
@@ -33,20 +34,43 @@ public class GoogleCloudMetricExporter implements MetricExporter {
   private static final Logger logger = LoggerFactory.getLogger(GoogleCloudMetricExporter.class);
 
   private final Supplier<MetricExporter> internalMetricExporterSupplier;
+  private final CompletableResultCode readiness = new CompletableResultCode();
 
   private GoogleCloudMetricExporter(MetricConfiguration configuration) {
     this.internalMetricExporterSupplier =
         Suppliers.memoize(
             () -> {
               try {
-                return InternalMetricExporter.createWithConfiguration(configuration);
+                MetricExporter exporter =
+                    InternalMetricExporter.createWithConfiguration(configuration);
+                readiness.succeed();
+                return exporter;
               } catch (IOException e) {
                 logger.warn(
                     "Unable to initialize GoogleCloudMetricExporter. Export operation failed, switching to NoopMetricExporter.",
                     e);
+                readiness.failExceptionally(e);
                 return new NoopMetricExporter();
+              } catch (RuntimeException e) {
+                // Not memoized, so the next use retries, but readiness reports the first outcome.
+                readiness.failExceptionally(e);
+                throw e;
               }
             });
+    if (configuration.getEagerInitialization()) {
+      Thread initializer = new Thread(this::initialize, "google-cloud-metric-exporter-init");
+      initializer.setDaemon(true);
+      initializer.start();
+    }
+  }
+
+  private void initialize() {
+    try {
+      internalMetricExporterSupplier.get();
+    } catch (RuntimeException e) {
+      // The next export retries the initialization.
+      logger.warn("Unable to initialize GoogleCloudMetricExporter in the background.", e);
+    }
   }
 
   /**
@@ -85,6 +109,23 @@ public class GoogleCloudMetricExporter implements MetricExporter {
     return new GoogleCloudMetricExporter(configuration);
   }
 
+  /**
+   * Returns a result that completes once an exporter returned by {@link #createWithConfiguration}
+   * or {@link #createWithDefaultConfiguration()} is initialized: successfully if it is ready to
+   * export metrics, or with a failure if the first initialization attempt failed. Unless eager
+   * initialization is enabled, the exporter is initialized on first use.
+   *
+   * @param exporter an exporter created by this class.
+   * @return the readiness of the exporter.
+   * @throws IllegalArgumentException if the exporter was not created by this class.
+   */
+  public static CompletableResultCode readinessOf(MetricExporter exporter) {
+    Preconditions.checkArgument(
+        exporter instanceof GoogleCloudMetricExporter,
+        "Exporter was not created by GoogleCloudMetricExporter.");
+    return ((GoogleCloudMetricExporter) exporter).readiness;
+  }
+
   @Override
   public CompletableResultCode export(@Nonnull Collection<MetricData> metrics) {
     return this.internalMetricExporterSupplier.get().export(metrics);
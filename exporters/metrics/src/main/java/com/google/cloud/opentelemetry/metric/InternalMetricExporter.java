@@ -21,16 +21,24 @@ import com.google.api.MetricDescriptor;
 import com.google.api.gax.core.FixedCredentialsProvider;
 import com.google.api.gax.core.NoCredentialsProvider;
 import com.google.api.gax.grpc.GrpcTransportChannel;
+import com.google.api.gax.rpc.ApiException;
 import com.google.api.gax.rpc.FixedTransportChannelProvider;
+import com.google.api.gax.rpc.StatusCode;
 import com.google.auth.Credentials;
-import com.google.auth.oauth2.GoogleCredentials;
 import com.google.cloud.monitoring.v3.MetricServiceClient;
 import com.google.cloud.monitoring.v3.MetricServiceSettings;
+import com.google.cloud.opentelemetry.exportsupport.DiskSpool;
+import com.google.cloud.opentelemetry.exportsupport.DrainTracker;
+import com.google.cloud.opentelemetry.exportsupport.RefreshingCredentials;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.monitoring.v3.CreateMetricDescriptorRequest;
+import com.google.monitoring.v3.CreateTimeSeriesRequest;
 import com.google.monitoring.v3.ProjectName;
 import com.google.monitoring.v3.TimeSeries;
+import com.google.protobuf.InvalidProtocolBufferException;
 import io.grpc.ManagedChannelBuilder;
 import io.opentelemetry.api.common.AttributeKey;
 import io.opentelemetry.sdk.common.CompletableResultCode;
@@ -42,12 +50,21 @@ import io.opentelemetry.sdk.metrics.data.LongPointData;
 import io.opentelemetry.sdk.metrics.data.MetricData;
 import io.opentelemetry.sdk.metrics.export.MetricExporter;
 import java.io.IOException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
-import java.util.function.Consumer;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -61,6 +78,14 @@ class InternalMetricExporter implements MetricExporter {
 
   private static final String PROJECT_NAME_PREFIX = "projects/";
   private static final int MAX_BATCH_SIZE = 200;
+  // Failures that mean Cloud Monitoring could not take the time series right now.
+  private static final Set<StatusCode.Code> SPOOLED_CODES =
+      ImmutableSet.of(
+          StatusCode.Code.UNAVAILABLE,
+          StatusCode.Code.DEADLINE_EXCEEDED,
+          StatusCode.Code.RESOURCE_EXHAUSTED);
+  // Matches the minimum sampling period of Cloud Monitoring.
+  private static final Duration SPOOL_REPLAY_INTERVAL = Duration.ofSeconds(5);
 
   private final CloudMetricClient metricServiceClient;
   private final String projectId;
@@ -70,6 +95,13 @@ class InternalMetricExporter implements MetricExporter {
   private final boolean useCreateServiceTimeSeries;
   private final MonitoredResourceDescription monitoredResourceDescription;
   private final boolean instrumentationLibraryLabelsEnabled;
+  @Nullable private final DiskSpool spool;
+  @Nullable private final ScheduledExecutorService scheduler;
+  private final Duration shutdownTimeout;
+  private final DrainTracker inFlightExports = new DrainTracker();
+  private final AtomicBoolean isShutdown = new AtomicBoolean();
+  private final CompletableResultCode shutdownResult = new CompletableResultCode();
+  private final AtomicLong metricsLostOnShutdown = new AtomicLong();
 
   InternalMetricExporter(
       String projectId,
@@ -80,6 +112,53 @@ class InternalMetricExporter implements MetricExporter {
       boolean useCreateServiceTimeSeries,
       MonitoredResourceDescription monitoredResourceDescription,
       boolean instrumentationLibraryLabelsEnabled) {
+    this(
+        projectId,
+        prefix,
+        client,
+        descriptorStrategy,
+        resourceAttributesFilter,
+        useCreateServiceTimeSeries,
+        monitoredResourceDescription,
+        instrumentationLibraryLabelsEnabled,
+        null,
+        MetricConfiguration.DEFAULT_SHUTDOWN_TIMEOUT);
+  }
+
+  InternalMetricExporter(
+      String projectId,
+      String prefix,
+      CloudMetricClient client,
+      MetricDescriptorStrategy descriptorStrategy,
+      Predicate<AttributeKey<?>> resourceAttributesFilter,
+      boolean useCreateServiceTimeSeries,
+      MonitoredResourceDescription monitoredResourceDescription,
+      boolean instrumentationLibraryLabelsEnabled,
+      @Nullable DiskSpool spool) {
+    this(
+        projectId,
+        prefix,
+        client,
+        descriptorStrategy,
+        resourceAttributesFilter,
+        useCreateServiceTimeSeries,
+        monitoredResourceDescription,
+        instrumentationLibraryLabelsEnabled,
+        spool,
+        MetricConfiguration.DEFAULT_SHUTDOWN_TIMEOUT);
+  }
+
+  InternalMetricExporter(
+      String projectId,
+      String prefix,
+      CloudMetricClient client,
+      MetricDescriptorStrategy descriptorStrategy,
+      Predicate<AttributeKey<?>> resourceAttributesFilter,
+      boolean useCreateServiceTimeSeries,
+      MonitoredResourceDescription monitoredResourceDescription,
+      boolean instrumentationLibraryLabelsEnabled,
+      @Nullable DiskSpool spool,
+      Duration shutdownTimeout) {
     this.projectId = projectId;
     this.prefix = prefix;
     this.metricServiceClient = client;
@@ -88,6 +167,21 @@ class InternalMetricExporter implements MetricExporter {
     this.useCreateServiceTimeSeries = useCreateServiceTimeSeries;
     this.monitoredResourceDescription = monitoredResourceDescription;
     this.instrumentationLibraryLabelsEnabled = instrumentationLibraryLabelsEnabled;
+    this.spool = spool;
+    this.shutdownTimeout = shutdownTimeout;
+    if (spool != null) {
+      this.scheduler =
+          Executors.newSingleThreadScheduledExecutor(
+              new ThreadFactoryBuilder()
+                  .setDaemon(true)
+                  .setNameFormat("google-cloud-metric-exporter-%d")
+                  .build());
+      // Also picks up time series spooled by a previous process.
+      scheduler.scheduleWithFixedDelay(
+          this::replaySpool, 0, SPOOL_REPLAY_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+    } else {
+      this.scheduler = null;
+    }
   }
 
   static InternalMetricExporter createWithConfiguration(MetricConfiguration configuration)
@@ -98,16 +192,57 @@ class InternalMetricExporter implements MetricExporter {
         configuration.getMetricServiceSettings() == null
             ? generateMetricServiceSettings(configuration)
             : configuration.getMetricServiceSettings();
+    CloudMetricClient client =
+        new CloudMetricClientImpl(MetricServiceClient.create(serviceClientSettings));
+    if (configuration.getEagerInitialization()) {
+      warmUp(client, ProjectName.of(projectId));
+    }
+    if (configuration.getCircuitBreaker() != null) {
+      client = new CircuitBreakingCloudMetricClient(client, configuration.getCircuitBreaker());
+    }
 
     return new InternalMetricExporter(
         projectId,
         prefix,
-        new CloudMetricClientImpl(MetricServiceClient.create(serviceClientSettings)),
+        client,
         configuration.getDescriptorStrategy(),
         configuration.getResourceAttributesFilter(),
         configuration.getUseServiceTimeSeries(),
         configuration.getMonitoredResourceDescription(),
-        configuration.getInstrumentationLibraryLabelsEnabled());
+        configuration.getInstrumentationLibraryLabelsEnabled(),
+        openSpool(configuration),
+        configuration.getShutdownTimeout());
+  }
+
+  /**
+   * Opens the connection to Cloud Monitoring ahead of the first export, by sending an empty
+   * CreateTimeSeries request. Whether Cloud Monitoring accepts the empty request does not matter:
+   * either way the connection is established and authenticated.
+   */
+  @VisibleForTesting
+  static void warmUp(CloudMetricClient client, ProjectName projectName) {
+    try {
+      client.createTimeSeries(projectName, Collections.emptyList());
+    } catch (RuntimeException e) {
+      // The first export opens the connection again and reports the failure if it persists.
+      logger.debug("Failed to open the connection to Cloud Monitoring ahead of time.", e);
+    }
+  }
+
+  @Nullable
+  private static DiskSpool openSpool(MetricConfiguration configuration) {
+    if (configuration.getSpoolDirectory() == null) {
+      return null;
+    }
+    try {
+      return DiskSpool.open(configuration.getSpoolDirectory(), configuration.getSpoolMaxBytes());
+    } catch (IOException e) {
+      logger.warn(
+          "Failed to open time series spool in {}, time series will not be spooled.",
+          configuration.getSpoolDirectory(),
+          e);
+      return null;
+    }
   }
 
   @VisibleForTesting
@@ -133,7 +268,10 @@ class InternalMetricExporter implements MetricExporter {
 
   private static MetricServiceSettings generateMetricServiceSettings(
       MetricConfiguration configuration) throws IOException {
-    MetricServiceSettings.Builder builder = MetricServiceSettings.newBuilder();
+    MetricServiceSettings.Builder builder =
+        configuration.getUseHttpJsonTransport() && !configuration.getInsecureEndpoint()
+            ? MetricServiceSettings.newHttpJsonBuilder()
+            : MetricServiceSettings.newBuilder();
     // For testing, we need to hack around our gRPC config.
     if (configuration.getInsecureEndpoint()) {
       builder.setCredentialsProvider(NoCredentialsProvider.create());
@@ -147,8 +285,11 @@ class InternalMetricExporter implements MetricExporter {
       // For any other endpoint, we force credentials to exist.
       Credentials credentials =
           configuration.getCredentials() == null
-              ? GoogleCredentials.getApplicationDefault()
+              ? RefreshingCredentials.getApplicationDefault()
               : configuration.getCredentials();
+      if (configuration.getEagerInitialization()) {
+        prefetchAccessToken(credentials);
+      }
 
       builder.setCredentialsProvider(
           FixedCredentialsProvider.create(checkNotNull(credentials, "Credentials not provided.")));
@@ -161,6 +302,16 @@ class InternalMetricExporter implements MetricExporter {
     return builder.build();
   }
 
+  /** Fetches an access token ahead of the first request, so that it does not wait for one. */
+  private static void prefetchAccessToken(Credentials credentials) {
+    try {
+      credentials.getRequestMetadata();
+    } catch (IOException | RuntimeException e) {
+      // The first request fetches the token again and reports the failure if it persists.
+      logger.debug("Failed to prefetch an access token for Cloud Monitoring.", e);
+    }
+  }
+
   private void exportDescriptor(MetricDescriptor descriptor) {
     logger.trace("Creating metric descriptor: {}", descriptor);
     metricServiceClient.createMetricDescriptor(
@@ -177,6 +328,19 @@ class InternalMetricExporter implements MetricExporter {
 
   @Override
   public CompletableResultCode export(Collection<MetricData> metrics) {
+    inFlightExports.begin(metrics.size());
+    try {
+      if (isShutdown.get()) {
+        logger.debug("Exporter is shut down, rejected {} metrics.", metrics.size());
+        return CompletableResultCode.ofFailure();
+      }
+      return exportMetrics(metrics);
+    } finally {
+      inFlightExports.end(metrics.size());
+    }
+  }
+
+  private CompletableResultCode exportMetrics(Collection<MetricData> metrics) {
     // General Algorithm for export:
     // 1. Iterate over all points in the set of metrics to export
     // 2. Attempt to register MetricDescriptors (using configured strategy)
@@ -237,22 +401,22 @@ class InternalMetricExporter implements MetricExporter {
     exportDescriptors(builder);
 
     List<TimeSeries> series = builder.getTimeSeries();
-    Consumer<List<TimeSeries>> timeSeriesGenerator =
-        timeSeries -> {
-          if (useCreateServiceTimeSeries) {
-            metricServiceClient.createServiceTimeSeries(ProjectName.of(projectId), timeSeries);
-          } else {
-            metricServiceClient.createTimeSeries(ProjectName.of(projectId), timeSeries);
-          }
-        };
-    createTimeSeriesBatch(series, timeSeriesGenerator);
+    boolean written = createTimeSeriesBatch(series);
     // TODO: better error reporting.
-    if (series.size() < metrics.size()) {
+    if (!written || series.size() < metrics.size()) {
       return CompletableResultCode.ofFailure();
     }
     return CompletableResultCode.ofSuccess();
   }
 
+  private void writeTimeSeries(ProjectName projectName, List<TimeSeries> timeSeries) {
+    if (useCreateServiceTimeSeries) {
+      metricServiceClient.createServiceTimeSeries(projectName, timeSeries);
+    } else {
+      metricServiceClient.createTimeSeries(projectName, timeSeries);
+    }
+  }
+
   private void exportDescriptors(MetricTimeSeriesBuilder timeSeriesBuilder) {
     if (useCreateServiceTimeSeries) {
       // do not export metric descriptors when using createServiceTimeSeries
@@ -268,12 +432,90 @@ class InternalMetricExporter implements MetricExporter {
     }
   }
 
-  // Fragment metrics into batches and send to GCM.
-  private void createTimeSeriesBatch(
-      List<TimeSeries> allTimesSeries, Consumer<List<TimeSeries>> timeSeriesGenerator) {
+  // Fragment metrics into batches and send to GCM, or to the spool if GCM is unavailable.
+  private boolean createTimeSeriesBatch(List<TimeSeries> allTimesSeries) {
     List<List<TimeSeries>> batches = Lists.partition(allTimesSeries, MAX_BATCH_SIZE);
+    for (int i = 0; i < batches.size(); i++) {
+      if (spool != null && !spool.isEmpty()) {
+        // Points of a time series must be written in order, so queue up behind spooled points.
+        return spoolBatches(batches.subList(i, batches.size()));
+      }
+      try {
+        writeTimeSeries(ProjectName.of(projectId), new ArrayList<>(batches.get(i)));
+      } catch (ApiException e) {
+        if (spool == null || !SPOOLED_CODES.contains(e.getStatusCode().getCode())) {
+          throw e;
+        }
+        logger.debug("Cloud Monitoring is unavailable, spooling time series.", e);
+        return spoolBatches(batches.subList(i, batches.size()));
+      }
+    }
+    return true;
+  }
+
+  private boolean spoolBatches(List<List<TimeSeries>> batches) {
+    boolean spooled = true;
     for (List<TimeSeries> timeSeries : batches) {
-      timeSeriesGenerator.accept(new ArrayList<>(timeSeries));
+      byte[] record =
+          CreateTimeSeriesRequest.newBuilder()
+              .setName(PROJECT_NAME_PREFIX + projectId)
+              .addAllTimeSeries(timeSeries)
+              .build()
+              .toByteArray();
+      try {
+        spooled &= spool.append(record);
+      } catch (IOException | IllegalStateException e) {
+        logger.warn("Failed to spool {} time series.", timeSeries.size(), e);
+        spooled = false;
+      }
+    }
+    return spooled;
+  }
+
+  /**
+   * Writes the spooled requests to Cloud Monitoring, oldest first, until the spool is empty, Cloud
+   * Monitoring is still unavailable, or a time series comes up again.
+   */
+  private void replaySpool() {
+    // Cloud Monitoring rejects points written to a time series more often than once per sampling
+    // period, so each run writes at most one point per time series.
+    Set<TimeSeries> writtenSeries = new HashSet<>();
+    try {
+      byte[] record;
+      while ((record = spool.peek()) != null) {
+        CreateTimeSeriesRequest request;
+        try {
+          request = CreateTimeSeriesRequest.parseFrom(record);
+        } catch (InvalidProtocolBufferException e) {
+          logger.warn("Dropping unreadable spooled time series.", e);
+          spool.commit();
+          continue;
+        }
+        List<TimeSeries> requestSeries = new ArrayList<>(request.getTimeSeriesCount());
+        for (TimeSeries timeSeries : request.getTimeSeriesList()) {
+          requestSeries.add(timeSeries.toBuilder().clearPoints().build());
+        }
+        if (!Collections.disjoint(writtenSeries, requestSeries)) {
+          return;
+        }
+        try {
+          writeTimeSeries(ProjectName.parse(request.getName()), request.getTimeSeriesList());
+        } catch (ApiException e) {
+          if (SPOOLED_CODES.contains(e.getStatusCode().getCode())) {
+            logger.debug("Cloud Monitoring is still unavailable, will retry spooled series.", e);
+            return;
+          }
+          logger.warn(
+              "Cloud Monitoring rejected {} spooled time series, they were dropped.",
+              request.getTimeSeriesCount(),
+              e);
+        }
+        writtenSeries.addAll(requestSeries);
+        spool.commit();
+      }
+    } catch (IOException | RuntimeException e) {
+      // Keep the replay scheduled, a failed run must not stop later ones.
+      logger.warn("Failed to replay spooled time series.", e);
     }
   }
 
@@ -287,10 +529,80 @@ class InternalMetricExporter implements MetricExporter {
     return CompletableResultCode.ofSuccess();
   }
 
+  /** Returns the number of metrics that were not written because shutdown timed out. */
+  @VisibleForTesting
+  long getMetricsLostOnShutdown() {
+    return metricsLostOnShutdown.get();
+  }
+
+  /**
+   * Stops accepting metrics and drains the exporter on a background thread.
+   *
+   * @return a result that completes once the exporter is drained and its resources are released,
+   *     successfully if every export in progress completed within the shutdown timeout.
+   */
   @Override
   public CompletableResultCode shutdown() {
-    metricServiceClient.shutdown();
+    if (isShutdown.compareAndSet(false, true)) {
+      Thread drainer = new Thread(this::drain, "google-cloud-metric-exporter-shutdown");
+      drainer.setDaemon(true);
+      drainer.start();
+    }
+    return shutdownResult;
+  }
 
-    return CompletableResultCode.ofSuccess();
+  /**
+   * Waits for the exports in progress, then closes the client, the scheduler and the spool.
+   * Exports that have not completed once the shutdown timeout elapses are cancelled and their
+   * metrics reported as lost.
+   */
+  private void drain() {
+    long deadline = System.nanoTime() + shutdownTimeout.toNanos();
+    boolean drained = false;
+    try {
+      drained = inFlightExports.awaitDrained(remainingNanos(deadline), TimeUnit.NANOSECONDS);
+      if (!drained) {
+        long lostMetrics = inFlightExports.getPendingItems();
+        metricsLostOnShutdown.addAndGet(lostMetrics);
+        logger.warn(
+            "Cloud Monitoring exporter did not drain within {}, {} metrics were not exported.",
+            shutdownTimeout,
+            lostMetrics);
+      }
+      metricServiceClient.shutdown();
+      if (!metricServiceClient.awaitTermination(remainingNanos(deadline), TimeUnit.NANOSECONDS)) {
+        metricServiceClient.shutdownNow();
+      }
+      if (scheduler != null) {
+        // Lets a replay in progress finish, the spool is closed once it has.
+        scheduler.shutdown();
+        if (!scheduler.awaitTermination(remainingNanos(deadline), TimeUnit.NANOSECONDS)) {
+          scheduler.shutdownNow();
+        }
+      }
+    } catch (InterruptedException e) {
+      metricServiceClient.shutdownNow();
+      if (scheduler != null) {
+        scheduler.shutdownNow();
+      }
+      Thread.currentThread().interrupt();
+    } finally {
+      if (spool != null) {
+        try {
+          spool.close();
+        } catch (IOException e) {
+          logger.warn("Failed to close time series spool.", e);
+        }
+      }
+      if (drained) {
+        shutdownResult.succeed();
+      } else {
+        shutdownResult.fail();
+      }
+    }
+  }
+
+  private static long remainingNanos(long deadline) {
+    return Math.max(0, deadline - System.nanoTime());
   }
 }
@@ -22,6 +22,7 @@ import com.google.auto.value.AutoValue;
 import com.google.cloud.ServiceOptions;
 import com.google.cloud.monitoring.v3.MetricServiceSettings;
 import com.google.cloud.monitoring.v3.stub.MetricServiceStubSettings;
+import com.google.cloud.opentelemetry.exportsupport.CircuitBreaker;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
@@ -29,6 +30,7 @@ import com.google.common.base.Suppliers;
 import io.opentelemetry.api.common.AttributeKey;
 import io.opentelemetry.semconv.ServiceAttributes;
 import io.opentelemetry.semconv.incubating.ServiceIncubatingAttributes;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
@@ -53,6 +55,12 @@ public abstract class MetricConfiguration {
   public static final String DEFAULT_METRIC_SERVICE_ENDPOINT =
       MetricServiceStubSettings.getDefaultEndpoint();
 
+  /** Default maximum size of the time series spool, 64 MiB. */
+  public static final long DEFAULT_SPOOL_MAX_BYTES = 64L * 1024 * 1024;
+
+  /** Default time shutdown waits for exports in progress to complete, 10 seconds. */
+  public static final Duration DEFAULT_SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
+
   /** Resource attribute filter that disables addition of resource attributes to metric labels. */
   public static final Predicate<AttributeKey<?>> NO_RESOURCE_ATTRIBUTES = attributeKey -> false;
 
@@ -192,6 +200,60 @@ public abstract class MetricConfiguration {
    */
   public abstract boolean getInstrumentationLibraryLabelsEnabled();
 
+  /**
+   * Returns the directory where time series are spooled while Cloud Monitoring is unavailable.
+   *
+   * @return the spool directory, or {@code null} if spooling is disabled.
+   */
+  @Nullable
+  public abstract Path getSpoolDirectory();
+
+  /**
+   * Returns the maximum number of bytes the time series spool may take up on disk.
+   *
+   * <p>Default value is {@link MetricConfiguration#DEFAULT_SPOOL_MAX_BYTES}.
+   *
+   * @return the maximum size of the spool.
+   */
+  public abstract long getSpoolMaxBytes();
+
+  /**
+   * Returns the circuit breaker guarding calls to Cloud Monitoring.
+   *
+   * @return the circuit breaker, or {@code null} if calls are never short-circuited.
+   */
+  @Nullable
+  public abstract CircuitBreaker getCircuitBreaker();
+
+  /**
+   * Returns whether the exporter is initialized in the background as soon as it is created,
+   * rather than on first use.
+   *
+   * <p>Default value is {@code false}.
+   *
+   * @return whether eager initialization is enabled.
+   */
+  public abstract boolean getEagerInitialization();
+
+  /**
+   * Returns how long shutdown waits for exports in progress to complete before giving up on them.
+   *
+   * <p>Default value is {@link MetricConfiguration#DEFAULT_SHUTDOWN_TIMEOUT}.
+   *
+   * @return the shutdown timeout.
+   */
+  public abstract Duration getShutdownTimeout();
+
+  /**
+   * Returns whether metrics are written to the Cloud Monitoring API over HTTP/1.1 with JSON
+   * payloads rather than over gRPC.
+   *
+   * <p>Default value is {@code false}.
+   *
+   * @return whether the HTTP/JSON transport is used.
+   */
+  public abstract boolean getUseHttpJsonTransport();
+
   @VisibleForTesting
   abstract boolean getInsecureEndpoint();
 
@@ -219,7 +281,11 @@ public abstract class MetricConfiguration {
         .setInstrumentationLibraryLabelsEnabled(true)
         .setResourceAttributesFilter(DEFAULT_RESOURCE_ATTRIBUTES_FILTER)
         .setMonitoredResourceDescription(EMPTY_MONITORED_RESOURCE_DESCRIPTION)
-        .setMetricServiceEndpoint(DEFAULT_METRIC_SERVICE_ENDPOINT);
+        .setMetricServiceEndpoint(DEFAULT_METRIC_SERVICE_ENDPOINT)
+        .setSpoolMaxBytes(DEFAULT_SPOOL_MAX_BYTES)
+        .setEagerInitialization(false)
+        .setShutdownTimeout(DEFAULT_SHUTDOWN_TIMEOUT)
+        .setUseHttpJsonTransport(false);
   }
 
   /** Builder for {@link MetricConfiguration}. */
@@ -230,6 +296,10 @@ public abstract class MetricConfiguration {
 
     abstract Duration getDeadline();
 
+    abstract long getSpoolMaxBytes();
+
+    abstract Duration getShutdownTimeout();
+
     /**
      * Package private method to set the {@link Supplier} that supplies the project ID. The project
      * ID value that is supplied depends on the value set using {@link
@@ -352,6 +422,73 @@ public abstract class MetricConfiguration {
     public abstract Builder setInstrumentationLibraryLabelsEnabled(
         boolean instrumentationLibraryLabelsEnabled);
 
+    /**
+     * Sets the directory where time series are spooled when Cloud Monitoring cannot be reached.
+     * Spooled time series are replayed in the background, in the order they were written, once
+     * Cloud Monitoring is available again. While the spool holds time series, newly exported ones
+     * are added to it as well so that points of a time series are never written out of order. A
+     * directory can only be used by one exporter at a time.
+     *
+     * @param spoolDirectory the spool directory, or {@code null} to disable spooling.
+     * @return this.
+     */
+    public abstract Builder setSpoolDirectory(@Nullable Path spoolDirectory);
+
+    /**
+     * Sets the maximum number of bytes the time series spool may take up on disk. Once it is full,
+     * the oldest spooled time series are dropped.
+     *
+     * @param spoolMaxBytes the maximum size of the spool, must be positive.
+     * @return this.
+     */
+    public abstract Builder setSpoolMaxBytes(long spoolMaxBytes);
+
+    /**
+     * Sets a circuit breaker that guards calls to Cloud Monitoring. While the breaker is open,
+     * exports fail immediately with {@code UNAVAILABLE} instead of waiting for the deadline (or
+     * are spooled, if a spool directory is set). Keep a reference to the breaker to observe its
+     * state.
+     *
+     * @param circuitBreaker the circuit breaker, or {@code null} to disable it. It must not be
+     *     shared with other exporters.
+     * @return this.
+     */
+    public abstract Builder setCircuitBreaker(@Nullable CircuitBreaker circuitBreaker);
+
+    /**
+     * Sets whether the exporter is initialized on a background thread as soon as it is created.
+     * Initialization resolves the credentials and project ID, fetches an access token, creates the
+     * Cloud Monitoring client and opens its connection; by default it happens on the first export,
+     * which then takes noticeably longer. Use {@link GoogleCloudMetricExporter#readinessOf} to wait
+     * for it.
+     *
+     * @param eagerInitialization whether to initialize the exporter eagerly.
+     * @return this.
+     */
+    public abstract Builder setEagerInitialization(boolean eagerInitialization);
+
+    /**
+     * Sets how long shutdown waits for the exporter to drain. Shutdown stops accepting metrics and
+     * waits for the exports in progress to complete. Once the timeout elapses, the requests still
+     * in flight are cancelled and the number of metrics lost is logged.
+     *
+     * @param shutdownTimeout the shutdown timeout, must be positive.
+     * @return this.
+     */
+    public abstract Builder setShutdownTimeout(Duration shutdownTimeout);
+
+    /**
+     * Sets whether metrics are written to the Cloud Monitoring API over HTTP/1.1 with JSON payloads
+     * instead of gRPC. Without the Netty event loops and channels of the gRPC transport, the
+     * exporter starts faster and uses less memory, which suits short-lived or memory-constrained
+     * runtimes such as Cloud Functions. This setting is ignored if {@link
+     * #setMetricServiceSettings(MetricServiceSettings)} is used.
+     *
+     * @param useHttpJsonTransport whether to use the HTTP/JSON transport.
+     * @return this.
+     */
+    public abstract Builder setUseHttpJsonTransport(boolean useHttpJsonTransport);
+
     @VisibleForTesting
     abstract Builder setInsecureEndpoint(boolean value);
 
@@ -364,6 +501,9 @@ public abstract class MetricConfiguration {
      */
     public MetricConfiguration build() {
       Preconditions.checkArgument(getDeadline().compareTo(ZERO) > 0, "Deadline must be positive.");
+      Preconditions.checkArgument(getSpoolMaxBytes() > 0, "Spool max bytes must be positive.");
+      Preconditions.checkArgument(
+          getShutdownTimeout().compareTo(ZERO) > 0, "Shutdown timeout must be positive.");
       return autoBuild();
     }
   }
@@ -44,10 +44,14 @@ import static com.google.cloud.opentelemetry.metric.MetricTranslator.NANO_PER_SE
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -63,10 +67,14 @@ import com.google.api.MetricDescriptor;
 import com.google.api.MetricDescriptor.MetricKind;
 import com.google.api.MonitoredResource;
 import com.google.api.gax.core.FixedCredentialsProvider;
+import com.google.api.gax.grpc.GrpcStatusCode;
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.ApiExceptionFactory;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.cloud.ServiceOptions;
 import com.google.cloud.monitoring.v3.MetricServiceClient;
 import com.google.cloud.monitoring.v3.MetricServiceSettings;
+import com.google.cloud.opentelemetry.exportsupport.DiskSpool;
 import com.google.common.collect.ImmutableList;
 import com.google.monitoring.v3.CreateMetricDescriptorRequest;
 import com.google.monitoring.v3.DroppedLabels;
@@ -78,6 +86,7 @@ import com.google.monitoring.v3.TimeSeries;
 import com.google.monitoring.v3.TypedValue;
 import com.google.protobuf.Any;
 import com.google.protobuf.Timestamp;
+import io.grpc.Status;
 import io.opentelemetry.api.GlobalOpenTelemetry;
 import io.opentelemetry.api.common.AttributeKey;
 import io.opentelemetry.sdk.OpenTelemetrySdk;
@@ -92,10 +101,16 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
@@ -110,6 +125,8 @@ public class GoogleCloudMetricExporterTest {
 
   private static final String PROJECT_ID = "test-id";
 
+  @Rule public final TemporaryFolder spoolFolder = new TemporaryFolder();
+
   @Mock private CloudMetricClient mockClient;
 
   @Mock private MetricServiceClient mockMetricServiceClient;
@@ -846,6 +863,37 @@ public class GoogleCloudMetricExporterTest {
     }
   }
 
+  @Test
+  public void verifyReadinessFailsWhenExporterCreationThrows() {
+    try (MockedStatic<InternalMetricExporter> mockedInternalMetricExporter =
+        Mockito.mockStatic(InternalMetricExporter.class)) {
+      IllegalArgumentException failure = new IllegalArgumentException("bad configuration");
+      mockedInternalMetricExporter
+          .when(() -> InternalMetricExporter.createWithConfiguration(Mockito.any()))
+          .thenThrow(failure);
+
+      MetricExporter metricExporter = GoogleCloudMetricExporter.createWithDefaultConfiguration();
+      assertFalse(GoogleCloudMetricExporter.readinessOf(metricExporter).isDone());
+      assertThrows(IllegalArgumentException.class, metricExporter::flush);
+
+      CompletableResultCode readiness = GoogleCloudMetricExporter.readinessOf(metricExporter);
+      assertTrue(readiness.join(5, TimeUnit.SECONDS).isDone());
+      assertFalse(readiness.isSuccess());
+      assertEquals(failure, readiness.getFailureThrowable());
+    }
+  }
+
+  @Test
+  public void verifyWarmUpIgnoresRejectedRequests() {
+    doThrow(new IllegalStateException("empty request"))
+        .when(mockClient)
+        .createTimeSeries(any(), any());
+
+    InternalMetricExporter.warmUp(mockClient, ProjectName.of(aProjectId));
+
+    verify(mockClient).createTimeSeries(ProjectName.of(aProjectId), Collections.emptyList());
+  }
+
   @Test
   public void verifyExporterExportGoogleServiceMetrics() {
     MetricExporter exporter =
@@ -868,6 +916,75 @@ public class GoogleCloudMetricExporterTest {
     assertTrue(result.isSuccess());
   }
 
+  @Test
+  public void testExportSpoolsTimeSeriesWhileCloudMonitoringIsUnavailable() throws IOException {
+    DiskSpool spool =
+        DiskSpool.open(spoolFolder.getRoot().toPath(), MetricConfiguration.DEFAULT_SPOOL_MAX_BYTES);
+    ApiException unavailable =
+        ApiExceptionFactory.createException(
+            new IOException("connection refused"),
+            GrpcStatusCode.of(Status.Code.UNAVAILABLE),
+            true);
+    doThrow(unavailable).doNothing().when(mockClient).createTimeSeries(any(), any());
+    MetricExporter exporter =
+        new InternalMetricExporter(
+            aProjectId,
+            DEFAULT_PREFIX,
+            mockClient,
+            MetricDescriptorStrategy.SEND_ONCE,
+            DEFAULT_RESOURCE_ATTRIBUTES_FILTER,
+            false,
+            EMPTY_MONITORED_RESOURCE_DESCRIPTION,
+            true,
+            spool);
+
+    // The time series count as exported once they are spooled.
+    assertTrue(exporter.export(ImmutableList.of(aMetricData)).isSuccess());
+    // They are replayed in the background once Cloud Monitoring accepts them again.
+    verify(mockClient, timeout(10000).times(2)).createTimeSeries(any(ProjectName.class), any());
+    assertTrue(exporter.shutdown().join(10, TimeUnit.SECONDS).isSuccess());
+    assertTrue(spool.isEmpty());
+  }
+
+  @Test
+  public void testShutdownReportsMetricsLostWhenTheTimeoutElapses() {
+    CountDownLatch release = new CountDownLatch(1);
+    doAnswer(
+            invocation -> {
+              release.await();
+              return null;
+            })
+        .when(mockClient)
+        .createTimeSeries(any(), any());
+    InternalMetricExporter exporter =
+        new InternalMetricExporter(
+            aProjectId,
+            DEFAULT_PREFIX,
+            mockClient,
+            MetricDescriptorStrategy.SEND_ONCE,
+            DEFAULT_RESOURCE_ATTRIBUTES_FILTER,
+            false,
+            EMPTY_MONITORED_RESOURCE_DESCRIPTION,
+            true,
+            null,
+            java.time.Duration.ofMillis(100));
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      executor.execute(() -> exporter.export(ImmutableList.of(aMetricData)));
+      verify(mockClient, timeout(10000)).createTimeSeries(any(ProjectName.class), any());
+
+      CompletableResultCode shutdown = exporter.shutdown().join(10, TimeUnit.SECONDS);
+
+      assertTrue(shutdown.isDone());
+      assertFalse(shutdown.isSuccess());
+      assertEquals(1, exporter.getMetricsLostOnShutdown());
+      assertFalse(exporter.export(ImmutableList.of(aMetricData)).isSuccess());
+    } finally {
+      release.countDown();
+      executor.shutdown();
+    }
+  }
+
   private void generateOpenTelemetryUsingGoogleCloudMetricExporter(MetricExporter metricExporter) {
     SdkMeterProvider meterProvider =
         SdkMeterProvider.builder()
@@ -55,6 +55,12 @@ public class MetricConfigurationTest {
     assertFalse(configuration.getUseServiceTimeSeries());
     assertNotNull(configuration.getResourceAttributesFilter());
     assertNotNull(configuration.getMonitoredResourceDescription());
+    assertNull(configuration.getSpoolDirectory());
+    assertEquals(MetricConfiguration.DEFAULT_SPOOL_MAX_BYTES, configuration.getSpoolMaxBytes());
+    assertNull(configuration.getCircuitBreaker());
+    assertFalse(configuration.getEagerInitialization());
+    assertEquals(MetricConfiguration.DEFAULT_SHUTDOWN_TIMEOUT, configuration.getShutdownTimeout());
+    assertFalse(configuration.getUseHttpJsonTransport());
   }
 
   @Test
@@ -93,6 +99,12 @@ public class MetricConfigurationTest {
     assertThrows(IllegalArgumentException.class, builder::build);
   }
 
+  @Test
+  public void testConfigurationWithNonPositiveSpoolMaxBytesFails() {
+    MetricConfiguration.Builder builder = MetricConfiguration.builder().setSpoolMaxBytes(0);
+    assertThrows(IllegalArgumentException.class, builder::build);
+  }
+
   @Test
   public void testConfigurationWithNullResourceAttributesFilterFails() {
     Builder builder = MetricConfiguration.builder();
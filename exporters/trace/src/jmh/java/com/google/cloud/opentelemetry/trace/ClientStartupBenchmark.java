@@ -0,0 +1,63 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.trace;
+
+import com.google.cloud.NoCredentials;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares how long it takes a fresh JVM to create and shut down the Cloud Trace exporter with the
+ * gRPC and the HTTP/JSON transports, as a serverless instance does on a cold start. Each
+ * measurement runs in its own fork, so it includes class loading and the setup of the transport.
+ * Run it with the {@code gc} profiler to also compare how much memory the transports allocate. No
+ * request is sent.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+@State(Scope.Benchmark)
+public class ClientStartupBenchmark {
+
+  @Param({"grpc", "http-json"})
+  public String transport;
+
+  @Benchmark
+  public SpanExporter createExporter() throws IOException {
+    TraceConfiguration configuration =
+        TraceConfiguration.builder()
+            .setProjectId("benchmark")
+            .setCredentials(NoCredentials.getInstance())
+            .setUseHttpJsonTransport("http-json".equals(transport))
+            .build();
+    SpanExporter exporter = InternalTraceExporter.createWithConfiguration(configuration);
+    exporter.shutdown().join(10, TimeUnit.SECONDS);
+    return exporter;
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.trace;
+
+import com.google.devtools.cloudtrace.v2.BatchWriteSpansRequest;
+import com.google.devtools.cloudtrace.v2.TraceServiceGrpc;
+import com.google.protobuf.Empty;
+import com.sun.net.httpserver.HttpServer;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.stub.StreamObserver;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A Cloud Trace stand-in that accepts every BatchWriteSpans request, over gRPC and over HTTP/JSON.
+ * {@link FirstExportBenchmark} runs it in a separate process, so that the server does not load the
+ * classes of either transport into the JVM being measured.
+ *
+ * <p>Prints the gRPC port and the HTTP port on one line once both servers are listening, and exits
+ * when its standard input is closed.
+ */
+final class FakeTraceServer {
+
+  private FakeTraceServer() {}
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    Server grpcServer =
+        ServerBuilder.forPort(0)
+            .addService(
+                new TraceServiceGrpc.TraceServiceImplBase() {
+                  @Override
+                  public void batchWriteSpans(
+                      BatchWriteSpansRequest request, StreamObserver<Empty> responseObserver) {
+                    responseObserver.onNext(Empty.getDefaultInstance());
+                    responseObserver.onCompleted();
+                  }
+                })
+            .build()
+            .start();
+    HttpServer httpServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    httpServer.createContext(
+        "/",
+        exchange -> {
+          try (InputStream request = exchange.getRequestBody()) {
+            while (request.read() != -1) {
+              // Discard the spans.
+            }
+          }
+          byte[] response = "{}".getBytes(StandardCharsets.UTF_8);
+          exchange.getResponseHeaders().set("Content-Type", "application/json");
+          exchange.sendResponseHeaders(200, response.length);
+          try (OutputStream body = exchange.getResponseBody()) {
+            body.write(response);
+          }
+        });
+    httpServer.start();
+    System.out.println(grpcServer.getPort() + " " + httpServer.getAddress().getPort());
+    System.out.flush();
+    while (System.in.read() != -1) {
+      // Run until the benchmark closes our standard input.
+    }
+    httpServer.stop(0);
+    grpcServer.shutdownNow().awaitTermination();
+  }
+}
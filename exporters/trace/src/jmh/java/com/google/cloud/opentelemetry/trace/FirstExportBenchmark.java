@@ -0,0 +1,122 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.trace;
+
+import com.google.cloud.NoCredentials;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares how long it takes a fresh JVM to create the Cloud Trace exporter and complete its first
+ * export with the gRPC and the HTTP/JSON transports, as a serverless instance does on a cold start.
+ * Unlike {@link ClientStartupBenchmark}, this includes opening the connection and sending the first
+ * request.
+ *
+ * <p>Spans are sent in plain text to a {@link FakeTraceServer} running in another process, so the
+ * measurement leaves out the TLS handshake and the access token, which cost the same for both
+ * transports.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+@State(Scope.Benchmark)
+public class FirstExportBenchmark {
+
+  @Param({"grpc", "http-json"})
+  public String transport;
+
+  private Process server;
+  private TraceConfiguration configuration;
+  private SpanData spanData;
+  private SpanExporter exporter;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    server =
+        new ProcessBuilder(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp",
+                System.getProperty("java.class.path"),
+                FakeTraceServer.class.getName())
+            .redirectError(ProcessBuilder.Redirect.INHERIT)
+            .start();
+    String[] ports =
+        new BufferedReader(new InputStreamReader(server.getInputStream(), StandardCharsets.UTF_8))
+            .readLine()
+            .split(" ");
+    TraceConfiguration.Builder builder = TraceConfiguration.builder().setProjectId("benchmark");
+    if ("grpc".equals(transport)) {
+      // Plain text gRPC, without credentials.
+      builder.setTraceServiceEndpoint("localhost:" + ports[0]).setInsecureEndpoint(true);
+    } else {
+      builder
+          .setTraceServiceEndpoint("http://localhost:" + ports[1])
+          .setCredentials(NoCredentials.getInstance())
+          .setUseHttpJsonTransport(true);
+    }
+    configuration = builder.build();
+    // Creating the span loads the SDK, which costs the same for both transports.
+    SdkTracerProvider tracerProvider = SdkTracerProvider.builder().build();
+    Span span = tracerProvider.get("benchmark").spanBuilder("first-export").startSpan();
+    span.end();
+    spanData = ((ReadableSpan) span).toSpanData();
+    tracerProvider.shutdown();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException, InterruptedException {
+    exporter.shutdown().join(10, TimeUnit.SECONDS);
+    server.getOutputStream().close();
+    server.waitFor(10, TimeUnit.SECONDS);
+  }
+
+  @Benchmark
+  public CompletableResultCode createAndExport() throws IOException {
+    exporter = InternalTraceExporter.createWithConfiguration(configuration);
+    CompletableResultCode result =
+        exporter.export(Collections.singletonList(spanData)).join(10, TimeUnit.SECONDS);
+    if (!result.isSuccess()) {
+      throw new IllegalStateException("The first export failed.", result.getFailureThrowable());
+    }
+    return result;
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.trace;
+
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the cost of ending spans with {@link RingBufferSpanProcessor} and the SDK's {@link
+ * BatchSpanProcessor} while many threads end spans at the same time. The exporter discards the
+ * spans, so the benchmark measures the processors alone.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SpanProcessorBenchmark {
+
+  @Param({"ring-buffer", "batch"})
+  public String processor;
+
+  private SdkTracerProvider tracerProvider;
+  private Tracer tracer;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    tracerProvider = SdkTracerProvider.builder().addSpanProcessor(createProcessor()).build();
+    tracer = tracerProvider.get("benchmark");
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    tracerProvider.shutdown().join(10, TimeUnit.SECONDS);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void endSpan_01Thread() {
+    tracer.spanBuilder("span").startSpan().end();
+  }
+
+  @Benchmark
+  @Threads(8)
+  public void endSpan_08Threads() {
+    tracer.spanBuilder("span").startSpan().end();
+  }
+
+  @Benchmark
+  @Threads(32)
+  public void endSpan_32Threads() {
+    tracer.spanBuilder("span").startSpan().end();
+  }
+
+  private SpanProcessor createProcessor() {
+    SpanExporter exporter = new DiscardingSpanExporter();
+    switch (processor) {
+      case "ring-buffer":
+        return RingBufferSpanProcessor.builder(exporter).build();
+      case "batch":
+        return BatchSpanProcessor.builder(exporter).build();
+      default:
+        throw new IllegalArgumentException("Unknown processor: " + processor);
+    }
+  }
+
+  private static final class DiscardingSpanExporter implements SpanExporter {
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+      return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+      return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+      return CompletableResultCode.ofSuccess();
+    }
+  }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.trace;
+
+import com.google.common.collect.MapMaker;
+import io.opentelemetry.api.common.AttributeKey;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nullable;
+
+/**
+ * The attribute mapping of a {@link TraceConfiguration}, compiled once so that renaming the key of
+ * an attribute usually costs a single lookup.
+ *
+ * <p>Dropped keys take precedence over exact renames, and exact renames over prefix renames. A
+ * prefix rename replaces the matched prefix and keeps the rest of the key, so {@code
+ * http.request.header.} to {@code /http/header/} renames {@code http.request.header.accept} to
+ * {@code /http/header/accept}; when several prefixes match, the longest one wins. Keys and targets
+ * are taken literally.
+ *
+ * <p>Prefix renames are resolved through a trie, in a single pass over the key whatever the number
+ * of prefixes. The result is then remembered by {@link AttributeKey} instance, since
+ * instrumentation mostly reuses constant keys, and by name for keys created on the fly.
+ */
+final class AttributeKeyMapping {
+  // Keys created per attribute, e.g. from header names, only guard against unbounded growth.
+  private static final int MAX_CACHED_KEYS = 4096;
+  private static final Optional<String> DROPPED = Optional.empty();
+
+  private final Map<String, String> exactRules;
+  private final TrieNode prefixRules;
+  private final Set<String> droppedKeys;
+  private final boolean isEmpty;
+  private final ConcurrentMap<AttributeKey<?>, Optional<String>> keysByInstance =
+      new MapMaker().weakKeys().makeMap();
+  private final ConcurrentMap<String, Optional<String>> keysByName = new ConcurrentHashMap<>();
+
+  private AttributeKeyMapping(
+      Map<String, String> exactRules, TrieNode prefixRules, Set<String> droppedKeys) {
+    this.exactRules = exactRules;
+    this.prefixRules = prefixRules;
+    this.droppedKeys = droppedKeys;
+    this.isEmpty =
+        exactRules.isEmpty()
+            && prefixRules.children.isEmpty()
+            && !prefixRules.isRule
+            && droppedKeys.isEmpty();
+  }
+
+  /**
+   * Compiles the attribute mapping of a configuration.
+   *
+   * @param configuration the configuration of the exporter.
+   * @return the compiled mapping.
+   */
+  static AttributeKeyMapping compile(TraceConfiguration configuration) {
+    return compile(
+        configuration.getAttributeMapping(),
+        configuration.getAttributePrefixMapping(),
+        configuration.getDroppedAttributes());
+  }
+
+  /**
+   * Compiles a mapping that only renames exact keys.
+   *
+   * @param mapping the map of OpenTelemetry key to Cloud Trace key.
+   * @return the compiled mapping.
+   */
+  static AttributeKeyMapping compile(Map<String, String> mapping) {
+    return compile(mapping, Collections.emptyMap(), Collections.emptySet());
+  }
+
+  /**
+   * Compiles an attribute mapping.
+   *
+   * @param mapping the map of OpenTelemetry key to Cloud Trace key.
+   * @param prefixMapping the map of OpenTelemetry key prefix to Cloud Trace key prefix.
+   * @param droppedKeys the OpenTelemetry keys of the attributes that are not exported.
+   * @return the compiled mapping.
+   */
+  static AttributeKeyMapping compile(
+      Map<String, String> mapping, Map<String, String> prefixMapping, Set<String> droppedKeys) {
+    TrieNode prefixRules = new TrieNode();
+    prefixMapping.forEach(
+        (prefix, targetPrefix) -> {
+          TrieNode node = prefixRules;
+          for (int i = 0; i < prefix.length(); i++) {
+            node = node.children.computeIfAbsent(prefix.charAt(i), c -> new TrieNode());
+          }
+          node.isRule = true;
+          node.target = targetPrefix;
+        });
+    return new AttributeKeyMapping(new HashMap<>(mapping), prefixRules, new HashSet<>(droppedKeys));
+  }
+
+  /** Returns whether the mapping leaves every key unchanged. */
+  boolean isEmpty() {
+    return isEmpty;
+  }
+
+  /**
+   * Returns the Cloud Trace key of an attribute.
+   *
+   * @param key the OpenTelemetry attribute key.
+   * @return the mapped key, or {@code null} if the attribute is dropped.
+   */
+  @Nullable
+  String map(AttributeKey<?> key) {
+    if (isEmpty) {
+      return key.getKey();
+    }
+    Optional<String> mapped = keysByInstance.get(key);
+    if (mapped == null) {
+      mapped = keysByName.get(key.getKey());
+      if (mapped == null) {
+        mapped = resolve(key.getKey());
+        if (keysByName.size() < MAX_CACHED_KEYS) {
+          keysByName.put(key.getKey(), mapped);
+        }
+      }
+      if (keysByInstance.size() < MAX_CACHED_KEYS) {
+        keysByInstance.put(key, mapped);
+      }
+    }
+    return mapped.orElse(null);
+  }
+
+  private Optional<String> resolve(String name) {
+    if (droppedKeys.contains(name)) {
+      return DROPPED;
+    }
+    String target = exactRules.get(name);
+    if (target != null) {
+      return Optional.of(target);
+    }
+    TrieNode node = prefixRules;
+    TrieNode longestRule = node.isRule ? node : null;
+    int longestPrefix = 0;
+    for (int i = 0; i < name.length(); i++) {
+      node = node.children.get(name.charAt(i));
+      if (node == null) {
+        break;
+      }
+      if (node.isRule) {
+        longestRule = node;
+        longestPrefix = i + 1;
+      }
+    }
+    if (longestRule == null) {
+      return Optional.of(name);
+    }
+    return Optional.of(longestRule.target + name.substring(longestPrefix));
+  }
+
+  private static final class TrieNode {
+    private final Map<Character, TrieNode> children = new HashMap<>();
+    private boolean isRule;
+    private String target;
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.trace;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.devtools.cloudtrace.v2.AttributeValue;
+import java.util.function.Function;
+
+/**
+ * A size-bounded cache of translated span attribute values, so that values repeated across spans,
+ * such as HTTP methods, routes, status codes and host names, are translated once and their
+ * immutable {@link AttributeValue} shared.
+ *
+ * <p>String, long, double and boolean values are cached; arrays and strings longer than {@value
+ * #MAX_CACHED_STRING_LENGTH} characters, which are unlikely to repeat, are always translated.
+ * Entries are keyed by value alone, since the translation of a value does not depend on its
+ * attribute key. When the cache is full, the least recently used entries are evicted.
+ *
+ * <p>A cache may be shared between exporters. This class is thread safe.
+ */
+public final class AttributeValueCache {
+
+  /** The length of the longest string values that are cached. */
+  public static final int MAX_CACHED_STRING_LENGTH = 256;
+
+  private final Cache<Object, AttributeValue> values;
+
+  private AttributeValueCache(long maxEntries) {
+    this.values = CacheBuilder.newBuilder().maximumSize(maxEntries).recordStats().build();
+  }
+
+  /**
+   * Returns a new cache holding at most the given number of values.
+   *
+   * @param maxEntries the maximum number of cached values, must be positive.
+   * @return a new {@code AttributeValueCache}.
+   */
+  public static AttributeValueCache create(long maxEntries) {
+    Preconditions.checkArgument(maxEntries > 0, "Max entries must be positive.");
+    return new AttributeValueCache(maxEntries);
+  }
+
+  /**
+   * Returns the number of lookups that found their value in the cache.
+   *
+   * @return the number of hits.
+   */
+  public long getHits() {
+    return values.stats().hitCount();
+  }
+
+  /**
+   * Returns the number of lookups of cacheable values that were not in the cache, and were
+   * translated and added to it.
+   *
+   * @return the number of misses.
+   */
+  public long getMisses() {
+    return values.stats().missCount();
+  }
+
+  /**
+   * Returns the number of values evicted because the cache was full.
+   *
+   * @return the number of evictions.
+   */
+  public long getEvictions() {
+    return values.stats().evictionCount();
+  }
+
+  /**
+   * Returns the share of lookups that found their value in the cache, or 1 if there were none.
+   *
+   * @return the hit rate, between 0 and 1.
+   */
+  public double getHitRate() {
+    return values.stats().hitRate();
+  }
+
+  /**
+   * Returns the approximate number of cached values.
+   *
+   * @return the number of cached values.
+   */
+  public long size() {
+    return values.size();
+  }
+
+  /**
+   * Returns the translation of a value, from the cache if possible.
+   *
+   * @param value a string, long, double or boolean attribute value.
+   * @param translation translates the value on a miss.
+   * @return the translated value.
+   */
+  AttributeValue get(Object value, Function<Object, AttributeValue> translation) {
+    if (value instanceof String && ((String) value).length() > MAX_CACHED_STRING_LENGTH) {
+      return translation.apply(value);
+    }
+    AttributeValue attributeValue = values.getIfPresent(value);
+    if (attributeValue == null) {
+      attributeValue = translation.apply(value);
+      values.put(value, attributeValue);
+    }
+    return attributeValue;
+  }
+}
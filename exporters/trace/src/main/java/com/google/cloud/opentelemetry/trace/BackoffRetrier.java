@@ -0,0 +1,114 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.trace;
+
+import com.google.api.gax.rpc.StatusCode;
+import com.google.cloud.opentelemetry.exportsupport.CircuitBreakerOpenException;
+import com.google.common.collect.ImmutableSet;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Retries failed RPCs with exponential backoff and full jitter, subject to a {@link RetryBudget}.
+ *
+ * <p>Retries are scheduled on a {@link ScheduledExecutorService}, so no thread waits during the
+ * backoff.
+ */
+final class BackoffRetrier {
+
+  static final Set<StatusCode.Code> RETRYABLE_CODES =
+      ImmutableSet.of(StatusCode.Code.UNAVAILABLE, StatusCode.Code.DEADLINE_EXCEEDED);
+
+  private final int maxRetries;
+  private final long initialDelayNanos;
+  private final long maxDelayNanos;
+  private final RetryBudget budget;
+  private final ScheduledExecutorService scheduler;
+
+  BackoffRetrier(
+      int maxRetries,
+      Duration initialDelay,
+      Duration maxDelay,
+      RetryBudget budget,
+      ScheduledExecutorService scheduler) {
+    this.maxRetries = maxRetries;
+    this.initialDelayNanos = initialDelay.toNanos();
+    this.maxDelayNanos = maxDelay.toNanos();
+    this.budget = budget;
+    this.scheduler = scheduler;
+  }
+
+  /**
+   * Runs the call, retrying it while it fails with a retryable code.
+   *
+   * @param call starts one attempt and returns its result.
+   * @return the result of the last attempt.
+   */
+  CompletableResultCode run(Supplier<CompletableResultCode> call) {
+    budget.recordRequest();
+    CompletableResultCode result = new CompletableResultCode();
+    attempt(call, 0, result);
+    return result;
+  }
+
+  private void attempt(
+      Supplier<CompletableResultCode> call, int retry, CompletableResultCode result) {
+    CompletableResultCode outcome = call.get();
+    outcome.whenComplete(
+        () -> {
+          if (outcome.isSuccess()) {
+            result.succeed();
+            return;
+          }
+          Throwable failure = outcome.getFailureThrowable();
+          if (retry < maxRetries
+              && RETRYABLE_CODES.contains(RpcStatusCodes.fromThrowable(failure))
+              // Retrying cannot help while the circuit breaker rejects calls.
+              && !(failure.getCause() instanceof CircuitBreakerOpenException)
+              && budget.tryAcquireRetry()) {
+            try {
+              scheduler.schedule(
+                  () -> attempt(call, retry + 1, result),
+                  backoffNanos(retry),
+                  TimeUnit.NANOSECONDS);
+              return;
+            } catch (RejectedExecutionException e) {
+              // The exporter is shutting down, report the last failure.
+            }
+          }
+          if (failure != null) {
+            result.failExceptionally(failure);
+          } else {
+            result.fail();
+          }
+        });
+  }
+
+  /** Returns a random delay between zero and the exponential backoff cap for this retry. */
+  private long backoffNanos(int retry) {
+    long cap = initialDelayNanos << Math.min(retry, 30);
+    if (cap <= 0 || cap > maxDelayNanos) {
+      cap = maxDelayNanos;
+    }
+    return ThreadLocalRandom.current().nextLong(cap + 1);
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.trace;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.api.gax.grpc.GrpcStatusCode;
+import com.google.api.gax.rpc.StatusCode;
+import com.google.api.gax.rpc.UnavailableException;
+import com.google.cloud.opentelemetry.exportsupport.CircuitBreaker;
+import com.google.cloud.opentelemetry.exportsupport.CircuitBreakerOpenException;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.devtools.cloudtrace.v2.ProjectName;
+import com.google.devtools.cloudtrace.v2.Span;
+import com.google.protobuf.Empty;
+import io.grpc.Status;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link CloudTraceClient} that guards another one with a {@link CircuitBreaker}.
+ *
+ * <p>Calls rejected by an open breaker fail immediately with an {@link UnavailableException} caused
+ * by a {@link CircuitBreakerOpenException}, so they are handled like any other outage.
+ */
+final class CircuitBreakingCloudTraceClient implements CloudTraceClient {
+
+  // Failures that say something about the health of Cloud Trace, rather than about the request.
+  private static final Set<StatusCode.Code> BACKEND_FAILURE_CODES =
+      ImmutableSet.of(
+          StatusCode.Code.UNAVAILABLE,
+          StatusCode.Code.DEADLINE_EXCEEDED,
+          StatusCode.Code.RESOURCE_EXHAUSTED,
+          StatusCode.Code.INTERNAL);
+
+  private final CloudTraceClient delegate;
+  private final CircuitBreaker circuitBreaker;
+
+  CircuitBreakingCloudTraceClient(CloudTraceClient delegate, CircuitBreaker circuitBreaker) {
+    this.delegate = delegate;
+    this.circuitBreaker = circuitBreaker;
+  }
+
+  @Override
+  public void batchWriteSpans(ProjectName name, List<Span> spans) {
+    if (!circuitBreaker.tryAcquirePermission()) {
+      throw openCircuitException();
+    }
+    long start = System.nanoTime();
+    try {
+      delegate.batchWriteSpans(name, spans);
+    } catch (RuntimeException e) {
+      recordFailure(e, System.nanoTime() - start);
+      throw e;
+    }
+    circuitBreaker.onSuccess(System.nanoTime() - start);
+  }
+
+  @Override
+  public ApiFuture<Empty> batchWriteSpansAsync(ProjectName name, List<Span> spans) {
+    if (!circuitBreaker.tryAcquirePermission()) {
+      return ApiFutures.immediateFailedFuture(openCircuitException());
+    }
+    long start = System.nanoTime();
+    ApiFuture<Empty> future;
+    try {
+      future = delegate.batchWriteSpansAsync(name, spans);
+    } catch (RuntimeException e) {
+      recordFailure(e, System.nanoTime() - start);
+      throw e;
+    }
+    ApiFutures.addCallback(
+        future,
+        new ApiFutureCallback<Empty>() {
+          @Override
+          public void onFailure(Throwable t) {
+            recordFailure(t, System.nanoTime() - start);
+          }
+
+          @Override
+          public void onSuccess(Empty empty) {
+            circuitBreaker.onSuccess(System.nanoTime() - start);
+          }
+        },
+        MoreExecutors.directExecutor());
+    return future;
+  }
+
+  @Override
+  public void shutdown() {
+    delegate.shutdown();
+  }
+
+  @Override
+  public boolean awaitTermination(long duration, TimeUnit unit) throws InterruptedException {
+    return delegate.awaitTermination(duration, unit);
+  }
+
+  @Override
+  public void shutdownNow() {
+    delegate.shutdownNow();
+  }
+
+  private void recordFailure(Throwable t, long durationNanos) {
+    if (BACKEND_FAILURE_CODES.contains(RpcStatusCodes.fromThrowable(t))) {
+      circuitBreaker.onFailure(durationNanos);
+    } else {
+      circuitBreaker.onSuccess(durationNanos);
+    }
+  }
+
+  private static UnavailableException openCircuitException() {
+    return new UnavailableException(
+        new CircuitBreakerOpenException("Cloud Trace circuit breaker is open."),
+        GrpcStatusCode.of(Status.Code.UNAVAILABLE),
+        false);
+  }
+}
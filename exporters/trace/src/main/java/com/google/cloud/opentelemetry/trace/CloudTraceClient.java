@@ -15,12 +15,52 @@
  */
 package com.google.cloud.opentelemetry.trace;
 
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
 import com.google.devtools.cloudtrace.v2.ProjectName;
 import com.google.devtools.cloudtrace.v2.Span;
+import com.google.protobuf.Empty;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 public interface CloudTraceClient {
   void batchWriteSpans(ProjectName name, List<Span> spans);
 
+  /**
+   * Sends spans to Cloud Trace without waiting for the RPC to complete.
+   *
+   * <p>The default implementation delegates to {@link #batchWriteSpans(ProjectName, List)} and
+   * therefore blocks; implementations backed by a real transport should override it.
+   *
+   * @param name The name of the project where we write the spans.
+   * @param spans The list of spans to write.
+   * @return a future that completes once Cloud Trace has accepted or rejected the spans.
+   */
+  default ApiFuture<Empty> batchWriteSpansAsync(ProjectName name, List<Span> spans) {
+    try {
+      batchWriteSpans(name, spans);
+      return ApiFutures.immediateFuture(Empty.getDefaultInstance());
+    } catch (RuntimeException e) {
+      return ApiFutures.immediateFailedFuture(e);
+    }
+  }
+
   void shutdown();
+
+  /**
+   * Waits for the RPCs in flight to complete after {@link #shutdown()}.
+   *
+   * @param duration the maximum time to wait.
+   * @param unit the unit of {@code duration}.
+   * @return {@code true} if the client terminated, {@code false} if the timeout elapsed first.
+   * @throws InterruptedException if the current thread was interrupted while waiting.
+   */
+  default boolean awaitTermination(long duration, TimeUnit unit) throws InterruptedException {
+    return true;
+  }
+
+  /** Shuts down this client and cancels the RPCs still in flight. */
+  default void shutdownNow() {
+    shutdown();
+  }
 }
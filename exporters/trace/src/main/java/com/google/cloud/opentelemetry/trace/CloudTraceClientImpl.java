@@ -15,10 +15,14 @@
  */
 package com.google.cloud.opentelemetry.trace;
 
+import com.google.api.core.ApiFuture;
 import com.google.cloud.trace.v2.TraceServiceClient;
+import com.google.devtools.cloudtrace.v2.BatchWriteSpansRequest;
 import com.google.devtools.cloudtrace.v2.ProjectName;
 import com.google.devtools.cloudtrace.v2.Span;
+import com.google.protobuf.Empty;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 public class CloudTraceClientImpl implements CloudTraceClient {
   private final TraceServiceClient traceServiceClient;
@@ -31,7 +35,24 @@ public class CloudTraceClientImpl implements CloudTraceClient {
     this.traceServiceClient.batchWriteSpans(name, spans);
   }
 
+  @Override
+  public final ApiFuture<Empty> batchWriteSpansAsync(ProjectName name, List<Span> spans) {
+    BatchWriteSpansRequest request =
+        BatchWriteSpansRequest.newBuilder().setName(name.toString()).addAllSpans(spans).build();
+    return this.traceServiceClient.batchWriteSpansCallable().futureCall(request);
+  }
+
   public final void shutdown() {
     this.traceServiceClient.shutdown();
   }
+
+  @Override
+  public final boolean awaitTermination(long duration, TimeUnit unit) throws InterruptedException {
+    return this.traceServiceClient.awaitTermination(duration, unit);
+  }
+
+  @Override
+  public final void shutdownNow() {
+    this.traceServiceClient.shutdownNow();
+  }
 }
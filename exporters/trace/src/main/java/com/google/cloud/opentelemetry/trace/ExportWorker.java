@@ -0,0 +1,201 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.trace;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.devtools.cloudtrace.v2.Span;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * One shard of the trace exporter. A worker translates the spans routed to it and hands them to
+ * its span buffer, or straight to the sink, on its own thread. Each worker has its own translator,
+ * buffer and share of the in-flight limits, so workers never contend with each other before their
+ * spans reach the network.
+ *
+ * <p>At most {@code maxQueuedExports} exports wait for the worker thread; further exports fail
+ * immediately instead of queuing more spans on the heap.
+ */
+final class ExportWorker {
+
+  private static final Logger logger = LoggerFactory.getLogger(ExportWorker.class);
+
+  private final String projectId;
+  private final TraceTranslator translator;
+  @Nullable private final SpanBuffer spanBuffer;
+  @Nullable private final InFlightLimiter inFlightLimiter;
+  private final Function<List<Span>, CompletableResultCode> sink;
+  private final int maxQueuedExports;
+  private final ThreadPoolExecutor executor;
+  // Spans of the exports waiting for the worker thread.
+  private final AtomicInteger queuedSpans = new AtomicInteger();
+  private final CompletableResultCode shutdownResult = new CompletableResultCode();
+
+  /**
+   * Creates a worker.
+   *
+   * @param inFlightLimiter the worker's share of the in-flight limits, used by {@code sink}.
+   * @param maxQueuedExports the number of exports that may wait for the worker thread.
+   */
+  ExportWorker(
+      int index,
+      String projectId,
+      TraceTranslator translator,
+      @Nullable SpanBuffer spanBuffer,
+      @Nullable InFlightLimiter inFlightLimiter,
+      int maxQueuedExports,
+      Function<List<Span>, CompletableResultCode> sink) {
+    this.projectId = projectId;
+    this.translator = translator;
+    this.spanBuffer = spanBuffer;
+    this.inFlightLimiter = inFlightLimiter;
+    this.sink = sink;
+    this.maxQueuedExports = maxQueuedExports;
+    this.executor =
+        new ThreadPoolExecutor(
+            1,
+            1,
+            0,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(maxQueuedExports),
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("google-cloud-trace-exporter-worker-" + index)
+                .build()) {
+          @Override
+          protected void terminated() {
+            // Every export queued before shutdown has reached the buffer by now.
+            CompletableResultCode result =
+                spanBuffer == null ? CompletableResultCode.ofSuccess() : spanBuffer.shutdown();
+            result.whenComplete(() -> InternalTraceExporter.completeFrom(result, shutdownResult));
+          }
+        };
+  }
+
+  /**
+   * Translates the spans and buffers or sends them on the worker thread.
+   *
+   * @return a result that completes once the spans were buffered, or sent if there is no buffer.
+   */
+  CompletableResultCode export(List<SpanData> spanDataList) {
+    return onWorkerThread(
+        spanDataList.size(),
+        () -> {
+          List<Span> spans = new ArrayList<>(spanDataList.size());
+          for (SpanData spanData : spanDataList) {
+            spans.add(translator.generateSpan(spanData, projectId));
+          }
+          return write(spans);
+        });
+  }
+
+  /**
+   * Buffers or sends spans that were already translated on the worker thread.
+   *
+   * @return a result that completes once the spans were buffered, or sent if there is no buffer.
+   */
+  CompletableResultCode exportTranslated(List<Span> spans) {
+    return onWorkerThread(spans.size(), () -> write(spans));
+  }
+
+  /**
+   * Sends every span exported to this worker so far.
+   *
+   * @return a result that completes once the buffered spans were sent.
+   */
+  CompletableResultCode flush() {
+    // Runs after the exports already queued on the worker thread have reached the buffer. Fails
+    // if the queue is full.
+    return onWorkerThread(
+        0, () -> spanBuffer == null ? CompletableResultCode.ofSuccess() : spanBuffer.flush());
+  }
+
+  /**
+   * Stops accepting spans, and sends the remaining ones once the exports already queued have been
+   * buffered.
+   */
+  CompletableResultCode shutdown() {
+    executor.shutdown();
+    return shutdownResult;
+  }
+
+  /** Returns the worker's share of the in-flight limits, or {@code null} if there are none. */
+  @Nullable
+  InFlightLimiter getInFlightLimiter() {
+    return inFlightLimiter;
+  }
+
+  /** Returns the number of spans waiting for the worker thread or in the worker's span buffer. */
+  int getBufferedSpans() {
+    return queuedSpans.get() + (spanBuffer == null ? 0 : spanBuffer.getBufferedSpans());
+  }
+
+  /**
+   * Returns how close the worker is to its fullest limit, out of its export queue, its span buffer
+   * and its in-flight limits, as a share of that limit.
+   */
+  double getUtilization() {
+    double utilization = (double) executor.getQueue().size() / maxQueuedExports;
+    if (spanBuffer != null) {
+      utilization = Math.max(utilization, spanBuffer.getUtilization());
+    }
+    if (inFlightLimiter != null) {
+      utilization = Math.max(utilization, inFlightLimiter.getUtilization());
+    }
+    return utilization;
+  }
+
+  private CompletableResultCode write(List<Span> spans) {
+    return spanBuffer == null ? sink.apply(spans) : spanBuffer.add(spans);
+  }
+
+  private CompletableResultCode onWorkerThread(
+      int spanCount, Supplier<CompletableResultCode> task) {
+    CompletableResultCode result = new CompletableResultCode();
+    queuedSpans.addAndGet(spanCount);
+    try {
+      executor.execute(
+          () -> {
+            queuedSpans.addAndGet(-spanCount);
+            CompletableResultCode taskResult;
+            try {
+              taskResult = task.get();
+            } catch (RuntimeException e) {
+              result.failExceptionally(e);
+              return;
+            }
+            taskResult.whenComplete(() -> InternalTraceExporter.completeFrom(taskResult, result));
+          });
+    } catch (RejectedExecutionException e) {
+      queuedSpans.addAndGet(-spanCount);
+      logger.debug("Export worker queue is full or shut down, rejected {} spans.", spanCount);
+      return CompletableResultCode.ofFailure();
+    }
+    return result;
+  }
+}
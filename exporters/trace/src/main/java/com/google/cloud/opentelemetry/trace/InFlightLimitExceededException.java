@@ -0,0 +1,33 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.trace;
+
+/**
+ * Reported as the failure of an export that was rejected without being sent because the exporter
+ * already has as many BatchWriteSpans requests, or as much span data, in flight as it is configured
+ * to allow.
+ *
+ * @see TraceConfiguration#getMaxInFlightRequests()
+ * @see TraceConfiguration#getMaxInFlightBytes()
+ */
+public final class InFlightLimitExceededException extends RuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  InFlightLimitExceededException(String message) {
+    super(message);
+  }
+}
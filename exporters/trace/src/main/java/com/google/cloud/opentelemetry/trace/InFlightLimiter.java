@@ -0,0 +1,78 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.trace;
+
+/**
+ * Bounds the number of BatchWriteSpans requests and the amount of serialized span data that are in
+ * flight at the same time. A limit of zero means unlimited.
+ */
+final class InFlightLimiter {
+
+  private final int maxRequests;
+  private final long maxBytes;
+
+  private int requests;
+  private long bytes;
+
+  InFlightLimiter(int maxRequests, long maxBytes) {
+    this.maxRequests = maxRequests;
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Reserves capacity for the given requests, all or nothing.
+   *
+   * @return false if the reservation would exceed either limit.
+   */
+  synchronized boolean tryAcquire(int requestCount, long byteCount) {
+    // Always admit a batch when nothing else is in flight, even if it exceeds a limit on its own.
+    if (requests == 0) {
+      requests = requestCount;
+      bytes = byteCount;
+      return true;
+    }
+    if (maxRequests > 0 && requests + requestCount > maxRequests) {
+      return false;
+    }
+    if (maxBytes > 0 && bytes + byteCount > maxBytes) {
+      return false;
+    }
+    requests += requestCount;
+    bytes += byteCount;
+    return true;
+  }
+
+  /** Returns capacity reserved by {@link #tryAcquire(int, long)} once a request completes. */
+  synchronized void release(int requestCount, long byteCount) {
+    requests -= requestCount;
+    bytes -= byteCount;
+  }
+
+  /** Returns how close the in-flight data is to the fuller of the two limits, as a share. */
+  synchronized double getUtilization() {
+    double requestShare = maxRequests > 0 ? (double) requests / maxRequests : 0;
+    double byteShare = maxBytes > 0 ? (double) bytes / maxBytes : 0;
+    return Math.max(requestShare, byteShare);
+  }
+
+  synchronized int getRequestsInFlight() {
+    return requests;
+  }
+
+  synchronized long getBytesInFlight() {
+    return bytes;
+  }
+}
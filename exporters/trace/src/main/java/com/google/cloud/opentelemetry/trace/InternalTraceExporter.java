@@ -17,30 +17,60 @@ package com.google.cloud.opentelemetry.trace;
 
 import static com.google.api.client.util.Preconditions.checkNotNull;
 
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
 import com.google.api.gax.core.FixedCredentialsProvider;
 import com.google.api.gax.core.NoCredentialsProvider;
+import com.google.api.gax.grpc.ChannelPoolSettings;
 import com.google.api.gax.grpc.GrpcTransportChannel;
 import com.google.api.gax.rpc.FixedTransportChannelProvider;
 import com.google.api.gax.rpc.HeaderProvider;
+import com.google.api.gax.rpc.StatusCode;
 import com.google.auth.Credentials;
-import com.google.auth.oauth2.GoogleCredentials;
+import com.google.cloud.opentelemetry.exportsupport.DiskSpool;
+import com.google.cloud.opentelemetry.exportsupport.DrainTracker;
+import com.google.cloud.opentelemetry.exportsupport.RefreshingCredentials;
+import com.google.cloud.opentelemetry.trace.SpanRequestSplitter.SpanRequest;
 import com.google.cloud.trace.v2.TraceServiceClient;
 import com.google.cloud.trace.v2.TraceServiceSettings;
 import com.google.cloud.trace.v2.stub.TraceServiceStub;
-import com.google.common.collect.ImmutableMap;
-import com.google.devtools.cloudtrace.v2.AttributeValue;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.math.IntMath;
+import com.google.common.math.LongMath;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.devtools.cloudtrace.v2.BatchWriteSpansRequest;
 import com.google.devtools.cloudtrace.v2.ProjectName;
 import com.google.devtools.cloudtrace.v2.Span;
+import com.google.protobuf.Empty;
+import com.google.protobuf.InvalidProtocolBufferException;
 import io.grpc.ManagedChannelBuilder;
 import io.opentelemetry.sdk.common.CompletableResultCode;
 import io.opentelemetry.sdk.trace.data.SpanData;
 import io.opentelemetry.sdk.trace.export.SpanExporter;
 import java.io.IOException;
+import java.math.RoundingMode;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * This class encapsulates internal implementation details for exporting spans to Google Cloud
@@ -48,32 +78,66 @@ import java.util.Map;
  */
 class InternalTraceExporter implements SpanExporter {
 
+  private static final Logger logger = LoggerFactory.getLogger(InternalTraceExporter.class);
+
   private final CloudTraceClient cloudTraceClient;
   private final ProjectName projectName;
   private final String projectId;
   private final TraceTranslator translator;
+  private final SpanRequestSplitter requestSplitter;
+  @Nullable private final SpanBuffer spanBuffer;
+  @Nullable private final List<ExportWorker> workers;
+  private final AtomicInteger nextWorker = new AtomicInteger();
+  private final boolean invalidSpanIsolationEnabled;
+  private final AtomicLong droppedInvalidSpans = new AtomicLong();
+  @Nullable private final ScheduledExecutorService scheduler;
+  @Nullable private final BackoffRetrier retrier;
+  @Nullable private final DiskSpool spool;
+  @Nullable private final InFlightLimiter inFlightLimiter;
+  private final AtomicLong rejectedSpans = new AtomicLong();
+  @Nullable private final SpanRateLimiter rateLimiter;
+  private final AtomicLong shedSpans = new AtomicLong();
+  @Nullable private final SpanSheddingPolicy sheddingPolicy;
+  private final Duration shutdownTimeout;
+  private final DrainTracker inFlightRequests = new DrainTracker();
+  private final AtomicBoolean isShutdown = new AtomicBoolean();
+  private final CompletableResultCode shutdownResult = new CompletableResultCode();
+  private final AtomicLong spansLostOnShutdown = new AtomicLong();
+  private final AtomicBoolean replayingSpool = new AtomicBoolean();
 
   private static final Map<String, String> HEADERS =
       Collections.singletonMap(
           "User-Agent", "opentelemetry-operations-java/" + TraceVersions.EXPORTER_VERSION);
   private static final HeaderProvider HEADER_PROVIDER = () -> HEADERS;
 
+  // Failures that mean Cloud Trace could not take the spans right now, rather than rejected them.
+  private static final Set<StatusCode.Code> SPOOLED_CODES =
+      ImmutableSet.of(
+          StatusCode.Code.UNAVAILABLE,
+          StatusCode.Code.DEADLINE_EXCEEDED,
+          StatusCode.Code.RESOURCE_EXHAUSTED);
+  private static final Duration SPOOL_REPLAY_INTERVAL = Duration.ofSeconds(10);
+  // Exports that may wait for each worker's thread before further exports are rejected.
+  private static final int MAX_QUEUED_WORKER_EXPORTS = 16;
+
   private static InternalTraceExporter createWithClient(
-      String projectId,
-      CloudTraceClient cloudTraceClient,
-      ImmutableMap<String, String> attributeMappings,
-      Map<String, AttributeValue> fixedAttributes) {
-    return new InternalTraceExporter(
-        projectId, cloudTraceClient, attributeMappings, fixedAttributes);
+      String projectId, CloudTraceClient cloudTraceClient, TraceConfiguration configuration) {
+    return new InternalTraceExporter(projectId, cloudTraceClient, configuration);
   }
 
   static SpanExporter createWithConfiguration(TraceConfiguration configuration) throws IOException {
+    if (configuration.getOtlpEndpoint() != null) {
+      return OtlpTraceExporter.createWithConfiguration(configuration);
+    }
     String projectId = configuration.getProjectId();
     TraceServiceStub stub = configuration.getTraceServiceStub();
 
     // TODO: Remove stub - tracked in issue #198
     if (stub == null) {
-      TraceServiceSettings.Builder builder = TraceServiceSettings.newBuilder();
+      TraceServiceSettings.Builder builder =
+          configuration.getUseHttpJsonTransport() && !configuration.getInsecureEndpoint()
+              ? TraceServiceSettings.newHttpJsonBuilder()
+              : TraceServiceSettings.newBuilder();
 
       // We only use the batchWriteSpans API in this exporter.
       builder
@@ -92,58 +156,714 @@ class InternalTraceExporter implements SpanExporter {
       } else {
         Credentials credentials =
             configuration.getCredentials() == null
-                ? GoogleCredentials.getApplicationDefault()
+                ? RefreshingCredentials.getApplicationDefault()
                 : configuration.getCredentials();
+        if (configuration.getEagerInitialization()) {
+          prefetchAccessToken(credentials);
+        }
         builder.setCredentialsProvider(
             FixedCredentialsProvider.create(checkNotNull(credentials, "credentials")));
         builder.setEndpoint(configuration.getTraceServiceEndpoint());
         builder.setHeaderProvider(HEADER_PROVIDER);
+        if (!configuration.getUseHttpJsonTransport()) {
+          // Spread RPCs over several HTTP/2 connections to avoid per-connection stream limits.
+          builder.setTransportChannelProvider(
+              TraceServiceSettings.defaultGrpcTransportProviderBuilder()
+                  .setChannelPoolSettings(
+                      ChannelPoolSettings.staticallySized(configuration.getChannelPoolSize()))
+                  .build());
+        }
       }
 
-      return new InternalTraceExporter(
-          projectId,
-          new CloudTraceClientImpl(TraceServiceClient.create(builder.build())),
-          configuration.getAttributeMapping(),
-          configuration.getFixedAttributes());
+      CloudTraceClient client =
+          new CloudTraceClientImpl(TraceServiceClient.create(builder.build()));
+      if (configuration.getEagerInitialization()) {
+        warmUp(
+            client,
+            ProjectName.of(projectId),
+            configuration.getUseHttpJsonTransport() ? 1 : configuration.getChannelPoolSize(),
+            configuration.getDeadline());
+      }
+      return new InternalTraceExporter(projectId, client, configuration);
     }
     return InternalTraceExporter.createWithClient(
-        projectId,
-        new CloudTraceClientImpl(TraceServiceClient.create(stub)),
-        configuration.getAttributeMapping(),
-        configuration.getFixedAttributes());
+        projectId, new CloudTraceClientImpl(TraceServiceClient.create(stub)), configuration);
+  }
+
+  /** Fetches an access token ahead of the first request, so that it does not wait for one. */
+  static void prefetchAccessToken(Credentials credentials) {
+    try {
+      credentials.getRequestMetadata();
+    } catch (IOException | RuntimeException e) {
+      // The first request fetches the token again and reports the failure if it persists.
+      logger.debug("Failed to prefetch an access token for Cloud Trace.", e);
+    }
+  }
+
+  /**
+   * Opens the connections to Cloud Trace ahead of the first export, by sending an empty
+   * BatchWriteSpans request on each channel and waiting for the responses. Whether Cloud Trace
+   * accepts the empty request does not matter: either way the connection is established and
+   * authenticated.
+   */
+  @VisibleForTesting
+  static void warmUp(
+      CloudTraceClient client, ProjectName projectName, int channels, Duration timeout) {
+    // The channel pool hands out its channels in turn, so each request opens a different one.
+    List<ApiFuture<Empty>> requests = new ArrayList<>(channels);
+    for (int i = 0; i < channels; i++) {
+      requests.add(client.batchWriteSpansAsync(projectName, Collections.emptyList()));
+    }
+    try {
+      ApiFutures.successfulAsList(requests).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException | TimeoutException e) {
+      // The first export opens the connection again and reports the failure if it persists.
+      logger.debug("Failed to open the connection to Cloud Trace ahead of time.", e);
+    }
   }
 
   InternalTraceExporter(
-      String projectId,
-      CloudTraceClient cloudTraceClient,
-      ImmutableMap<String, String> attributeMappings,
-      Map<String, AttributeValue> fixedAttributes) {
+      String projectId, CloudTraceClient cloudTraceClient, TraceConfiguration configuration) {
     this.projectId = projectId;
-    this.cloudTraceClient = cloudTraceClient;
+    this.cloudTraceClient =
+        configuration.getCircuitBreaker() == null
+            ? cloudTraceClient
+            : new CircuitBreakingCloudTraceClient(
+                cloudTraceClient, configuration.getCircuitBreaker());
     this.projectName = ProjectName.of(projectId);
-    this.translator = new TraceTranslator(attributeMappings, fixedAttributes);
+    this.translator =
+        new TraceTranslator(
+            AttributeKeyMapping.compile(configuration),
+            configuration.getFixedAttributes(),
+            configuration.getAttributeValueCache());
+    this.requestSplitter =
+        new SpanRequestSplitter(
+            projectName, configuration.getMaxSpansPerRequest(), configuration.getMaxRequestBytes());
+    this.invalidSpanIsolationEnabled = configuration.getInvalidSpanIsolationEnabled();
+    this.rateLimiter =
+        configuration.getMaxSpansPerSecond() > 0 || configuration.getMaxRequestsPerSecond() > 0
+            ? new SpanRateLimiter(
+                configuration.getMaxSpansPerSecond(), configuration.getMaxRequestsPerSecond())
+            : null;
+    this.sheddingPolicy = configuration.getSheddingPolicy();
+    this.shutdownTimeout = configuration.getShutdownTimeout();
+    this.spool = openSpool(configuration);
+    this.scheduler =
+        configuration.getMaxRetryAttempts() > 0 || spool != null
+            ? Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder()
+                    .setDaemon(true)
+                    .setNameFormat("google-cloud-trace-exporter-%d")
+                    .build())
+            : null;
+    this.retrier =
+        configuration.getMaxRetryAttempts() > 0
+            ? new BackoffRetrier(
+                configuration.getMaxRetryAttempts(),
+                configuration.getInitialRetryDelay(),
+                configuration.getMaxRetryDelay(),
+                configuration.getRetryBudget(),
+                scheduler)
+            : null;
+    if (spool != null) {
+      // Also picks up spans spooled by a previous process.
+      scheduler.scheduleWithFixedDelay(
+          this::replaySpool, 0, SPOOL_REPLAY_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+    }
+    int workerCount = configuration.getExportWorkers();
+    if (workerCount > 1) {
+      this.spanBuffer = null;
+      this.inFlightLimiter = null;
+      this.workers = new ArrayList<>(workerCount);
+      for (int i = 0; i < workerCount; i++) {
+        InFlightLimiter workerLimiter = createInFlightLimiter(configuration, workerCount);
+        workers.add(
+            new ExportWorker(
+                i,
+                projectId,
+                new TraceTranslator(
+                    AttributeKeyMapping.compile(configuration),
+                    configuration.getFixedAttributes(),
+                    configuration.getAttributeValueCache()),
+                createSpanBuffer(configuration, workerCount, workerLimiter),
+                workerLimiter,
+                MAX_QUEUED_WORKER_EXPORTS,
+                spans -> writeSpans(spans, workerLimiter)));
+      }
+    } else {
+      this.inFlightLimiter = createInFlightLimiter(configuration, 1);
+      this.spanBuffer = createSpanBuffer(configuration, 1, inFlightLimiter);
+      this.workers = null;
+    }
+  }
+
+  /**
+   * Creates the in-flight limiter of the exporter, or of one of the workers, which share the limits
+   * evenly.
+   */
+  @Nullable
+  private static InFlightLimiter createInFlightLimiter(
+      TraceConfiguration configuration, int shares) {
+    if (configuration.getMaxInFlightRequests() == 0 && configuration.getMaxInFlightBytes() == 0) {
+      return null;
+    }
+    // Rounded up, so that a share is never zero, which would mean unlimited.
+    return new InFlightLimiter(
+        IntMath.divide(configuration.getMaxInFlightRequests(), shares, RoundingMode.CEILING),
+        LongMath.divide(configuration.getMaxInFlightBytes(), shares, RoundingMode.CEILING));
+  }
+
+  /**
+   * Creates the span buffer of the exporter, or of one of the workers, which share the buffer
+   * capacity.
+   */
+  @Nullable
+  private SpanBuffer createSpanBuffer(
+      TraceConfiguration configuration,
+      int workerCount,
+      @Nullable InFlightLimiter inFlightLimiter) {
+    if (!configuration.getBufferingEnabled()) {
+      return null;
+    }
+    SpanStore store =
+        configuration.getOffHeapBufferBytes() > 0
+            ? new OffHeapSpanStore(Math.max(1, configuration.getOffHeapBufferBytes() / workerCount))
+            : SpanStore.onHeap(Math.max(1, configuration.getMaxBufferedSpans() / workerCount));
+    return new SpanBuffer(
+        store,
+        configuration.getMaxSpansPerRequest(),
+        configuration.getBufferFlushInterval(),
+        spans -> writeSpans(spans, inFlightLimiter));
+  }
+
+  @Nullable
+  private static DiskSpool openSpool(TraceConfiguration configuration) {
+    if (configuration.getSpoolDirectory() == null) {
+      return null;
+    }
+    try {
+      return DiskSpool.open(configuration.getSpoolDirectory(), configuration.getSpoolMaxBytes());
+    } catch (IOException e) {
+      logger.warn(
+          "Failed to open span spool in {}, spans will not be spooled.",
+          configuration.getSpoolDirectory(),
+          e);
+      return null;
+    }
   }
 
   @Override
   public CompletableResultCode flush() {
-    // We do no exporter buffering of spans, so we're always flushed.
-    return CompletableResultCode.ofSuccess();
+    if (workers != null) {
+      List<CompletableResultCode> results = new ArrayList<>(workers.size());
+      for (ExportWorker worker : workers) {
+        results.add(worker.flush());
+      }
+      return CompletableResultCode.ofAll(results);
+    }
+    if (spanBuffer == null) {
+      // Without exporter buffering of spans we're always flushed.
+      return CompletableResultCode.ofSuccess();
+    }
+    return spanBuffer.flush();
   }
 
   @Override
   public CompletableResultCode export(Collection<SpanData> spanDataList) {
-    List<Span> spans = new ArrayList<>(spanDataList.size());
-    for (SpanData spanData : spanDataList) {
+    if (isShutdown.get()) {
+      logger.debug("Exporter is shut down, rejected {} spans.", spanDataList.size());
+      return CompletableResultCode.ofFailure();
+    }
+    // Shed before translating, so that dropped spans cost as little as possible.
+    Collection<SpanData> exported =
+        sheddingPolicy == null ? spanDataList : sheddingPolicy.shed(spanDataList, getPressure());
+    int shed = spanDataList.size() - exported.size();
+    if (shed > 0) {
+      shedSpans.addAndGet(shed);
+      logger.debug("Exporter under pressure, shed {} of {} spans.", shed, spanDataList.size());
+    }
+    if (exported.isEmpty()) {
+      return CompletableResultCode.ofSuccess();
+    }
+    if (workers != null) {
+      return exportSharded(exported);
+    }
+    List<Span> spans = new ArrayList<>(exported.size());
+    for (SpanData spanData : exported) {
       spans.add(translator.generateSpan(spanData, projectId));
     }
+    if (spanBuffer != null) {
+      return spanBuffer.add(spans);
+    }
+    return writeSpans(spans, inFlightLimiter);
+  }
+
+  /**
+   * Exports spans that were already translated, e.g. by a {@link RingBufferSpanProcessor} that
+   * translates spans as they end. The shedding policy does not apply to them.
+   */
+  CompletableResultCode exportTranslated(List<Span> spans) {
+    if (isShutdown.get()) {
+      logger.debug("Exporter is shut down, rejected {} spans.", spans.size());
+      return CompletableResultCode.ofFailure();
+    }
+    if (workers != null) {
+      // There is nothing left to translate, so trace affinity does not matter.
+      int worker = Math.floorMod(nextWorker.getAndIncrement(), workers.size());
+      return workers.get(worker).exportTranslated(spans);
+    }
+    if (spanBuffer != null) {
+      return spanBuffer.add(spans);
+    }
+    return writeSpans(spans, inFlightLimiter);
+  }
+
+  /**
+   * Routes the spans to the workers by trace id, so that the spans of a trace are always
+   * translated, buffered and sent together.
+   */
+  private CompletableResultCode exportSharded(Collection<SpanData> spanDataList) {
+    List<List<SpanData>> shards = new ArrayList<>(workers.size());
+    for (int i = 0; i < workers.size(); i++) {
+      shards.add(new ArrayList<>());
+    }
+    for (SpanData spanData : spanDataList) {
+      int shard = Math.floorMod(spanData.getSpanContext().getTraceId().hashCode(), workers.size());
+      shards.get(shard).add(spanData);
+    }
+    List<CompletableResultCode> results = new ArrayList<>(workers.size());
+    for (int i = 0; i < workers.size(); i++) {
+      if (!shards.get(i).isEmpty()) {
+        results.add(workers.get(i).export(shards.get(i)));
+      }
+    }
+    return CompletableResultCode.ofAll(results);
+  }
+
+  /** Returns how close the exporter is to its fullest limit, as a share of that limit. */
+  private double getPressure() {
+    double pressure = 0;
+    if (spanBuffer != null) {
+      pressure = Math.max(pressure, spanBuffer.getUtilization());
+    }
+    if (workers != null) {
+      for (ExportWorker worker : workers) {
+        pressure = Math.max(pressure, worker.getUtilization());
+      }
+    }
+    if (inFlightLimiter != null) {
+      pressure = Math.max(pressure, inFlightLimiter.getUtilization());
+    }
+    if (rateLimiter != null) {
+      pressure = Math.max(pressure, rateLimiter.getUtilization());
+    }
+    return pressure;
+  }
+
+  private CompletableResultCode writeSpans(
+      List<Span> spans, @Nullable InFlightLimiter inFlightLimiter) {
+    if (spans.isEmpty()) {
+      // An empty request would still take rate and in-flight permits.
+      return CompletableResultCode.ofSuccess();
+    }
+    List<SpanRequest> requests = requestSplitter.split(spans);
+    long totalBytes = 0;
+    if (inFlightLimiter != null) {
+      for (SpanRequest request : requests) {
+        totalBytes += request.getSpanBytes();
+      }
+      if (!inFlightLimiter.tryAcquire(requests.size(), totalBytes)) {
+        rejectedSpans.addAndGet(spans.size());
+        logger.debug("Too much span data in flight, rejected {} spans.", spans.size());
+        return CompletableResultCode.ofExceptionalFailure(
+            new InFlightLimitExceededException(
+                "Rejected "
+                    + spans.size()
+                    + " spans because too many Cloud Trace requests are in flight."));
+      }
+    }
+    if (rateLimiter != null && !rateLimiter.tryAcquire(requests.size(), spans.size())) {
+      if (inFlightLimiter != null) {
+        inFlightLimiter.release(requests.size(), totalBytes);
+      }
+      shedSpans.addAndGet(spans.size());
+      logger.debug("Cloud Trace rate limit reached, shed {} spans.", spans.size());
+      return CompletableResultCode.ofExceptionalFailure(
+          new RateLimitExceededException(
+              "Shed " + spans.size() + " spans because the Cloud Trace rate limit was reached."));
+    }
+    // All requests are in flight at the same time; the result completes once every one has.
+    List<CompletableResultCode> results = new ArrayList<>(requests.size());
+    for (SpanRequest request : requests) {
+      int requestSpans = request.getSpans().size();
+      inFlightRequests.begin(requestSpans);
+      CompletableResultCode result = exportRequest(request.getSpans());
+      result.whenComplete(() -> inFlightRequests.end(requestSpans));
+      if (inFlightLimiter != null) {
+        result.whenComplete(() -> inFlightLimiter.release(1, request.getSpanBytes()));
+      }
+      results.add(result);
+    }
+    return results.size() == 1 ? results.get(0) : CompletableResultCode.ofAll(results);
+  }
+
+  private CompletableResultCode exportRequest(List<Span> spans) {
+    AtomicInteger invalidSpans = new AtomicInteger();
+    CompletableResultCode result =
+        invalidSpanIsolationEnabled
+            ? sendIsolatingInvalidSpans(spans, invalidSpans)
+            : sendRequest(spans);
+    result.whenComplete(
+        () -> {
+          if (invalidSpans.get() > 0) {
+            droppedInvalidSpans.addAndGet(invalidSpans.get());
+            logger.warn(
+                "Cloud Trace rejected {} of {} spans as invalid, they were dropped.",
+                invalidSpans.get(),
+                spans.size());
+          } else if (!result.isSuccess()) {
+            logger.warn(
+                "Failed to export {} spans to Cloud Trace.",
+                spans.size(),
+                result.getFailureThrowable());
+          }
+        });
+    return result;
+  }
+
+  /**
+   * Sends the spans and, if Cloud Trace rejects the request as invalid, resends each half of it
+   * until the spans responsible for the rejection are isolated and dropped.
+   */
+  private CompletableResultCode sendIsolatingInvalidSpans(
+      List<Span> spans, AtomicInteger invalidSpans) {
+    CompletableResultCode result = new CompletableResultCode();
+    CompletableResultCode attempt = sendRequest(spans);
+    attempt.whenComplete(
+        () -> {
+          if (attempt.isSuccess()
+              || RpcStatusCodes.fromThrowable(attempt.getFailureThrowable())
+                  != StatusCode.Code.INVALID_ARGUMENT) {
+            completeFrom(attempt, result);
+          } else if (spans.size() <= 1) {
+            invalidSpans.addAndGet(spans.size());
+            completeFrom(attempt, result);
+          } else {
+            int middle = spans.size() / 2;
+            CompletableResultCode halves =
+                CompletableResultCode.ofAll(
+                    Arrays.asList(
+                        sendIsolatingInvalidSpans(spans.subList(0, middle), invalidSpans),
+                        sendIsolatingInvalidSpans(
+                            spans.subList(middle, spans.size()), invalidSpans)));
+            halves.whenComplete(() -> completeFrom(halves, result));
+          }
+        });
+    return result;
+  }
+
+  private CompletableResultCode sendRequest(List<Span> spans) {
+    CompletableResultCode sent =
+        retrier == null
+            ? callBatchWriteSpans(projectName, spans)
+            : retrier.run(() -> callBatchWriteSpans(projectName, spans));
+    return spool == null ? sent : spoolIfUnavailable(spans, sent);
+  }
+
+  /**
+   * Writes the spans to the spool, and reports them as exported, if sending them failed because
+   * Cloud Trace could not be reached.
+   */
+  private CompletableResultCode spoolIfUnavailable(List<Span> spans, CompletableResultCode sent) {
+    CompletableResultCode result = new CompletableResultCode();
+    sent.whenComplete(
+        () -> {
+          if (!sent.isSuccess()
+              && SPOOLED_CODES.contains(RpcStatusCodes.fromThrowable(sent.getFailureThrowable()))
+              && appendToSpool(spans)) {
+            logger.debug("Cloud Trace is unavailable, spooled {} spans.", spans.size());
+            result.succeed();
+          } else {
+            completeFrom(sent, result);
+          }
+        });
+    return result;
+  }
+
+  private boolean appendToSpool(List<Span> spans) {
+    byte[] record =
+        BatchWriteSpansRequest.newBuilder()
+            .setName(projectName.toString())
+            .addAllSpans(spans)
+            .build()
+            .toByteArray();
+    try {
+      return spool.append(record);
+    } catch (IOException | IllegalStateException e) {
+      // The spool failed or was closed by shutdown, report the original failure instead.
+      logger.debug("Failed to spool {} spans.", spans.size(), e);
+      return false;
+    }
+  }
+
+  /** Starts sending the spooled requests to Cloud Trace, unless that is already under way. */
+  private void replaySpool() {
+    if (replayingSpool.compareAndSet(false, true)) {
+      replayNext();
+    }
+  }
+
+  /**
+   * Sends the oldest spooled request to Cloud Trace, and the next one once it completes, until the
+   * spool is empty, Cloud Trace is still unavailable or the limits leave no room. Like live
+   * requests, replayed ones are subject to the in-flight and rate limits and the circuit breaker,
+   * and never block the scheduler that retries run on.
+   */
+  private void replayNext() {
+    try {
+      byte[] record;
+      BatchWriteSpansRequest request = null;
+      while (request == null && (record = spool.peek()) != null) {
+        try {
+          request = BatchWriteSpansRequest.parseFrom(record);
+        } catch (InvalidProtocolBufferException e) {
+          logger.warn("Dropping unreadable spooled spans.", e);
+          spool.commit();
+        }
+      }
+      if (request == null || isShutdown.get()) {
+        replayingSpool.set(false);
+        return;
+      }
+      long requestBytes = request.getSerializedSize();
+      InFlightLimiter limiter = replayInFlightLimiter();
+      if (limiter != null && !limiter.tryAcquire(1, requestBytes)) {
+        // Try again on the next replay tick.
+        replayingSpool.set(false);
+        return;
+      }
+      if (rateLimiter != null && !rateLimiter.tryAcquire(1, request.getSpansCount())) {
+        if (limiter != null) {
+          limiter.release(1, requestBytes);
+        }
+        replayingSpool.set(false);
+        return;
+      }
+      BatchWriteSpansRequest replayed = request;
+      CompletableResultCode sent =
+          callBatchWriteSpans(ProjectName.parse(request.getName()), request.getSpansList());
+      sent.whenComplete(
+          () -> {
+            if (limiter != null) {
+              limiter.release(1, requestBytes);
+            }
+            onSpoolReplayed(replayed, sent);
+          });
+    } catch (IOException | RuntimeException e) {
+      // Keep the replay scheduled, a failed run must not stop later ones.
+      replayingSpool.set(false);
+      logger.warn("Failed to replay spooled spans.", e);
+    }
+  }
+
+  /**
+   * Returns the in-flight limiter that replayed spans count against. With workers, replays take
+   * turns between the workers' shares, so that the total stays within the configured limits.
+   */
+  @Nullable
+  private InFlightLimiter replayInFlightLimiter() {
+    if (workers == null) {
+      return inFlightLimiter;
+    }
+    int worker = Math.floorMod(nextWorker.getAndIncrement(), workers.size());
+    return workers.get(worker).getInFlightLimiter();
+  }
+
+  private void onSpoolReplayed(BatchWriteSpansRequest request, CompletableResultCode sent) {
+    if (!sent.isSuccess()
+        && SPOOLED_CODES.contains(RpcStatusCodes.fromThrowable(sent.getFailureThrowable()))) {
+      logger.debug(
+          "Cloud Trace is still unavailable, spooled spans will be retried.",
+          sent.getFailureThrowable());
+      replayingSpool.set(false);
+      return;
+    }
+    if (!sent.isSuccess()) {
+      logger.warn(
+          "Cloud Trace rejected {} spooled spans, they were dropped.",
+          request.getSpansCount(),
+          sent.getFailureThrowable());
+    }
+    try {
+      spool.commit();
+      // Continue on the scheduler rather than on the thread that completed the RPC.
+      scheduler.execute(this::replayNext);
+    } catch (IOException | RuntimeException e) {
+      // The spool or the scheduler was closed by shutdown.
+      replayingSpool.set(false);
+      logger.debug("Stopped replaying spooled spans.", e);
+    }
+  }
+
+  private CompletableResultCode callBatchWriteSpans(ProjectName name, List<Span> spans) {
+    // Complete the result from the RPC callback so that the calling thread never waits on I/O.
+    CompletableResultCode result = new CompletableResultCode();
+    ApiFutures.addCallback(
+        cloudTraceClient.batchWriteSpansAsync(name, spans),
+        new ApiFutureCallback<Empty>() {
+          @Override
+          public void onFailure(Throwable t) {
+            if (rateLimiter != null
+                && RpcStatusCodes.fromThrowable(t) == StatusCode.Code.RESOURCE_EXHAUSTED) {
+              rateLimiter.onResourceExhausted();
+            }
+            result.failExceptionally(t);
+          }
 
-    cloudTraceClient.batchWriteSpans(projectName, spans);
-    return CompletableResultCode.ofSuccess();
+          @Override
+          public void onSuccess(Empty empty) {
+            if (rateLimiter != null) {
+              rateLimiter.onSuccess();
+            }
+            result.succeed();
+          }
+        },
+        MoreExecutors.directExecutor());
+    return result;
   }
 
+  static void completeFrom(CompletableResultCode source, CompletableResultCode target) {
+    if (source.isSuccess()) {
+      target.succeed();
+    } else if (source.getFailureThrowable() != null) {
+      target.failExceptionally(source.getFailureThrowable());
+    } else {
+      target.fail();
+    }
+  }
+
+  private void closeSpool() {
+    try {
+      spool.close();
+    } catch (IOException e) {
+      logger.warn("Failed to close span spool.", e);
+    }
+  }
+
+  /** Returns the total number of spans rejected because the in-flight limits were reached. */
+  long getRejectedSpans() {
+    return rejectedSpans.get();
+  }
+
+  /**
+   * Returns the total number of spans shed because the rate limits were reached, or by the shedding
+   * policy because the exporter was under pressure.
+   */
+  long getShedSpans() {
+    return shedSpans.get();
+  }
+
+  /** Returns the total number of spans dropped because Cloud Trace rejected them as invalid. */
+  long getDroppedInvalidSpans() {
+    return droppedInvalidSpans.get();
+  }
+
+  /** Returns the number of spans that were not sent because shutdown timed out. */
+  long getSpansLostOnShutdown() {
+    return spansLostOnShutdown.get();
+  }
+
+  private long getBufferedSpans() {
+    long bufferedSpans = spanBuffer == null ? 0 : spanBuffer.getBufferedSpans();
+    if (workers != null) {
+      for (ExportWorker worker : workers) {
+        bufferedSpans += worker.getBufferedSpans();
+      }
+    }
+    return bufferedSpans;
+  }
+
+  /**
+   * Stops accepting spans and drains the exporter on a background thread.
+   *
+   * @return a result that completes once the exporter is drained and its resources are released,
+   *     successfully if every buffered and in-flight span was sent within the shutdown timeout.
+   */
   @Override
   public CompletableResultCode shutdown() {
-    this.cloudTraceClient.shutdown();
-    return CompletableResultCode.ofSuccess();
+    if (isShutdown.compareAndSet(false, true)) {
+      Thread drainer = new Thread(this::drain, "google-cloud-trace-exporter-shutdown");
+      drainer.setDaemon(true);
+      drainer.start();
+    }
+    return shutdownResult;
+  }
+
+  /**
+   * Sends the buffered spans and waits for the requests in flight, then closes the client, the
+   * scheduler and the spool. Whatever has not completed once the shutdown timeout elapses is
+   * cancelled and reported as lost.
+   */
+  private void drain() {
+    long deadline = System.nanoTime() + shutdownTimeout.toNanos();
+    boolean drained = false;
+    try {
+      // Send whatever is still buffered before closing the client.
+      CompletableResultCode flushed;
+      if (workers != null) {
+        List<CompletableResultCode> results = new ArrayList<>(workers.size());
+        for (ExportWorker worker : workers) {
+          results.add(worker.shutdown());
+        }
+        flushed = CompletableResultCode.ofAll(results);
+      } else {
+        flushed = spanBuffer == null ? CompletableResultCode.ofSuccess() : spanBuffer.shutdown();
+      }
+      flushed.join(remainingNanos(deadline), TimeUnit.NANOSECONDS);
+      // Retries run on the scheduler, so it keeps running until the requests are done.
+      drained =
+          flushed.isDone()
+              && inFlightRequests.awaitDrained(remainingNanos(deadline), TimeUnit.NANOSECONDS)
+              && flushed.isSuccess();
+      if (!flushed.isDone() || inFlightRequests.getPendingItems() > 0) {
+        long lostSpans = getBufferedSpans() + inFlightRequests.getPendingItems();
+        spansLostOnShutdown.addAndGet(lostSpans);
+        logger.warn(
+            "Cloud Trace exporter did not drain within {}, {} spans were not exported.",
+            shutdownTimeout,
+            lostSpans);
+      }
+      cloudTraceClient.shutdown();
+      if (!cloudTraceClient.awaitTermination(remainingNanos(deadline), TimeUnit.NANOSECONDS)) {
+        cloudTraceClient.shutdownNow();
+      }
+      if (scheduler != null) {
+        scheduler.shutdown();
+        if (!scheduler.awaitTermination(remainingNanos(deadline), TimeUnit.NANOSECONDS)) {
+          scheduler.shutdownNow();
+        }
+      }
+    } catch (InterruptedException e) {
+      cloudTraceClient.shutdownNow();
+      if (scheduler != null) {
+        scheduler.shutdownNow();
+      }
+      Thread.currentThread().interrupt();
+    } finally {
+      if (spool != null) {
+        closeSpool();
+      }
+      if (drained) {
+        shutdownResult.succeed();
+      } else {
+        shutdownResult.fail();
+      }
+    }
+  }
+
+  private static long remainingNanos(long deadline) {
+    return Math.max(0, deadline - System.nanoTime());
   }
 }
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.trace;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.devtools.cloudtrace.v2.Span;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link SpanStore} that keeps spans serialized in direct byte buffers, so that a backlog of
+ * queued spans does not hold objects on the Java heap. Each span is still allocated on the heap
+ * when it is stored and again when it is drained.
+ *
+ * <p>Spans are appended as length-prefixed records to fixed-size slabs, which are allocated on
+ * demand up to the byte cap and pooled once drained. Spans are only parsed back into protos when
+ * they are drained to be sent. A span whose record does not fit in a single slab cannot be queued.
+ */
+final class OffHeapSpanStore implements SpanStore {
+
+  private static final Logger logger = LoggerFactory.getLogger(OffHeapSpanStore.class);
+
+  @VisibleForTesting static final int MAX_SLAB_BYTES = 1024 * 1024;
+  private static final int LENGTH_BYTES = Integer.BYTES;
+
+  private final int slabBytes;
+  private final int maxSlabs;
+  // Slabs holding queued spans, oldest first. The last one is written to; the first one is read
+  // from, starting at its position.
+  private final Deque<ByteBuffer> slabs = new ArrayDeque<>();
+  private final Deque<ByteBuffer> freeSlabs = new ArrayDeque<>();
+  private int allocatedSlabs;
+  private int size;
+
+  OffHeapSpanStore(long maxBytes) {
+    this.slabBytes = (int) Math.min(MAX_SLAB_BYTES, maxBytes);
+    this.maxSlabs = (int) Math.max(1, maxBytes / slabBytes);
+  }
+
+  @Override
+  public synchronized boolean offer(Span span) {
+    if (!fits(span)) {
+      return false;
+    }
+    int recordBytes = LENGTH_BYTES + span.getSerializedSize();
+    ByteBuffer slab = slabs.peekLast();
+    if (slab == null || slab.capacity() - slab.limit() < recordBytes) {
+      slab = takeSlab();
+      if (slab == null) {
+        return false;
+      }
+      slabs.addLast(slab);
+    }
+    // The write position is the limit, so that the read position can stay at the oldest record.
+    int start = slab.limit();
+    ByteBuffer record = slab.duplicate();
+    record.limit(start + recordBytes).position(start);
+    record.putInt(recordBytes - LENGTH_BYTES);
+    try {
+      CodedOutputStream output = CodedOutputStream.newInstance(record);
+      span.writeTo(output);
+      output.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    slab.limit(start + recordBytes);
+    size++;
+    return true;
+  }
+
+  @Override
+  public boolean fits(Span span) {
+    return LENGTH_BYTES + span.getSerializedSize() <= slabBytes;
+  }
+
+  @Override
+  public synchronized void drainTo(List<Span> spans, int maxSpans) {
+    int drained = 0;
+    while (drained < maxSpans && size > 0) {
+      ByteBuffer slab = slabs.peekFirst();
+      int length = slab.getInt();
+      ByteBuffer record = slab.duplicate();
+      record.limit(record.position() + length);
+      slab.position(slab.position() + length);
+      if (!slab.hasRemaining() && slabs.size() > 1) {
+        // Read to the end and no longer written to, so the slab can take new spans right away.
+        releaseSlab(slabs.removeFirst());
+      }
+      size--;
+      drained++;
+      try {
+        spans.add(Span.parseFrom(record));
+      } catch (InvalidProtocolBufferException e) {
+        // Only possible if the buffer was corrupted, the remaining records are still intact.
+        logger.warn("Dropping an unreadable buffered span.", e);
+      }
+    }
+    if (size == 0) {
+      // Start over at the beginning of a slab rather than after the records just drained.
+      while (!slabs.isEmpty()) {
+        releaseSlab(slabs.removeFirst());
+      }
+    }
+  }
+
+  @Override
+  public synchronized int size() {
+    return size;
+  }
+
+  @Override
+  public synchronized double getUtilization() {
+    // Only whole free slabs and the tail of the slab being written to can take new spans; the
+    // unused tails of other slabs and drained records at the head are not reclaimed until their
+    // slab is drained.
+    long allocatableBytes = (long) (maxSlabs - allocatedSlabs + freeSlabs.size()) * slabBytes;
+    ByteBuffer slab = slabs.peekLast();
+    if (slab != null) {
+      allocatableBytes += slab.capacity() - slab.limit();
+    }
+    return 1 - (double) allocatableBytes / ((long) maxSlabs * slabBytes);
+  }
+
+  private ByteBuffer takeSlab() {
+    ByteBuffer slab = freeSlabs.pollFirst();
+    if (slab == null && allocatedSlabs < maxSlabs) {
+      slab = ByteBuffer.allocateDirect(slabBytes);
+      allocatedSlabs++;
+    }
+    if (slab != null) {
+      slab.clear();
+      slab.limit(0);
+    }
+    return slab;
+  }
+
+  private void releaseSlab(ByteBuffer slab) {
+    freeSlabs.addFirst(slab);
+  }
+}
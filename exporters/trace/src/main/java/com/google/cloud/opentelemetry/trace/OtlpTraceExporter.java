@@ -0,0 +1,298 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.trace;
+
+import com.google.auth.Credentials;
+import com.google.cloud.opentelemetry.exportsupport.RefreshingCredentials;
+import com.google.cloud.opentelemetry.resource.GcpResource;
+import com.google.cloud.opentelemetry.resource.ResourceTranslator;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.devtools.cloudtrace.v2.AttributeValue;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.common.AttributesBuilder;
+import io.opentelemetry.exporter.otlp.trace.OtlpGrpcSpanExporter;
+import io.opentelemetry.exporter.otlp.trace.OtlpGrpcSpanExporterBuilder;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.data.DelegatingSpanData;
+import io.opentelemetry.sdk.trace.data.EventData;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Exports spans as OTLP to the endpoint set with {@link
+ * TraceConfiguration.Builder#setOtlpEndpoint(String)}, skipping the translation to Cloud Trace
+ * spans. The attribute mapping and fixed attributes of the configuration are applied to the span
+ * attributes, and the labels of the monitored resource the span's resource maps to are added to
+ * the resource, with the same keys as the Cloud Trace API exporter uses.
+ */
+final class OtlpTraceExporter implements SpanExporter {
+
+  private static final Logger logger = LoggerFactory.getLogger(OtlpTraceExporter.class);
+
+  private static final AttributeKey<String> PROJECT_ID_KEY =
+      AttributeKey.stringKey("gcp.project_id");
+
+  private final SpanExporter delegate;
+  private final String projectId;
+  private final AttributeKeyMapping attributeMapping;
+  private final Attributes fixedAttributes;
+  // Spans nearly always share a single Resource instance, so remembering the last one suffices.
+  private volatile MappedResource lastResource;
+
+  @VisibleForTesting
+  OtlpTraceExporter(
+      SpanExporter delegate,
+      String projectId,
+      AttributeKeyMapping attributeMapping,
+      Map<String, AttributeValue> fixedAttributes) {
+    this.delegate = delegate;
+    this.projectId = projectId;
+    this.attributeMapping = attributeMapping;
+    this.fixedAttributes = toAttributes(fixedAttributes);
+  }
+
+  static SpanExporter createWithConfiguration(TraceConfiguration configuration) throws IOException {
+    String endpoint = configuration.getOtlpEndpoint();
+    OtlpGrpcSpanExporterBuilder builder =
+        OtlpGrpcSpanExporter.builder()
+            .setEndpoint(endpoint)
+            .setTimeout(configuration.getDeadline());
+    if (endpoint.startsWith("https://")) {
+      Credentials credentials =
+          configuration.getCredentials() == null
+              ? RefreshingCredentials.getApplicationDefault()
+              : configuration.getCredentials();
+      if (configuration.getEagerInitialization()) {
+        InternalTraceExporter.prefetchAccessToken(credentials);
+      }
+      URI uri = URI.create(endpoint);
+      builder.setHeaders(() -> authHeaders(credentials, uri));
+    }
+    return new OtlpTraceExporter(
+        builder.build(),
+        configuration.getProjectId(),
+        AttributeKeyMapping.compile(configuration),
+        configuration.getFixedAttributes());
+  }
+
+  /** Returns the headers that authenticate a request, fetching a new access token if needed. */
+  private static Map<String, String> authHeaders(Credentials credentials, URI uri) {
+    Map<String, String> headers = new HashMap<>();
+    try {
+      credentials
+          .getRequestMetadata(uri)
+          .forEach(
+              (name, values) -> {
+                if (!values.isEmpty()) {
+                  headers.put(name, String.join(",", values));
+                }
+              });
+    } catch (IOException e) {
+      // The request is sent anyway and its failure reported by the OTLP exporter.
+      logger.warn("Failed to get credentials for the OTLP endpoint.", e);
+    }
+    return headers;
+  }
+
+  @Override
+  public CompletableResultCode export(@Nonnull Collection<SpanData> spans) {
+    List<SpanData> mappedSpans = new ArrayList<>(spans.size());
+    for (SpanData span : spans) {
+      mappedSpans.add(new MappedSpanData(span, mapResource(span.getResource())));
+    }
+    return delegate.export(mappedSpans);
+  }
+
+  @Override
+  public CompletableResultCode flush() {
+    return delegate.flush();
+  }
+
+  @Override
+  public CompletableResultCode shutdown() {
+    return delegate.shutdown();
+  }
+
+  @VisibleForTesting
+  Resource mapResource(Resource resource) {
+    MappedResource cached = lastResource;
+    if (cached != null && cached.resource == resource) {
+      return cached.mapped;
+    }
+    GcpResource gcpResource = ResourceTranslator.mapResource(resource);
+    AttributesBuilder labels = Attributes.builder().put(PROJECT_ID_KEY, projectId);
+    gcpResource
+        .getResourceLabels()
+        .getLabels()
+        .forEach(
+            (key, value) ->
+                labels.put("g.co/r/" + gcpResource.getResourceType() + "/" + key, value));
+    // The attributes of the resource itself take precedence.
+    Resource mapped = Resource.create(labels.build()).merge(resource);
+    lastResource = new MappedResource(resource, mapped);
+    return mapped;
+  }
+
+  private Attributes mapAttributes(Attributes attributes, Attributes extraAttributes) {
+    if (attributeMapping.isEmpty() && extraAttributes.isEmpty()) {
+      return attributes;
+    }
+    AttributesBuilder builder = extraAttributes.toBuilder();
+    attributes.forEach(
+        (key, value) -> {
+          String mappedKey = attributeMapping.map(key);
+          if (mappedKey != null) {
+            putAttribute(
+                builder, mappedKey.equals(key.getKey()) ? key : renameKey(key, mappedKey), value);
+          }
+        });
+    return builder.build();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static void putAttribute(AttributesBuilder builder, AttributeKey<?> key, Object value) {
+    builder.put((AttributeKey<Object>) key, value);
+  }
+
+  private static AttributeKey<?> renameKey(AttributeKey<?> key, String name) {
+    switch (key.getType()) {
+      case STRING:
+        return AttributeKey.stringKey(name);
+      case BOOLEAN:
+        return AttributeKey.booleanKey(name);
+      case LONG:
+        return AttributeKey.longKey(name);
+      case DOUBLE:
+        return AttributeKey.doubleKey(name);
+      case STRING_ARRAY:
+        return AttributeKey.stringArrayKey(name);
+      case BOOLEAN_ARRAY:
+        return AttributeKey.booleanArrayKey(name);
+      case LONG_ARRAY:
+        return AttributeKey.longArrayKey(name);
+      case DOUBLE_ARRAY:
+        return AttributeKey.doubleArrayKey(name);
+      default:
+        return key;
+    }
+  }
+
+  private static Attributes toAttributes(Map<String, AttributeValue> fixedAttributes) {
+    AttributesBuilder builder = Attributes.builder();
+    fixedAttributes.forEach(
+        (key, value) -> {
+          switch (value.getValueCase()) {
+            case STRING_VALUE:
+              builder.put(key, value.getStringValue().getValue());
+              break;
+            case INT_VALUE:
+              builder.put(key, value.getIntValue());
+              break;
+            case BOOL_VALUE:
+              builder.put(key, value.getBoolValue());
+              break;
+            default:
+              break;
+          }
+        });
+    return builder.build();
+  }
+
+  private static final class MappedResource {
+    private final Resource resource;
+    private final Resource mapped;
+
+    private MappedResource(Resource resource, Resource mapped) {
+      this.resource = resource;
+      this.mapped = mapped;
+    }
+  }
+
+  /** A span with its attributes mapped and its resource replaced. */
+  private final class MappedSpanData extends DelegatingSpanData {
+    private final Resource resource;
+    private final Attributes attributes;
+
+    private MappedSpanData(SpanData delegate, Resource resource) {
+      super(delegate);
+      this.resource = resource;
+      this.attributes = mapAttributes(delegate.getAttributes(), fixedAttributes);
+    }
+
+    @Override
+    public Resource getResource() {
+      return resource;
+    }
+
+    @Override
+    public Attributes getAttributes() {
+      return attributes;
+    }
+
+    @Override
+    public int getTotalAttributeCount() {
+      return super.getTotalAttributeCount() + attributes.size() - super.getAttributes().size();
+    }
+
+    @Override
+    public List<EventData> getEvents() {
+      List<EventData> events = super.getEvents();
+      if (attributeMapping.isEmpty()) {
+        return events;
+      }
+      List<EventData> mappedEvents = new ArrayList<>(events.size());
+      for (EventData event : events) {
+        mappedEvents.add(
+            EventData.create(
+                event.getEpochNanos(),
+                event.getName(),
+                mapAttributes(event.getAttributes(), Attributes.empty()),
+                event.getTotalAttributeCount()));
+      }
+      return mappedEvents;
+    }
+
+    @Override
+    public List<LinkData> getLinks() {
+      List<LinkData> links = super.getLinks();
+      if (attributeMapping.isEmpty()) {
+        return links;
+      }
+      List<LinkData> mappedLinks = new ArrayList<>(links.size());
+      for (LinkData link : links) {
+        mappedLinks.add(
+            LinkData.create(
+                link.getSpanContext(),
+                mapAttributes(link.getAttributes(), Attributes.empty()),
+                link.getTotalAttributeCount()));
+      }
+      return mappedLinks;
+    }
+  }
+}
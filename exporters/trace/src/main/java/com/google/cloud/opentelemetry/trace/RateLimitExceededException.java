@@ -0,0 +1,32 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.trace;
+
+/**
+ * Reported as the failure of an export that was shed without being sent because it would exceed
+ * the rate of spans or requests the exporter is configured to send to Cloud Trace.
+ *
+ * @see TraceConfiguration#getMaxSpansPerSecond()
+ * @see TraceConfiguration#getMaxRequestsPerSecond()
+ */
+public final class RateLimitExceededException extends RuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  RateLimitExceededException(String message) {
+    super(message);
+  }
+}
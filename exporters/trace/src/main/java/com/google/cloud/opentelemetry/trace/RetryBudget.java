@@ -0,0 +1,83 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.trace;
+
+import com.google.common.base.Preconditions;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A token bucket that caps retries to a fraction of the requests sent, so that retrying cannot
+ * multiply traffic to a backend that is already failing.
+ *
+ * <p>Every request deposits {@code retryRatio} tokens and every retry withdraws one token. A
+ * retry is only allowed when a whole token is available. The bucket starts full so that a short
+ * burst of failures right after startup can still be retried.
+ *
+ * <p>By default all exporters in the process share {@link #getDefault()}.
+ */
+@ThreadSafe
+public final class RetryBudget {
+
+  private static final RetryBudget DEFAULT = create(0.1, 10);
+
+  private final double retryRatio;
+  private final double maxTokens;
+  private double tokens;
+
+  private RetryBudget(double retryRatio, double maxTokens) {
+    this.retryRatio = retryRatio;
+    this.maxTokens = maxTokens;
+    this.tokens = maxTokens;
+  }
+
+  /**
+   * Creates a new retry budget.
+   *
+   * @param retryRatio the number of retries allowed per request sent, e.g. 0.1 allows one retry
+   *     for every ten requests.
+   * @param maxTokens the maximum number of retries that can be saved up, must be at least one.
+   * @return a new {@link RetryBudget}.
+   */
+  public static RetryBudget create(double retryRatio, int maxTokens) {
+    Preconditions.checkArgument(retryRatio >= 0, "Retry ratio must not be negative.");
+    Preconditions.checkArgument(maxTokens >= 1, "Max tokens must be at least one.");
+    return new RetryBudget(retryRatio, maxTokens);
+  }
+
+  /**
+   * Returns the process-wide retry budget, which allows one retry for every ten requests with up
+   * to ten retries saved up.
+   *
+   * @return the default {@link RetryBudget}.
+   */
+  public static RetryBudget getDefault() {
+    return DEFAULT;
+  }
+
+  /** Records that a request (not a retry) is about to be sent. */
+  synchronized void recordRequest() {
+    tokens = Math.min(maxTokens, tokens + retryRatio);
+  }
+
+  /** Withdraws a token for a retry, returning false if the budget is exhausted. */
+  synchronized boolean tryAcquireRetry() {
+    if (tokens < 1) {
+      return false;
+    }
+    tokens -= 1;
+    return true;
+  }
+}
@@ -0,0 +1,438 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.trace;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.devtools.cloudtrace.v2.Span;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link SpanProcessor} that queues ended spans in a preallocated ring buffer and exports them
+ * in batches from a single background thread, e.g. to a {@link TraceExporter}.
+ *
+ * <p>Unlike the SDK's {@code BatchSpanProcessor}, ending a span never takes a lock: producers
+ * claim a slot of the ring buffer with a compare-and-set, and the background thread is the only
+ * consumer. A producer that loses the race for a slot retries a bounded number of times, so ending
+ * a span takes a bounded number of steps however contended the buffer is. Spans ended while the
+ * buffer is full, or whose producer runs out of attempts, are dropped and counted.
+ *
+ * <p>Batches are exported once enough spans are queued to fill one, when the schedule delay
+ * elapses, or when the processor is flushed. Only one export is in progress at a time.
+ *
+ * <p>With a {@link TraceExporter}, the processor can also translate each span to its Cloud Trace
+ * form on the thread that ends it (see {@link Builder#setTranslateOnEnd(boolean)}), so that
+ * translation scales with the application threads instead of being bound by the export thread.
+ */
+public final class RingBufferSpanProcessor implements SpanProcessor {
+
+  private static final Logger logger = LoggerFactory.getLogger(RingBufferSpanProcessor.class);
+  private static final int MAX_CLAIM_ATTEMPTS = 64;
+
+  private final SpanExporter exporter;
+  // Set if spans are translated as they end.
+  @Nullable private final TraceExporter traceExporter;
+  // Resolved by the worker thread; until then spans are queued untranslated.
+  @Nullable private volatile String projectId;
+  private final int mask;
+  private final int maxExportBatchSize;
+  private final long scheduleDelayNanos;
+  private final long exporterTimeoutNanos;
+
+  // Slot i holds the span at position p with p % capacity == i once sequences[i] == p + 1. The
+  // consumer frees the slot for position p + capacity by setting sequences[i] to it.
+  // Each slot holds a SpanData, or a Span if it was translated on end.
+  private final AtomicReferenceArray<Object> slots;
+  private final AtomicLongArray sequences;
+  private final AtomicLong tail = new AtomicLong();
+  // Only written by the worker thread.
+  private volatile long head;
+
+  private final AtomicLong droppedSpans = new AtomicLong();
+  private final AtomicLong failedSpans = new AtomicLong();
+  private final AtomicBoolean workerWaiting = new AtomicBoolean();
+  private final AtomicReference<CompletableResultCode> flushRequest = new AtomicReference<>();
+  private final AtomicBoolean shutdown = new AtomicBoolean();
+  private final CompletableResultCode shutdownResult = new CompletableResultCode();
+  private final Thread worker;
+
+  private RingBufferSpanProcessor(Builder builder) {
+    this.exporter = builder.exporter;
+    this.traceExporter = builder.translateOnEnd ? (TraceExporter) builder.exporter : null;
+    this.mask = builder.capacity - 1;
+    this.maxExportBatchSize = builder.maxExportBatchSize;
+    this.scheduleDelayNanos = builder.scheduleDelay.toNanos();
+    this.exporterTimeoutNanos = builder.exporterTimeout.toNanos();
+    this.slots = new AtomicReferenceArray<>(builder.capacity);
+    this.sequences = new AtomicLongArray(builder.capacity);
+    for (int i = 0; i < builder.capacity; i++) {
+      sequences.set(i, i);
+    }
+    this.worker =
+        new ThreadFactoryBuilder()
+            .setDaemon(true)
+            .setNameFormat("google-cloud-trace-span-processor-%d")
+            .build()
+            .newThread(this::run);
+    this.worker.start();
+  }
+
+  /**
+   * Returns a new {@link Builder} for a processor that exports to the given exporter.
+   *
+   * @param exporter the exporter the spans are handed to.
+   * @return a {@code Builder}.
+   */
+  public static Builder builder(SpanExporter exporter) {
+    return new Builder(exporter);
+  }
+
+  @Override
+  public void onStart(Context parentContext, ReadWriteSpan span) {}
+
+  @Override
+  public boolean isStartRequired() {
+    return false;
+  }
+
+  @Override
+  public void onEnd(ReadableSpan span) {
+    if (!span.getSpanContext().isSampled()) {
+      return;
+    }
+    long position = tail.get();
+    int attempts = 0;
+    while (true) {
+      int index = (int) position & mask;
+      long available = sequences.get(index) - position;
+      if (available == 0) {
+        if (tail.compareAndSet(position, position + 1)) {
+          break;
+        }
+      } else if (available < 0) {
+        // The slot still holds a span from the previous lap, the buffer is full.
+        droppedSpans.incrementAndGet();
+        return;
+      }
+      if (++attempts == MAX_CLAIM_ATTEMPTS) {
+        // Other producers keep winning the slots; drop the span rather than spin without bound.
+        droppedSpans.incrementAndGet();
+        return;
+      }
+      position = tail.get();
+    }
+    int index = (int) position & mask;
+    slots.set(index, toQueuedForm(span.toSpanData()));
+    sequences.set(index, position + 1);
+    if (position + 1 - head >= maxExportBatchSize && workerWaiting.compareAndSet(true, false)) {
+      LockSupport.unpark(worker);
+    }
+  }
+
+  @Override
+  public boolean isEndRequired() {
+    return true;
+  }
+
+  @Override
+  public CompletableResultCode forceFlush() {
+    if (shutdown.get()) {
+      return CompletableResultCode.ofFailure();
+    }
+    CompletableResultCode result = new CompletableResultCode();
+    CompletableResultCode pending = flushRequest.getAndSet(result);
+    if (pending != null) {
+      // Served together with the flush just requested.
+      result.whenComplete(() -> InternalTraceExporter.completeFrom(result, pending));
+    }
+    LockSupport.unpark(worker);
+    return result;
+  }
+
+  @Override
+  public CompletableResultCode shutdown() {
+    if (shutdown.compareAndSet(false, true)) {
+      LockSupport.unpark(worker);
+    }
+    return shutdownResult;
+  }
+
+  /**
+   * Returns the total number of spans dropped because the ring buffer was full, or because their
+   * thread lost the race for a slot too many times in a row.
+   *
+   * @return the number of dropped spans.
+   */
+  public long getDroppedSpans() {
+    return droppedSpans.get();
+  }
+
+  /**
+   * Returns the total number of spans whose export failed or timed out.
+   *
+   * @return the number of spans that failed to export.
+   */
+  public long getFailedSpans() {
+    return failedSpans.get();
+  }
+
+  private Object toQueuedForm(SpanData spanData) {
+    String project = projectId;
+    if (project == null) {
+      return spanData;
+    }
+    try {
+      return traceExporter.translate(spanData, project);
+    } catch (RuntimeException e) {
+      // Leave it to the worker thread, which reports the failure.
+      return spanData;
+    }
+  }
+
+  private void run() {
+    if (traceExporter != null) {
+      resolveProjectId();
+    }
+    List<Object> batch = new ArrayList<>(maxExportBatchSize);
+    long nextExportNanos = System.nanoTime() + scheduleDelayNanos;
+    while (!shutdown.get()) {
+      CompletableResultCode flush = flushRequest.getAndSet(null);
+      if (flush != null) {
+        exportAll(batch);
+        InternalTraceExporter.completeFrom(
+            exporter.flush().join(exporterTimeoutNanos, TimeUnit.NANOSECONDS), flush);
+        nextExportNanos = System.nanoTime() + scheduleDelayNanos;
+        continue;
+      }
+      if (tail.get() - head >= maxExportBatchSize) {
+        drain(batch);
+        export(batch);
+        continue;
+      }
+      long waitNanos = nextExportNanos - System.nanoTime();
+      if (waitNanos <= 0) {
+        exportAll(batch);
+        nextExportNanos = System.nanoTime() + scheduleDelayNanos;
+        continue;
+      }
+      workerWaiting.set(true);
+      // Recheck after announcing the wait, so that a batch completed meanwhile is not missed.
+      if (tail.get() - head < maxExportBatchSize
+          && flushRequest.get() == null
+          && !shutdown.get()) {
+        LockSupport.parkNanos(this, waitNanos);
+      }
+      workerWaiting.set(false);
+    }
+    exportAll(batch);
+    CompletableResultCode flush = flushRequest.getAndSet(null);
+    if (flush != null) {
+      flush.fail();
+    }
+    CompletableResultCode exporterShutdown = exporter.shutdown();
+    exporterShutdown.whenComplete(
+        () -> InternalTraceExporter.completeFrom(exporterShutdown, shutdownResult));
+  }
+
+  /** Resolves the project ID that spans are translated with as they end. */
+  private void resolveProjectId() {
+    try {
+      projectId = traceExporter.getProjectId();
+    } catch (RuntimeException e) {
+      logger.warn("Unable to resolve the project ID, spans will be translated on export.", e);
+    }
+  }
+
+  /** Exports every span claimed so far, leaving spans ended meanwhile for later. */
+  private void exportAll(List<Object> batch) {
+    long end = tail.get();
+    while (head - end < 0) {
+      drain(batch);
+      export(batch);
+    }
+  }
+
+  /** Moves up to a batch of published spans from the ring buffer to the given list. */
+  private void drain(List<Object> batch) {
+    long position = head;
+    while (batch.size() < maxExportBatchSize) {
+      int index = (int) position & mask;
+      if (sequences.get(index) != position + 1) {
+        // Empty, or the producer that claimed the slot has not published its span yet.
+        break;
+      }
+      batch.add(slots.get(index));
+      slots.set(index, null);
+      sequences.set(index, position + mask + 1);
+      position++;
+    }
+    head = position;
+  }
+
+  private void export(List<Object> batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    try {
+      CompletableResultCode result = send(batch).join(exporterTimeoutNanos, TimeUnit.NANOSECONDS);
+      if (!result.isSuccess()) {
+        failedSpans.addAndGet(batch.size());
+        logger.debug("Failed to export {} spans.", batch.size());
+      }
+    } catch (RuntimeException e) {
+      failedSpans.addAndGet(batch.size());
+      logger.warn("Exporter threw an exception while exporting {} spans.", batch.size(), e);
+    } finally {
+      // The exporter must not keep a reference to the list, it is reused for the next batch.
+      batch.clear();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private CompletableResultCode send(List<Object> batch) {
+    String project = projectId;
+    if (traceExporter == null || project == null) {
+      // Nothing is translated on end without a project.
+      return exporter.export((List<SpanData>) (List<?>) batch);
+    }
+    List<Span> spans = new ArrayList<>(batch.size());
+    for (Object span : batch) {
+      spans.add(
+          span instanceof Span ? (Span) span : traceExporter.translate((SpanData) span, project));
+    }
+    return traceExporter.exportTranslated(spans);
+  }
+
+  /** Builder for {@link RingBufferSpanProcessor}. */
+  public static final class Builder {
+    private final SpanExporter exporter;
+    private int capacity = 2048;
+    private int maxExportBatchSize = 512;
+    private Duration scheduleDelay = Duration.ofSeconds(5);
+    private Duration exporterTimeout = Duration.ofSeconds(30);
+    private boolean translateOnEnd;
+
+    private Builder(SpanExporter exporter) {
+      this.exporter = Preconditions.checkNotNull(exporter, "exporter");
+    }
+
+    /**
+     * Sets the number of spans the ring buffer holds. Defaults to 2048.
+     *
+     * @param capacity the capacity, must be a power of two.
+     * @return this.
+     */
+    public Builder setCapacity(int capacity) {
+      this.capacity = capacity;
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of spans handed to the exporter at once. Defaults to 512.
+     *
+     * @param maxExportBatchSize the batch size, between 1 and the capacity.
+     * @return this.
+     */
+    public Builder setMaxExportBatchSize(int maxExportBatchSize) {
+      this.maxExportBatchSize = maxExportBatchSize;
+      return this;
+    }
+
+    /**
+     * Sets the longest time spans wait in the buffer before they are exported. Defaults to 5
+     * seconds.
+     *
+     * @param scheduleDelay the delay, must be positive.
+     * @return this.
+     */
+    public Builder setScheduleDelay(Duration scheduleDelay) {
+      this.scheduleDelay = scheduleDelay;
+      return this;
+    }
+
+    /**
+     * Sets how long the processor waits for an export to complete before moving on. Defaults to
+     * 30 seconds.
+     *
+     * @param exporterTimeout the timeout, must be positive.
+     * @return this.
+     */
+    public Builder setExporterTimeout(Duration exporterTimeout) {
+      this.exporterTimeout = exporterTimeout;
+      return this;
+    }
+
+    /**
+     * Sets whether spans are translated to their Cloud Trace form on the thread that ends them,
+     * rather than on the export thread. Translated spans are also more compact to queue. This
+     * requires the exporter to be a {@link TraceExporter} without an OTLP endpoint; spans
+     * translated on end bypass its shedding policy. Defaults to {@code false}.
+     *
+     * @param translateOnEnd whether to translate spans as they end.
+     * @return this.
+     */
+    public Builder setTranslateOnEnd(boolean translateOnEnd) {
+      this.translateOnEnd = translateOnEnd;
+      return this;
+    }
+
+    /**
+     * Builds a {@link RingBufferSpanProcessor} and starts its background thread.
+     *
+     * @return a new {@code RingBufferSpanProcessor}.
+     * @throws IllegalArgumentException if a setting is out of range.
+     */
+    public RingBufferSpanProcessor build() {
+      Preconditions.checkArgument(
+          capacity > 0 && Integer.bitCount(capacity) == 1, "Capacity must be a power of two.");
+      Preconditions.checkArgument(
+          maxExportBatchSize > 0 && maxExportBatchSize <= capacity,
+          "Max export batch size must be between 1 and the capacity.");
+      Preconditions.checkArgument(
+          !scheduleDelay.isNegative() && !scheduleDelay.isZero(),
+          "Schedule delay must be positive.");
+      Preconditions.checkArgument(
+          !exporterTimeout.isNegative() && !exporterTimeout.isZero(),
+          "Exporter timeout must be positive.");
+      Preconditions.checkArgument(
+          !translateOnEnd || exporter instanceof TraceExporter,
+          "Translating spans on end requires a TraceExporter.");
+      Preconditions.checkArgument(
+          !translateOnEnd || ((TraceExporter) exporter).translatesSpans(),
+          "Translating spans on end is not supported with an OTLP endpoint.");
+      return new RingBufferSpanProcessor(this);
+    }
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.trace;
+
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.StatusCode;
+import io.grpc.Status;
+import javax.annotation.Nullable;
+
+/** Helpers to classify failed Cloud Trace RPCs independently of the transport used. */
+final class RpcStatusCodes {
+
+  private RpcStatusCodes() {}
+
+  /**
+   * Returns the status code carried by an RPC failure, or {@link StatusCode.Code#UNKNOWN} if the
+   * failure does not carry one.
+   */
+  static StatusCode.Code fromThrowable(@Nullable Throwable t) {
+    if (t == null) {
+      return StatusCode.Code.UNKNOWN;
+    }
+    if (t instanceof ApiException) {
+      return ((ApiException) t).getStatusCode().getCode();
+    }
+    // gax and gRPC use the same names for the canonical codes.
+    return StatusCode.Code.valueOf(Status.fromThrowable(t).getCode().name());
+  }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.trace;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.devtools.cloudtrace.v2.Span;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A bounded buffer of translated spans that coalesces many {@code export} calls into full-sized
+ * BatchWriteSpans requests.
+ *
+ * <p>A batch is sent once enough spans are queued to fill a request, when the flush interval
+ * elapses, or when the buffer is explicitly flushed. All draining happens on a single background
+ * thread so that producers never wait on the network.
+ */
+final class SpanBuffer {
+
+  private static final Logger logger = LoggerFactory.getLogger(SpanBuffer.class);
+
+  private final SpanStore store;
+  private final int maxSpansPerRequest;
+  private final Function<List<Span>, CompletableResultCode> sink;
+  private final ScheduledExecutorService executor;
+  private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+  private final AtomicLong droppedSpans = new AtomicLong();
+
+  SpanBuffer(
+      SpanStore store,
+      int maxSpansPerRequest,
+      Duration flushInterval,
+      Function<List<Span>, CompletableResultCode> sink) {
+    this.store = store;
+    this.maxSpansPerRequest = maxSpansPerRequest;
+    this.sink = sink;
+    this.executor =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("google-cloud-trace-exporter-buffer-%d")
+                .build());
+    long intervalMillis = flushInterval.toMillis();
+    this.executor.scheduleWithFixedDelay(
+        this::drainAll, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Queues spans for export.
+   *
+   * @return success if every span was queued, failure if spans were dropped because the buffer
+   *     was full or they were too large to be buffered.
+   */
+  CompletableResultCode add(List<Span> spans) {
+    int dropped = 0;
+    int oversized = 0;
+    for (Span span : spans) {
+      if (!store.offer(span)) {
+        if (store.fits(span)) {
+          dropped++;
+        } else {
+          oversized++;
+        }
+      }
+    }
+    if (store.size() >= maxSpansPerRequest && drainScheduled.compareAndSet(false, true)) {
+      try {
+        executor.execute(
+            () -> {
+              drainScheduled.set(false);
+              drainFullBatches();
+            });
+      } catch (RejectedExecutionException e) {
+        drainScheduled.set(false);
+      }
+    }
+    if (oversized > 0) {
+      droppedSpans.addAndGet(oversized);
+      logger.warn("Dropped {} spans that are too large to be buffered.", oversized);
+    }
+    if (dropped > 0) {
+      droppedSpans.addAndGet(dropped);
+      logger.warn("Span buffer is full, dropped {} spans.", dropped);
+    }
+    if (dropped > 0 || oversized > 0) {
+      return CompletableResultCode.ofFailure();
+    }
+    return CompletableResultCode.ofSuccess();
+  }
+
+  /**
+   * Sends every queued span.
+   *
+   * @return a result that completes once all requests for the queued spans have completed.
+   */
+  CompletableResultCode flush() {
+    CompletableResultCode result = new CompletableResultCode();
+    try {
+      executor.execute(
+          () -> {
+            CompletableResultCode drained = drainAll();
+            drained.whenComplete(
+                () -> {
+                  if (drained.isSuccess()) {
+                    result.succeed();
+                  } else {
+                    result.fail();
+                  }
+                });
+          });
+    } catch (RejectedExecutionException e) {
+      return CompletableResultCode.ofFailure();
+    }
+    return result;
+  }
+
+  /** Flushes the queued spans and stops the background thread. */
+  CompletableResultCode shutdown() {
+    CompletableResultCode result = flush();
+    executor.shutdown();
+    return result;
+  }
+
+  /** Returns the number of spans waiting in the buffer. */
+  int getBufferedSpans() {
+    return store.size();
+  }
+
+  /** Returns how full the buffer is, as a share of its capacity. */
+  double getUtilization() {
+    return store.getUtilization();
+  }
+
+  /** Returns the total number of spans dropped because they could not be buffered. */
+  long getDroppedSpans() {
+    return droppedSpans.get();
+  }
+
+  private CompletableResultCode drainFullBatches() {
+    List<CompletableResultCode> results = new ArrayList<>();
+    while (store.size() >= maxSpansPerRequest) {
+      results.add(sendBatch());
+    }
+    return CompletableResultCode.ofAll(results);
+  }
+
+  private CompletableResultCode drainAll() {
+    List<CompletableResultCode> results = new ArrayList<>();
+    while (store.size() > 0) {
+      results.add(sendBatch());
+    }
+    return CompletableResultCode.ofAll(results);
+  }
+
+  private CompletableResultCode sendBatch() {
+    List<Span> batch = new ArrayList<>(maxSpansPerRequest);
+    store.drainTo(batch, maxSpansPerRequest);
+    try {
+      return sink.apply(batch);
+    } catch (RuntimeException e) {
+      logger.warn("Failed to export {} buffered spans.", batch.size(), e);
+      return CompletableResultCode.ofFailure();
+    }
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.trace;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets that cap the rate of spans and of BatchWriteSpans requests sent to Cloud Trace, so
+ * that bursts are shed locally instead of exhausting the project's ingestion quota. A rate of zero
+ * means unlimited.
+ *
+ * <p>Each bucket holds up to one second worth of tokens. A batch larger than a bucket is admitted
+ * once the bucket is full and paid off by the tokens that refill afterwards.
+ *
+ * <p>The rates adapt to quota errors: each {@code RESOURCE_EXHAUSTED} response halves them, at
+ * most once per second. While requests succeed, the rates then grow back linearly with the time
+ * elapsed since, by {@value #RECOVERY_PER_SECOND} of the configured rates per second, however many
+ * requests are sent meanwhile.
+ */
+final class SpanRateLimiter {
+
+  // The rates never shrink below this share of the configured rates.
+  @VisibleForTesting static final double MIN_RATE_FACTOR = 0.05;
+  @VisibleForTesting static final double RECOVERY_PER_SECOND = 0.05;
+  private static final long MIN_SHRINK_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final double spansPerSecond;
+  private final double requestsPerSecond;
+  private final LongSupplier nanoTime;
+
+  private double spanTokens;
+  private double requestTokens;
+  private double rateFactor = 1;
+  private long lastRefillNanos;
+  private long lastShrinkNanos;
+  private long lastGrowNanos;
+
+  SpanRateLimiter(double spansPerSecond, double requestsPerSecond) {
+    this(spansPerSecond, requestsPerSecond, System::nanoTime);
+  }
+
+  @VisibleForTesting
+  SpanRateLimiter(double spansPerSecond, double requestsPerSecond, LongSupplier nanoTime) {
+    this.spansPerSecond = spansPerSecond;
+    this.requestsPerSecond = requestsPerSecond;
+    this.nanoTime = nanoTime;
+    this.spanTokens = spansPerSecond;
+    this.requestTokens = requestsPerSecond;
+    this.lastRefillNanos = nanoTime.getAsLong();
+    this.lastShrinkNanos = lastRefillNanos - MIN_SHRINK_INTERVAL_NANOS;
+    this.lastGrowNanos = lastRefillNanos;
+  }
+
+  /**
+   * Takes tokens for the given requests and spans, all or nothing.
+   *
+   * @return false if either bucket does not have enough tokens and the batch should be shed.
+   */
+  synchronized boolean tryAcquire(int requestCount, int spanCount) {
+    refill();
+    if (!hasTokens(spanTokens, spanCount, spansPerSecond)
+        || !hasTokens(requestTokens, requestCount, requestsPerSecond)) {
+      return false;
+    }
+    spanTokens -= spanCount;
+    requestTokens -= requestCount;
+    return true;
+  }
+
+  /** Shrinks the rates after Cloud Trace reported that the quota is exhausted. */
+  synchronized void onResourceExhausted() {
+    long now = nanoTime.getAsLong();
+    // Concurrent requests tend to fail together, count them as a single signal.
+    if (now - lastShrinkNanos < MIN_SHRINK_INTERVAL_NANOS) {
+      return;
+    }
+    lastShrinkNanos = now;
+    lastGrowNanos = now;
+    refill();
+    rateFactor = Math.max(MIN_RATE_FACTOR, rateFactor / 2);
+    spanTokens = Math.min(spanTokens, capacity(spansPerSecond));
+    requestTokens = Math.min(requestTokens, capacity(requestsPerSecond));
+  }
+
+  /**
+   * Grows the rates back towards the configured ones after a successful request, in proportion to
+   * the time since the rates last shrank or grew.
+   */
+  synchronized void onSuccess() {
+    long now = nanoTime.getAsLong();
+    if (rateFactor < 1) {
+      // Tokens accrued so far refill at the old rate.
+      refill();
+      double seconds = (now - lastGrowNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+      rateFactor = Math.min(1, rateFactor + seconds * RECOVERY_PER_SECOND);
+    }
+    lastGrowNanos = now;
+  }
+
+  /** Returns how much of the emptier bucket has been used up, as a share of its capacity. */
+  synchronized double getUtilization() {
+    refill();
+    return Math.max(used(spanTokens, spansPerSecond), used(requestTokens, requestsPerSecond));
+  }
+
+  synchronized double getRateFactor() {
+    return rateFactor;
+  }
+
+  private boolean hasTokens(double tokens, int needed, double rate) {
+    return rate <= 0 || tokens >= Math.min(needed, capacity(rate));
+  }
+
+  private double used(double tokens, double rate) {
+    return rate <= 0 ? 0 : 1 - tokens / capacity(rate);
+  }
+
+  private double capacity(double rate) {
+    return rate * rateFactor;
+  }
+
+  private void refill() {
+    long now = nanoTime.getAsLong();
+    double seconds = (now - lastRefillNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+    lastRefillNanos = now;
+    spanTokens =
+        Math.min(capacity(spansPerSecond), spanTokens + seconds * capacity(spansPerSecond));
+    requestTokens =
+        Math.min(
+            capacity(requestsPerSecond), requestTokens + seconds * capacity(requestsPerSecond));
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.trace;
+
+import com.google.devtools.cloudtrace.v2.BatchWriteSpansRequest;
+import com.google.devtools.cloudtrace.v2.ProjectName;
+import com.google.devtools.cloudtrace.v2.Span;
+import com.google.protobuf.CodedOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Splits translated spans into BatchWriteSpans requests that each stay within a span count and a
+ * serialized byte ceiling.
+ */
+final class SpanRequestSplitter {
+
+  private final int maxSpansPerRequest;
+  private final int maxSpanBytesPerRequest;
+
+  SpanRequestSplitter(ProjectName projectName, int maxSpansPerRequest, int maxRequestBytes) {
+    this.maxSpansPerRequest = maxSpansPerRequest;
+    // The project name is repeated in every request, so it counts against each request's budget.
+    this.maxSpanBytesPerRequest =
+        maxRequestBytes
+            - CodedOutputStream.computeStringSize(
+                BatchWriteSpansRequest.NAME_FIELD_NUMBER, projectName.toString());
+  }
+
+  /**
+   * Splits the spans into consecutive groups, preserving their order. A span that is larger than
+   * the byte ceiling on its own is placed in a request by itself. No request is returned for an
+   * empty list.
+   */
+  List<SpanRequest> split(List<Span> spans) {
+    if (spans.isEmpty()) {
+      return Collections.emptyList();
+    }
+    if (spans.size() == 1) {
+      return Collections.singletonList(new SpanRequest(spans, serializedSize(spans.get(0))));
+    }
+    List<SpanRequest> requests = new ArrayList<>();
+    List<Span> current = new ArrayList<>();
+    long currentBytes = 0;
+    for (Span span : spans) {
+      int spanBytes = serializedSize(span);
+      if (!current.isEmpty()
+          && (current.size() >= maxSpansPerRequest
+              || currentBytes + spanBytes > maxSpanBytesPerRequest)) {
+        requests.add(new SpanRequest(current, currentBytes));
+        current = new ArrayList<>();
+        currentBytes = 0;
+      }
+      current.add(span);
+      currentBytes += spanBytes;
+    }
+    requests.add(new SpanRequest(current, currentBytes));
+    return requests;
+  }
+
+  /** Returns the number of bytes the span occupies in a serialized BatchWriteSpans request. */
+  static int serializedSize(Span span) {
+    return CodedOutputStream.computeMessageSize(BatchWriteSpansRequest.SPANS_FIELD_NUMBER, span);
+  }
+
+  /** The spans of one BatchWriteSpans request, with the bytes they occupy in it. */
+  static final class SpanRequest {
+    private final List<Span> spans;
+    private final long spanBytes;
+
+    SpanRequest(List<Span> spans, long spanBytes) {
+      this.spans = spans;
+      this.spanBytes = spanBytes;
+    }
+
+    List<Span> getSpans() {
+      return spans;
+    }
+
+    /** Returns the serialized size of the spans, excluding the project name. */
+    long getSpanBytes() {
+      return spanBytes;
+    }
+  }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.trace;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Predicate;
+
+/**
+ * Decides which spans to drop first when the exporter is under pressure.
+ *
+ * <p>Every exported span is put in a {@link SpanClass} before it is translated. The exporter
+ * measures its pressure as the fullest of its span buffer, in-flight limits and rate limits, and
+ * sheds the spans of every class whose threshold that pressure has reached. Low-value classes are
+ * shed at lower pressure, so errors, slow spans and spans marked important by an attribute
+ * predicate are kept the longest. Without buffering, in-flight limits or rate limits the exporter
+ * never comes under pressure and nothing is shed.
+ *
+ * <p>A policy keeps per-class counts of shed spans and should not be shared between exporters.
+ * This class is thread safe.
+ */
+public final class SpanSheddingPolicy {
+
+  /** The classes a span can be put in, from the most to the least valuable. */
+  public enum SpanClass {
+    /** Spans with an {@link StatusCode#ERROR} status. These are never shed. */
+    ERROR(Double.POSITIVE_INFINITY),
+    /** Spans at least as long as the configured percentile of recent span durations. */
+    SLOW(0.95),
+    /** Spans whose attributes match the configured predicate. */
+    IMPORTANT(0.85),
+    /** Spans without a parent in this process, i.e. the entry points of a trace or a service. */
+    LOCAL_ROOT(0.7),
+    /** All other spans. */
+    ROUTINE(0.5);
+
+    private final double shedPressure;
+
+    SpanClass(double shedPressure) {
+      this.shedPressure = shedPressure;
+    }
+
+    /**
+     * Returns the exporter pressure, as a share of its capacity, at which spans of this class are
+     * shed.
+     *
+     * @return the pressure threshold, or positive infinity if spans of this class are never shed.
+     */
+    public double getShedPressure() {
+      return shedPressure;
+    }
+  }
+
+  // Durations are tracked in power-of-two buckets of nanoseconds.
+  private static final int DURATION_BUCKETS = 64;
+  // Slow spans are only identified once enough durations were seen to estimate the percentile.
+  @VisibleForTesting static final int MIN_DURATION_SAMPLES = 100;
+  // Halve the counts once this many durations were recorded, so that the estimate follows changes.
+  private static final int DURATION_DECAY_SAMPLES = 8192;
+
+  private static final SpanClass[] CLASSES = SpanClass.values();
+
+  private final Predicate<Attributes> importantAttributes;
+  private final double slowSpanPercentile;
+  private final AtomicLongArray shedSpans = new AtomicLongArray(CLASSES.length);
+
+  private final long[] durationCounts = new long[DURATION_BUCKETS];
+  private long durationSamples;
+
+  private SpanSheddingPolicy(Builder builder) {
+    this.importantAttributes = builder.importantAttributes;
+    this.slowSpanPercentile = builder.slowSpanPercentile;
+  }
+
+  /**
+   * Returns a new {@link Builder} with the default settings.
+   *
+   * @return a {@code Builder}.
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Returns the total number of spans of the given class shed because the exporter was under
+   * pressure.
+   *
+   * @param spanClass the class of spans.
+   * @return the number of shed spans.
+   */
+  public long getShedSpans(SpanClass spanClass) {
+    return shedSpans.get(spanClass.ordinal());
+  }
+
+  /**
+   * Records the durations of the spans and drops the spans whose class should be shed at the
+   * given pressure.
+   *
+   * @param pressure the exporter pressure, as a share of its capacity.
+   * @return the spans to export, the given collection itself if none were shed.
+   */
+  Collection<SpanData> shed(Collection<SpanData> spans, double pressure) {
+    long slowNanos = recordDurations(spans);
+    if (pressure < SpanClass.ROUTINE.shedPressure) {
+      return spans;
+    }
+    List<SpanData> kept = new ArrayList<>(spans.size());
+    for (SpanData span : spans) {
+      SpanClass spanClass = classify(span, slowNanos);
+      if (pressure >= spanClass.shedPressure) {
+        shedSpans.incrementAndGet(spanClass.ordinal());
+      } else {
+        kept.add(span);
+      }
+    }
+    return kept;
+  }
+
+  @VisibleForTesting
+  SpanClass classify(SpanData span, long slowNanos) {
+    if (span.getStatus().getStatusCode() == StatusCode.ERROR) {
+      return SpanClass.ERROR;
+    }
+    if (duration(span) >= slowNanos) {
+      return SpanClass.SLOW;
+    }
+    if (importantAttributes.test(span.getAttributes())) {
+      return SpanClass.IMPORTANT;
+    }
+    SpanContext parent = span.getParentSpanContext();
+    if (!parent.isValid() || parent.isRemote()) {
+      return SpanClass.LOCAL_ROOT;
+    }
+    return SpanClass.ROUTINE;
+  }
+
+  /**
+   * Adds the span durations to the histogram.
+   *
+   * @return the duration from which spans count as slow, or {@link Long#MAX_VALUE} if too few
+   *     durations were recorded to tell.
+   */
+  private synchronized long recordDurations(Collection<SpanData> spans) {
+    for (SpanData span : spans) {
+      durationCounts[bucket(duration(span))]++;
+      if (++durationSamples >= DURATION_DECAY_SAMPLES) {
+        durationSamples = 0;
+        for (int i = 0; i < DURATION_BUCKETS; i++) {
+          durationCounts[i] /= 2;
+          durationSamples += durationCounts[i];
+        }
+      }
+    }
+    if (durationSamples < MIN_DURATION_SAMPLES) {
+      return Long.MAX_VALUE;
+    }
+    long rank = (long) Math.ceil(durationSamples * slowSpanPercentile);
+    long seen = 0;
+    for (int i = 0; i < DURATION_BUCKETS - 1; i++) {
+      seen += durationCounts[i];
+      if (seen >= rank) {
+        // The percentile falls in bucket i, only spans beyond it count as slow.
+        return 1L << i;
+      }
+    }
+    return Long.MAX_VALUE;
+  }
+
+  // Bucket 0 holds zero durations, bucket i > 0 holds durations in [2^(i-1), 2^i).
+  private static int bucket(long durationNanos) {
+    return durationNanos <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(durationNanos);
+  }
+
+  private static long duration(SpanData span) {
+    return span.getEndEpochNanos() - span.getStartEpochNanos();
+  }
+
+  /** Builder for {@link SpanSheddingPolicy}. */
+  public static final class Builder {
+    private Predicate<Attributes> importantAttributes = attributes -> false;
+    private double slowSpanPercentile = 0.99;
+
+    private Builder() {}
+
+    /**
+     * Sets the predicate that marks spans as {@link SpanClass#IMPORTANT} by their attributes. By
+     * default no span is marked important.
+     *
+     * @param importantAttributes the predicate, tested against the attributes of each span while
+     *     the exporter is under pressure. It must be fast and thread safe.
+     * @return this.
+     */
+    public Builder setImportantAttributes(Predicate<Attributes> importantAttributes) {
+      this.importantAttributes = importantAttributes;
+      return this;
+    }
+
+    /**
+     * Sets the percentile of recent span durations from which spans count as {@link
+     * SpanClass#SLOW}. Defaults to 0.99.
+     *
+     * @param slowSpanPercentile the percentile, greater than 0 and less than 1.
+     * @return this.
+     */
+    public Builder setSlowSpanPercentile(double slowSpanPercentile) {
+      this.slowSpanPercentile = slowSpanPercentile;
+      return this;
+    }
+
+    /**
+     * Builds a {@link SpanSheddingPolicy}.
+     *
+     * @return a new {@code SpanSheddingPolicy}.
+     * @throws IllegalArgumentException if a setting is out of range.
+     */
+    public SpanSheddingPolicy build() {
+      Preconditions.checkNotNull(importantAttributes, "importantAttributes");
+      Preconditions.checkArgument(
+          slowSpanPercentile > 0 && slowSpanPercentile < 1,
+          "Slow span percentile must be in (0, 1).");
+      return new SpanSheddingPolicy(this);
+    }
+  }
+}
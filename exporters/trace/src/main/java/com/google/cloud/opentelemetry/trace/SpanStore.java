@@ -0,0 +1,80 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.trace;
+
+import com.google.devtools.cloudtrace.v2.Span;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Bounded FIFO storage for the spans queued in a {@link SpanBuffer}. Implementations are thread
+ * safe.
+ */
+interface SpanStore {
+
+  /**
+   * Queues a span.
+   *
+   * @return false if the store is full and the span was not queued.
+   */
+  boolean offer(Span span);
+
+  /**
+   * Returns whether the span is small enough to be queued at all, however empty the store is.
+   *
+   * @return false if {@link #offer(Span)} would always reject the span.
+   */
+  default boolean fits(Span span) {
+    return true;
+  }
+
+  /** Moves up to {@code maxSpans} of the oldest spans to the given list. */
+  void drainTo(List<Span> spans, int maxSpans);
+
+  /** Returns the number of queued spans. */
+  int size();
+
+  /** Returns how much of its capacity the store can no longer allocate to new spans. */
+  double getUtilization();
+
+  /** Returns a store that keeps up to the given number of spans on the heap. */
+  static SpanStore onHeap(int maxSpans) {
+    BlockingQueue<Span> queue = new ArrayBlockingQueue<>(maxSpans);
+    return new SpanStore() {
+      @Override
+      public boolean offer(Span span) {
+        return queue.offer(span);
+      }
+
+      @Override
+      public void drainTo(List<Span> spans, int maxSpans) {
+        queue.drainTo(spans, maxSpans);
+      }
+
+      @Override
+      public int size() {
+        return queue.size();
+      }
+
+      @Override
+      public double getUtilization() {
+        int size = queue.size();
+        return (double) size / (size + queue.remainingCapacity());
+      }
+    };
+  }
+}
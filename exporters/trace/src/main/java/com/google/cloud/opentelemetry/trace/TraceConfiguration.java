@@ -19,13 +19,16 @@ import com.google.api.client.util.Strings;
 import com.google.auth.Credentials;
 import com.google.auto.value.AutoValue;
 import com.google.cloud.ServiceOptions;
+import com.google.cloud.opentelemetry.exportsupport.CircuitBreaker;
 import com.google.cloud.trace.v2.stub.TraceServiceStub;
 import com.google.cloud.trace.v2.stub.TraceServiceStubSettings;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.devtools.cloudtrace.v2.AttributeValue;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.Collections;
 import java.util.LinkedHashMap;
@@ -40,6 +43,15 @@ import javax.annotation.concurrent.Immutable;
 public abstract class TraceConfiguration {
 
   @VisibleForTesting static final Duration DEFAULT_DEADLINE = Duration.ofSeconds(10, 0);
+  @VisibleForTesting static final int DEFAULT_MAX_BUFFERED_SPANS = 2048;
+  @VisibleForTesting static final int DEFAULT_MAX_SPANS_PER_REQUEST = 512;
+  @VisibleForTesting static final Duration DEFAULT_BUFFER_FLUSH_INTERVAL = Duration.ofSeconds(5);
+  // Matches the default maximum inbound message size of gRPC servers.
+  @VisibleForTesting static final int DEFAULT_MAX_REQUEST_BYTES = 4 * 1024 * 1024;
+  @VisibleForTesting static final Duration DEFAULT_INITIAL_RETRY_DELAY = Duration.ofMillis(100);
+  @VisibleForTesting static final Duration DEFAULT_MAX_RETRY_DELAY = Duration.ofSeconds(5);
+  @VisibleForTesting static final long DEFAULT_SPOOL_MAX_BYTES = 64L * 1024 * 1024;
+  @VisibleForTesting static final Duration DEFAULT_SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
 
   @VisibleForTesting
   static final ImmutableMap<String, String> DEFAULT_ATTRIBUTE_MAPPING =
@@ -120,6 +132,21 @@ public abstract class TraceConfiguration {
    */
   public abstract ImmutableMap<String, String> getAttributeMapping();
 
+  /**
+   * Returns a map of attribute key prefix renames that will be applied to the attributes of
+   * exported spans that have no exact rename.
+   *
+   * @return A map of OTEL key prefix to GCP key prefix for spans.
+   */
+  public abstract ImmutableMap<String, String> getAttributePrefixMapping();
+
+  /**
+   * Returns the keys of the attributes that are not exported.
+   *
+   * @return the set of OTEL attribute keys that are dropped.
+   */
+  public abstract ImmutableSet<String> getDroppedAttributes();
+
   /**
    * Returns the deadline for exporting to Trace backend.
    *
@@ -129,6 +156,270 @@ public abstract class TraceConfiguration {
    */
   public abstract Duration getDeadline();
 
+  /**
+   * Returns whether the exporter buffers translated spans and coalesces them into full-sized
+   * requests instead of sending one request per {@code export} call.
+   *
+   * <p>Default value is false.
+   *
+   * @return true if exporter buffering is enabled.
+   */
+  public abstract boolean getBufferingEnabled();
+
+  /**
+   * Returns the maximum number of spans held in the exporter buffer. Spans exported while the
+   * buffer is full are dropped.
+   *
+   * <p>Only used when buffering is enabled. Default value is 2048.
+   *
+   * @return the capacity of the exporter buffer.
+   */
+  public abstract int getMaxBufferedSpans();
+
+  /**
+   * Returns the maximum number of bytes of serialized spans held off-heap in the exporter buffer,
+   * or 0 if buffered spans are held on the heap.
+   *
+   * <p>Only used when buffering is enabled. Default value is 0.
+   *
+   * @return the off-heap capacity of the exporter buffer in bytes.
+   */
+  public abstract long getOffHeapBufferBytes();
+
+  /**
+   * Returns the maximum number of spans sent in a single BatchWriteSpans request. Larger batches
+   * are split into several requests that are sent concurrently.
+   *
+   * <p>Default value is 512.
+   *
+   * @return the maximum number of spans per request.
+   */
+  public abstract int getMaxSpansPerRequest();
+
+  /**
+   * Returns the maximum serialized size in bytes of a single BatchWriteSpans request. Larger
+   * batches are split into several requests that are sent concurrently.
+   *
+   * <p>Default value is 4 MiB.
+   *
+   * @return the maximum request size in bytes.
+   */
+  public abstract int getMaxRequestBytes();
+
+  /**
+   * Returns the maximum time a span may wait in the exporter buffer before a partial request is
+   * sent.
+   *
+   * <p>Only used when buffering is enabled. Default value is 5 seconds.
+   *
+   * @return the buffer flush interval.
+   */
+  public abstract Duration getBufferFlushInterval();
+
+  /**
+   * Returns whether the exporter isolates spans that cause Cloud Trace to reject a request as
+   * invalid, so that the remaining spans of the request are still written.
+   *
+   * <p>Default value is false.
+   *
+   * @return true if invalid span isolation is enabled.
+   */
+  public abstract boolean getInvalidSpanIsolationEnabled();
+
+  /**
+   * Returns the maximum number of times a BatchWriteSpans request is retried after failing with
+   * {@code UNAVAILABLE} or {@code DEADLINE_EXCEEDED}.
+   *
+   * <p>Default value is 0, which disables retries.
+   *
+   * @return the maximum number of retries per request.
+   */
+  public abstract int getMaxRetryAttempts();
+
+  /**
+   * Returns the upper bound of the delay before the first retry. Each further retry doubles the
+   * bound, up to {@link #getMaxRetryDelay()}, and the actual delay is chosen at random below it.
+   *
+   * <p>Default value is 100 milliseconds.
+   *
+   * @return the initial retry delay.
+   */
+  public abstract Duration getInitialRetryDelay();
+
+  /**
+   * Returns the maximum delay between two attempts of a request.
+   *
+   * <p>Default value is 5 seconds.
+   *
+   * @return the maximum retry delay.
+   */
+  public abstract Duration getMaxRetryDelay();
+
+  /**
+   * Returns the {@link RetryBudget} that limits how many retries are sent relative to requests.
+   *
+   * <p>Default value is {@link RetryBudget#getDefault()}, which is shared by the whole process.
+   *
+   * @return the retry budget.
+   */
+  public abstract RetryBudget getRetryBudget();
+
+  /**
+   * Returns the maximum number of BatchWriteSpans requests the exporter keeps in flight at the same
+   * time. Exports beyond this limit fail immediately with an {@link
+   * InFlightLimitExceededException}.
+   *
+   * <p>Default value is 0, which means unlimited.
+   *
+   * @return the maximum number of concurrent requests.
+   */
+  public abstract int getMaxInFlightRequests();
+
+  /**
+   * Returns the maximum number of serialized span bytes the exporter keeps in flight at the same
+   * time. Exports beyond this limit fail immediately with an {@link
+   * InFlightLimitExceededException}.
+   *
+   * <p>Default value is 0, which means unlimited.
+   *
+   * @return the maximum number of bytes in flight.
+   */
+  public abstract long getMaxInFlightBytes();
+
+  /**
+   * Returns the maximum number of spans per second sent to Cloud Trace. Spans exported beyond this
+   * rate are shed with a {@link RateLimitExceededException} before any request is made.
+   *
+   * <p>Default value is 0, which means unlimited.
+   *
+   * @return the maximum span rate.
+   */
+  public abstract double getMaxSpansPerSecond();
+
+  /**
+   * Returns the maximum number of BatchWriteSpans requests per second sent to Cloud Trace.
+   *
+   * <p>Default value is 0, which means unlimited.
+   *
+   * @return the maximum request rate.
+   */
+  public abstract double getMaxRequestsPerSecond();
+
+  /**
+   * Returns the number of gRPC channels the exporter opens to Cloud Trace. Requests are spread
+   * across all channels of the pool.
+   *
+   * <p>Default value is 1.
+   *
+   * @return the channel pool size.
+   */
+  public abstract int getChannelPoolSize();
+
+  /**
+   * Returns the number of workers that translate and send spans in parallel. Spans are routed to
+   * workers by trace id.
+   *
+   * <p>Default value is 1.
+   *
+   * @return the number of export workers.
+   */
+  public abstract int getExportWorkers();
+
+  /**
+   * Returns the directory where spans are spooled while Cloud Trace is unavailable, or {@code
+   * null} if spooling is disabled.
+   *
+   * <p>Default value is {@code null}.
+   *
+   * @return the spool directory.
+   */
+  @Nullable
+  public abstract Path getSpoolDirectory();
+
+  /**
+   * Returns the maximum number of bytes the span spool may take up on disk. Once it is full, the
+   * oldest spooled spans are dropped.
+   *
+   * <p>Default value is 64 MiB.
+   *
+   * @return the maximum size of the spool.
+   */
+  public abstract long getSpoolMaxBytes();
+
+  /**
+   * Returns the circuit breaker guarding calls to Cloud Trace, or {@code null} if calls are never
+   * short-circuited.
+   *
+   * <p>Default value is {@code null}.
+   *
+   * @return the circuit breaker.
+   */
+  @Nullable
+  public abstract CircuitBreaker getCircuitBreaker();
+
+  /**
+   * Returns the policy that decides which spans are shed first while the exporter is under
+   * pressure, or {@code null} if spans are never shed by priority.
+   *
+   * <p>Default value is {@code null}.
+   *
+   * @return the shedding policy.
+   */
+  @Nullable
+  public abstract SpanSheddingPolicy getSheddingPolicy();
+
+  /**
+   * Returns the cache of translated attribute values, or {@code null} if every attribute value is
+   * translated anew.
+   *
+   * <p>Default value is {@code null}.
+   *
+   * @return the attribute value cache.
+   */
+  @Nullable
+  public abstract AttributeValueCache getAttributeValueCache();
+
+  /**
+   * Returns whether the exporter is initialized in the background as soon as it is created,
+   * rather than on first use.
+   *
+   * <p>Default value is {@code false}.
+   *
+   * @return whether eager initialization is enabled.
+   */
+  public abstract boolean getEagerInitialization();
+
+  /**
+   * Returns how long shutdown waits for buffered and in-flight spans to be sent before giving up
+   * on them.
+   *
+   * <p>Default value is 10 seconds.
+   *
+   * @return the shutdown timeout.
+   */
+  public abstract Duration getShutdownTimeout();
+
+  /**
+   * Returns the OTLP endpoint spans are sent to instead of the Cloud Trace API, or {@code null} if
+   * spans are translated and written with the Cloud Trace API.
+   *
+   * <p>Default value is {@code null}.
+   *
+   * @return the OTLP endpoint.
+   */
+  @Nullable
+  public abstract String getOtlpEndpoint();
+
+  /**
+   * Returns whether spans are written to the Cloud Trace API over HTTP/1.1 with JSON payloads
+   * rather than over gRPC.
+   *
+   * <p>Default value is {@code false}.
+   *
+   * @return whether the HTTP/JSON transport is used.
+   */
+  public abstract boolean getUseHttpJsonTransport();
+
   @VisibleForTesting
   abstract boolean getInsecureEndpoint();
 
@@ -144,7 +435,28 @@ public abstract class TraceConfiguration {
         .setDeadline(DEFAULT_DEADLINE)
         .setTraceServiceEndpoint(TraceServiceStubSettings.getDefaultEndpoint())
         .setInsecureEndpoint(false)
-        .setAttributeMapping(DEFAULT_ATTRIBUTE_MAPPING);
+        .setAttributeMapping(DEFAULT_ATTRIBUTE_MAPPING)
+        .setBufferingEnabled(false)
+        .setMaxBufferedSpans(DEFAULT_MAX_BUFFERED_SPANS)
+        .setOffHeapBufferBytes(0)
+        .setMaxSpansPerRequest(DEFAULT_MAX_SPANS_PER_REQUEST)
+        .setMaxRequestBytes(DEFAULT_MAX_REQUEST_BYTES)
+        .setBufferFlushInterval(DEFAULT_BUFFER_FLUSH_INTERVAL)
+        .setInvalidSpanIsolationEnabled(false)
+        .setMaxRetryAttempts(0)
+        .setInitialRetryDelay(DEFAULT_INITIAL_RETRY_DELAY)
+        .setMaxRetryDelay(DEFAULT_MAX_RETRY_DELAY)
+        .setRetryBudget(RetryBudget.getDefault())
+        .setMaxInFlightRequests(0)
+        .setMaxInFlightBytes(0)
+        .setMaxSpansPerSecond(0)
+        .setMaxRequestsPerSecond(0)
+        .setChannelPoolSize(1)
+        .setExportWorkers(1)
+        .setEagerInitialization(false)
+        .setShutdownTimeout(DEFAULT_SHUTDOWN_TIMEOUT)
+        .setUseHttpJsonTransport(false)
+        .setSpoolMaxBytes(DEFAULT_SPOOL_MAX_BYTES);
   }
 
   /** Builder for {@link TraceConfiguration}. */
@@ -230,6 +542,38 @@ public abstract class TraceConfiguration {
       return this;
     }
 
+    abstract ImmutableMap.Builder<String, String> attributePrefixMappingBuilder();
+
+    /**
+     * Adds a mapping that replaces a prefix of OTEL attribute keys with the given prefix for GCP,
+     * keeping the rest of the key. For example, {@code http.request.header.} to {@code
+     * /http/header/} renames {@code http.request.header.accept} to {@code /http/header/accept}.
+     *
+     * <p>Exact mappings take precedence over prefix mappings, and longer prefixes over shorter
+     * ones. Both prefixes are taken literally.
+     *
+     * @param otelPrefix the attribute key prefix from OTEL.
+     * @param gcpPrefix the attribute key prefix to use in GCP.
+     * @return this.
+     */
+    public final Builder addAttributePrefixMapping(String otelPrefix, String gcpPrefix) {
+      attributePrefixMappingBuilder().put(otelPrefix, gcpPrefix);
+      return this;
+    }
+
+    abstract ImmutableSet.Builder<String> droppedAttributesBuilder();
+
+    /**
+     * Drops the attribute with the given key from the exported spans, whatever its mappings.
+     *
+     * @param otelKey the attribute name from OTEL.
+     * @return this.
+     */
+    public final Builder dropAttribute(String otelKey) {
+      droppedAttributesBuilder().add(otelKey);
+      return this;
+    }
+
     /**
      * Sets the deadline for exporting to Trace backend.
      *
@@ -241,10 +585,318 @@ public abstract class TraceConfiguration {
      */
     public abstract Builder setDeadline(Duration deadline);
 
+    /**
+     * Enables buffering of translated spans inside the exporter. Spans from many {@code export}
+     * calls are then sent together once {@link #setMaxSpansPerRequest(int)} spans are queued, once
+     * the {@link #setBufferFlushInterval(Duration)} elapses, or when the exporter is flushed.
+     *
+     * <p>When enabled, {@code export} completes as soon as the spans are queued.
+     *
+     * @param bufferingEnabled whether to buffer spans in the exporter.
+     * @return this.
+     */
+    public abstract Builder setBufferingEnabled(boolean bufferingEnabled);
+
+    /**
+     * Sets the maximum number of spans held in the exporter buffer.
+     *
+     * @param maxBufferedSpans the capacity of the exporter buffer, must be positive.
+     * @return this.
+     */
+    public abstract Builder setMaxBufferedSpans(int maxBufferedSpans);
+
+    /**
+     * Sets the maximum number of bytes of serialized spans held off-heap in the exporter buffer.
+     * When positive, buffered spans are serialized into pooled direct byte buffers instead of
+     * being kept as objects on the heap, and this cap replaces the maximum number of buffered
+     * spans. This bounds the heap held by a backlog, not the allocation per span: spans are still
+     * translated on the heap, and parsed back when their request is sent.
+     *
+     * @param offHeapBufferBytes the off-heap capacity in bytes, or 0 to buffer spans on the heap.
+     * @return this.
+     */
+    public abstract Builder setOffHeapBufferBytes(long offHeapBufferBytes);
+
+    /**
+     * Sets the maximum number of spans sent in a single BatchWriteSpans request.
+     *
+     * @param maxSpansPerRequest the maximum number of spans per request, must be positive.
+     * @return this.
+     */
+    public abstract Builder setMaxSpansPerRequest(int maxSpansPerRequest);
+
+    /**
+     * Sets the maximum serialized size in bytes of a single BatchWriteSpans request. A span that
+     * exceeds this size on its own is still sent, in a request by itself.
+     *
+     * @param maxRequestBytes the maximum request size in bytes, must be positive.
+     * @return this.
+     */
+    public abstract Builder setMaxRequestBytes(int maxRequestBytes);
+
+    /**
+     * Sets the maximum time a span may wait in the exporter buffer before it is sent.
+     *
+     * @param bufferFlushInterval the buffer flush interval, must be positive.
+     * @return this.
+     */
+    public abstract Builder setBufferFlushInterval(Duration bufferFlushInterval);
+
+    /**
+     * Enables isolation of invalid spans. When Cloud Trace rejects a request with {@code
+     * INVALID_ARGUMENT}, the exporter splits the request in half and resends each half, repeating
+     * until the offending spans are found. Those spans are dropped and the number of dropped spans
+     * is logged; all other spans are written.
+     *
+     * @param invalidSpanIsolationEnabled whether to isolate and drop invalid spans.
+     * @return this.
+     */
+    public abstract Builder setInvalidSpanIsolationEnabled(boolean invalidSpanIsolationEnabled);
+
+    /**
+     * Sets the maximum number of times a BatchWriteSpans request is retried after failing with
+     * {@code UNAVAILABLE} or {@code DEADLINE_EXCEEDED}. Retries are delayed with exponential
+     * backoff and jitter, and are only sent while the {@link RetryBudget} allows it.
+     *
+     * @param maxRetryAttempts the maximum number of retries per request, 0 disables retries.
+     * @return this.
+     */
+    public abstract Builder setMaxRetryAttempts(int maxRetryAttempts);
+
+    /**
+     * Sets the upper bound of the delay before the first retry.
+     *
+     * @param initialRetryDelay the initial retry delay, must be positive.
+     * @return this.
+     */
+    public abstract Builder setInitialRetryDelay(Duration initialRetryDelay);
+
+    /**
+     * Sets the maximum delay between two attempts of a request.
+     *
+     * @param maxRetryDelay the maximum retry delay, must not be less than the initial delay.
+     * @return this.
+     */
+    public abstract Builder setMaxRetryDelay(Duration maxRetryDelay);
+
+    /**
+     * Sets the {@link RetryBudget} that limits how many retries are sent relative to requests.
+     *
+     * @param retryBudget the retry budget.
+     * @return this.
+     */
+    public abstract Builder setRetryBudget(RetryBudget retryBudget);
+
+    /**
+     * Sets the maximum number of BatchWriteSpans requests kept in flight at the same time. When the
+     * limit is reached, {@code export} fails immediately with an {@link
+     * InFlightLimitExceededException} instead of queuing more work, so that span processors can
+     * account for the dropped spans.
+     *
+     * @param maxInFlightRequests the maximum number of concurrent requests, 0 for unlimited.
+     * @return this.
+     */
+    public abstract Builder setMaxInFlightRequests(int maxInFlightRequests);
+
+    /**
+     * Sets the maximum number of serialized span bytes kept in flight at the same time. When the
+     * limit is reached, {@code export} fails immediately with an {@link
+     * InFlightLimitExceededException}.
+     *
+     * @param maxInFlightBytes the maximum number of bytes in flight, 0 for unlimited.
+     * @return this.
+     */
+    public abstract Builder setMaxInFlightBytes(long maxInFlightBytes);
+
+    /**
+     * Sets the maximum number of spans per second sent to Cloud Trace, typically a share of the
+     * project's ingestion quota. When the rate is exceeded, {@code export} fails immediately with
+     * a {@link RateLimitExceededException}. The rate is lowered automatically while Cloud Trace
+     * responds with {@code RESOURCE_EXHAUSTED} and recovers as requests succeed again.
+     *
+     * @param maxSpansPerSecond the maximum span rate, 0 for unlimited.
+     * @return this.
+     */
+    public abstract Builder setMaxSpansPerSecond(double maxSpansPerSecond);
+
+    /**
+     * Sets the maximum number of BatchWriteSpans requests per second sent to Cloud Trace. It adapts
+     * to {@code RESOURCE_EXHAUSTED} responses like {@link #setMaxSpansPerSecond(double)}.
+     *
+     * @param maxRequestsPerSecond the maximum request rate, 0 for unlimited.
+     * @return this.
+     */
+    public abstract Builder setMaxRequestsPerSecond(double maxRequestsPerSecond);
+
+    /**
+     * Sets the number of gRPC channels, and therefore HTTP/2 connections, the exporter opens to
+     * Cloud Trace. A larger pool raises the number of concurrent streams and the flow control
+     * window available to high-throughput exporters.
+     *
+     * <p>The pool size is ignored when a {@link TraceServiceStub} is provided.
+     *
+     * @param channelPoolSize the number of channels, must be positive.
+     * @return this.
+     */
+    public abstract Builder setChannelPoolSize(int channelPoolSize);
+
+    /**
+     * Sets the number of workers that translate and send spans in parallel. With more than one
+     * worker, each exported batch is split by trace id, so the spans of a trace always go to the
+     * same worker, and each worker translates and buffers its share on its own thread. The buffer
+     * capacity and the in-flight limits are divided between the workers.
+     *
+     * <p>With a single worker, spans are translated on the thread calling {@code export}.
+     *
+     * @param exportWorkers the number of workers, must be positive.
+     * @return this.
+     */
+    public abstract Builder setExportWorkers(int exportWorkers);
+
+    /**
+     * Sets the directory where spans are spooled when Cloud Trace cannot be reached. Spooled spans
+     * are replayed in the background once Cloud Trace is available again, including spans left
+     * behind by a previous process that used the same directory. A directory can only be used by
+     * one exporter at a time.
+     *
+     * @param spoolDirectory the spool directory, or {@code null} to disable spooling.
+     * @return this.
+     */
+    public abstract Builder setSpoolDirectory(@Nullable Path spoolDirectory);
+
+    /**
+     * Sets the maximum number of bytes the span spool may take up on disk.
+     *
+     * @param spoolMaxBytes the maximum size of the spool, must be positive.
+     * @return this.
+     */
+    public abstract Builder setSpoolMaxBytes(long spoolMaxBytes);
+
+    /**
+     * Sets a circuit breaker that guards calls to Cloud Trace. While the breaker is open, exports
+     * fail immediately with {@code UNAVAILABLE} instead of waiting for the deadline, and are
+     * neither retried nor sent until the breaker lets probe requests through again. Keep a
+     * reference to the breaker to observe its state.
+     *
+     * @param circuitBreaker the circuit breaker, or {@code null} to disable it. It must not be
+     *     shared with other exporters.
+     * @return this.
+     */
+    public abstract Builder setCircuitBreaker(@Nullable CircuitBreaker circuitBreaker);
+
+    /**
+     * Sets a policy that sheds low-value spans, before they are translated, as the span buffer,
+     * the in-flight limits or the rate limits fill up, so that errors and other valuable spans are
+     * kept. Shed spans are reported as exported. Keep a reference to the policy to read its shed
+     * span counts.
+     *
+     * @param sheddingPolicy the shedding policy, or {@code null} to disable it. It must not be
+     *     shared with other exporters.
+     * @return this.
+     */
+    public abstract Builder setSheddingPolicy(@Nullable SpanSheddingPolicy sheddingPolicy);
+
+    /**
+     * Sets a cache that shares the translation of attribute values repeated across spans, such as
+     * HTTP methods, routes and status codes, so that translating spans mostly allocates for unique
+     * values. Keep a reference to the cache to read its hit and miss counts.
+     *
+     * @param attributeValueCache the attribute value cache, or {@code null} to disable it.
+     * @return this.
+     */
+    public abstract Builder setAttributeValueCache(
+        @Nullable AttributeValueCache attributeValueCache);
+
+    /**
+     * Sets whether the exporter is initialized on a background thread as soon as it is created.
+     * Initialization resolves the credentials and project ID, fetches an access token, creates the
+     * Cloud Trace client and opens its connections; by default it happens on the first export,
+     * which then takes noticeably longer. Use {@link TraceExporter#readinessOf} to wait for it.
+     *
+     * @param eagerInitialization whether to initialize the exporter eagerly.
+     * @return this.
+     */
+    public abstract Builder setEagerInitialization(boolean eagerInitialization);
+
+    /**
+     * Sets how long shutdown waits for the exporter to drain. Shutdown stops accepting spans, sends
+     * the buffered ones and waits for the requests in flight, including their retries, to
+     * complete. Requests still in flight when the timeout elapses are cancelled, and the number of
+     * spans lost is logged.
+     *
+     * @param shutdownTimeout the shutdown timeout, must be positive.
+     * @return this.
+     */
+    public abstract Builder setShutdownTimeout(Duration shutdownTimeout);
+
+    /**
+     * Sets an OTLP gRPC endpoint, such as {@code https://telemetry.googleapis.com}, to send spans
+     * to as an OTLP {@code ExportTraceServiceRequest} instead of translating them for the Cloud
+     * Trace API. Spans keep their attribute types, and the attribute mapping, fixed attributes and
+     * GCP resource labels are still applied. Requests to {@code https} endpoints are authenticated
+     * with the configured credentials, or Application Default Credentials; {@code http} endpoints,
+     * such as a local collector, are not.
+     *
+     * <p>The buffering, retry, spooling, flow control and shedding settings only apply to the Cloud
+     * Trace API and are ignored when an OTLP endpoint is set.
+     *
+     * @param otlpEndpoint the OTLP endpoint, or {@code null} to use the Cloud Trace API.
+     * @return this.
+     */
+    public abstract Builder setOtlpEndpoint(@Nullable String otlpEndpoint);
+
+    /**
+     * Sets whether spans are written to the Cloud Trace API over HTTP/1.1 with JSON payloads
+     * instead of gRPC. The HTTP/JSON transport does not start the Netty event loops and channels
+     * of the gRPC transport, which makes the exporter faster to create and lighter on memory in
+     * short-lived or memory-constrained runtimes such as Cloud Functions and Cloud Run. gRPC
+     * remains more efficient for sustained high volumes. The channel pool size does not apply to
+     * the HTTP/JSON transport.
+     *
+     * @param useHttpJsonTransport whether to use the HTTP/JSON transport.
+     * @return this.
+     */
+    public abstract Builder setUseHttpJsonTransport(boolean useHttpJsonTransport);
+
     abstract Map<String, AttributeValue> getFixedAttributes();
 
     abstract Duration getDeadline();
 
+    abstract int getMaxBufferedSpans();
+
+    abstract long getOffHeapBufferBytes();
+
+    abstract int getMaxSpansPerRequest();
+
+    abstract int getMaxRequestBytes();
+
+    abstract Duration getBufferFlushInterval();
+
+    abstract int getMaxRetryAttempts();
+
+    abstract Duration getInitialRetryDelay();
+
+    abstract Duration getMaxRetryDelay();
+
+    abstract int getMaxInFlightRequests();
+
+    abstract long getMaxInFlightBytes();
+
+    abstract double getMaxSpansPerSecond();
+
+    abstract double getMaxRequestsPerSecond();
+
+    abstract int getChannelPoolSize();
+
+    abstract int getExportWorkers();
+
+    abstract long getSpoolMaxBytes();
+
+    abstract Duration getShutdownTimeout();
+
+    @Nullable
+    abstract String getOtlpEndpoint();
+
     @VisibleForTesting
     abstract Builder setInsecureEndpoint(boolean value);
 
@@ -262,6 +914,40 @@ public abstract class TraceConfiguration {
         Preconditions.checkNotNull(fixedAttribute.getValue(), "attribute value");
       }
       Preconditions.checkArgument(getDeadline().compareTo(ZERO) > 0, "Deadline must be positive.");
+      Preconditions.checkArgument(
+          getMaxBufferedSpans() > 0, "Max buffered spans must be positive.");
+      Preconditions.checkArgument(
+          getOffHeapBufferBytes() >= 0, "Off-heap buffer bytes must not be negative.");
+      Preconditions.checkArgument(
+          getMaxSpansPerRequest() > 0, "Max spans per request must be positive.");
+      Preconditions.checkArgument(getMaxRequestBytes() > 0, "Max request bytes must be positive.");
+      Preconditions.checkArgument(
+          getBufferFlushInterval().compareTo(ZERO) > 0, "Buffer flush interval must be positive.");
+      Preconditions.checkArgument(
+          getMaxRetryAttempts() >= 0, "Max retry attempts must not be negative.");
+      Preconditions.checkArgument(
+          getInitialRetryDelay().compareTo(ZERO) > 0, "Initial retry delay must be positive.");
+      Preconditions.checkArgument(
+          getMaxRetryDelay().compareTo(getInitialRetryDelay()) >= 0,
+          "Max retry delay must not be less than the initial retry delay.");
+      Preconditions.checkArgument(
+          getMaxInFlightRequests() >= 0, "Max in-flight requests must not be negative.");
+      Preconditions.checkArgument(
+          getMaxInFlightBytes() >= 0, "Max in-flight bytes must not be negative.");
+      Preconditions.checkArgument(
+          getMaxSpansPerSecond() >= 0, "Max spans per second must not be negative.");
+      Preconditions.checkArgument(
+          getMaxRequestsPerSecond() >= 0, "Max requests per second must not be negative.");
+      Preconditions.checkArgument(getChannelPoolSize() > 0, "Channel pool size must be positive.");
+      Preconditions.checkArgument(getExportWorkers() > 0, "Export workers must be positive.");
+      Preconditions.checkArgument(getSpoolMaxBytes() > 0, "Spool max bytes must be positive.");
+      Preconditions.checkArgument(
+          getShutdownTimeout().compareTo(ZERO) > 0, "Shutdown timeout must be positive.");
+      Preconditions.checkArgument(
+          getOtlpEndpoint() == null
+              || getOtlpEndpoint().startsWith("http://")
+              || getOtlpEndpoint().startsWith("https://"),
+          "OTLP endpoint must be an http or https URL.");
       return autoBuild();
     }
   }
@@ -16,12 +16,15 @@
 package com.google.cloud.opentelemetry.trace;
 
 import com.google.cloud.ServiceOptions;
+import com.google.common.base.Preconditions;
 import com.google.common.base.Suppliers;
+import com.google.devtools.cloudtrace.v2.Span;
 import io.opentelemetry.sdk.common.CompletableResultCode;
 import io.opentelemetry.sdk.trace.data.SpanData;
 import io.opentelemetry.sdk.trace.export.SpanExporter;
 import java.io.IOException;
 import java.util.Collection;
+import java.util.List;
 import java.util.function.Supplier;
 import javax.annotation.Nonnull;
 import org.slf4j.Logger;
@@ -32,20 +35,51 @@ public class TraceExporter implements SpanExporter {
   private static final Logger logger = LoggerFactory.getLogger(TraceExporter.class);
 
   private final Supplier<SpanExporter> internalTraceExporterSupplier;
+  private final TraceConfiguration configuration;
+  private final TraceTranslator translator;
+  private final CompletableResultCode readiness = new CompletableResultCode();
 
   private TraceExporter(TraceConfiguration configuration) {
+    this.configuration = configuration;
+    this.translator =
+        new TraceTranslator(
+            AttributeKeyMapping.compile(configuration),
+            configuration.getFixedAttributes(),
+            configuration.getAttributeValueCache());
     this.internalTraceExporterSupplier =
         Suppliers.memoize(
             () -> {
               try {
-                return InternalTraceExporter.createWithConfiguration(configuration);
+                SpanExporter exporter =
+                    InternalTraceExporter.createWithConfiguration(configuration);
+                readiness.succeed();
+                return exporter;
               } catch (IOException e) {
                 logger.warn(
                     "Unable to initialize Google Cloud TraceExporter. Export operation failed, switching to NoopSpanExporter.",
                     e);
+                readiness.failExceptionally(e);
                 return new NoopSpanExporter();
+              } catch (RuntimeException e) {
+                // Not memoized, so the next use retries, but readiness reports the first outcome.
+                readiness.failExceptionally(e);
+                throw e;
               }
             });
+    if (configuration.getEagerInitialization()) {
+      Thread initializer = new Thread(this::initialize, "google-cloud-trace-exporter-init");
+      initializer.setDaemon(true);
+      initializer.start();
+    }
+  }
+
+  private void initialize() {
+    try {
+      internalTraceExporterSupplier.get();
+    } catch (RuntimeException e) {
+      // The next export retries the initialization.
+      logger.warn("Unable to initialize Google Cloud TraceExporter in the background.", e);
+    }
   }
 
   /**
@@ -83,6 +117,22 @@ public class TraceExporter implements SpanExporter {
     return new TraceExporter(configuration);
   }
 
+  /**
+   * Returns a result that completes once an exporter returned by {@link #createWithConfiguration}
+   * or {@link #createWithDefaultConfiguration()} is initialized: successfully if it is ready to
+   * export spans, or with a failure if the first initialization attempt failed. Unless eager
+   * initialization is enabled, the exporter is initialized on first use.
+   *
+   * @param exporter an exporter created by this class.
+   * @return the readiness of the exporter.
+   * @throws IllegalArgumentException if the exporter was not created by this class.
+   */
+  public static CompletableResultCode readinessOf(SpanExporter exporter) {
+    Preconditions.checkArgument(
+        exporter instanceof TraceExporter, "Exporter was not created by TraceExporter.");
+    return ((TraceExporter) exporter).readiness;
+  }
+
   @Override
   public CompletableResultCode flush() {
     return internalTraceExporterSupplier.get().flush();
@@ -93,6 +143,31 @@ public class TraceExporter implements SpanExporter {
     return internalTraceExporterSupplier.get().export(spanDataList);
   }
 
+  /** Returns the project spans are exported to, resolving it if needed. */
+  String getProjectId() {
+    return configuration.getProjectId();
+  }
+
+  /** Returns whether spans are translated for the Cloud Trace API rather than sent as OTLP. */
+  boolean translatesSpans() {
+    return configuration.getOtlpEndpoint() == null;
+  }
+
+  /** Translates a span, on the calling thread, into the form taken by {@link #exportTranslated}. */
+  Span translate(SpanData spanData, String projectId) {
+    return translator.generateSpan(spanData, projectId);
+  }
+
+  /** Exports spans translated by {@link #translate(SpanData, String)}. */
+  CompletableResultCode exportTranslated(List<Span> spans) {
+    SpanExporter delegate = internalTraceExporterSupplier.get();
+    if (delegate instanceof InternalTraceExporter) {
+      return ((InternalTraceExporter) delegate).exportTranslated(spans);
+    }
+    // The exporter failed to initialize and drops everything.
+    return CompletableResultCode.ofSuccess();
+  }
+
   @Override
   public CompletableResultCode shutdown() {
     return internalTraceExporterSupplier.get().shutdown();
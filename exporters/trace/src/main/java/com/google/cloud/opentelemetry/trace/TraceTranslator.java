@@ -32,8 +32,10 @@ import com.google.protobuf.BoolValue;
 import com.google.rpc.Code;
 import com.google.rpc.Status;
 import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.AttributeType;
 import io.opentelemetry.api.trace.SpanKind;
 import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.common.InstrumentationScopeInfo;
 import io.opentelemetry.sdk.resources.Resource;
 import io.opentelemetry.sdk.trace.data.EventData;
 import io.opentelemetry.sdk.trace.data.LinkData;
@@ -44,7 +46,10 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 
 class TraceTranslator {
   private static final String AGENT_LABEL_KEY = "g.co/agent";
@@ -62,14 +67,29 @@ class TraceTranslator {
 
   private static final String INSTRUMENTATION_LIBRARY_NAME_KEY = "otel.scope.name";
   private static final String INSTRUMENTATION_LIBRARY_VERSION_KEY = "otel.scope.version";
+  // Applications have a few dozen scopes; the bound only guards against unusual ones.
+  private static final int MAX_CACHED_SCOPES = 256;
 
-  private final ImmutableMap<String, String> attributeMapping;
+  private final AttributeKeyMapping attributeMapping;
   private final Map<String, AttributeValue> fixedAttributes;
+  @Nullable private final AttributeValueCache attributeValueCache;
+  private final ConcurrentMap<InstrumentationScopeInfo, Map<String, AttributeValue>>
+      scopeAttributes = new ConcurrentHashMap<>();
+  // Spans nearly always share a single Resource instance, so remembering the last one suffices.
+  private volatile ResourceAttributes lastResourceAttributes;
 
   TraceTranslator(
       ImmutableMap<String, String> attributeMapping, Map<String, AttributeValue> fixedAttributes) {
+    this(AttributeKeyMapping.compile(attributeMapping), fixedAttributes, null);
+  }
+
+  TraceTranslator(
+      AttributeKeyMapping attributeMapping,
+      Map<String, AttributeValue> fixedAttributes,
+      @Nullable AttributeValueCache attributeValueCache) {
     this.attributeMapping = attributeMapping;
     this.fixedAttributes = fixedAttributes;
+    this.attributeValueCache = attributeValueCache;
   }
 
   @VisibleForTesting
@@ -81,22 +101,12 @@ class TraceTranslator {
   Span generateSpan(SpanData spanData, String projectId) {
     final String traceId = spanData.getTraceId();
     final String spanId = spanData.getSpanId();
-    Map<String, AttributeValue> extraAttributes = new HashMap<>(fixedAttributes);
-    // Add InstrumentationLibrary labels
-    if (spanData.getInstrumentationLibraryInfo().getName() != null) {
-      extraAttributes.put(
-          INSTRUMENTATION_LIBRARY_NAME_KEY,
-          toAttributeValueString(spanData.getInstrumentationLibraryInfo().getName()));
-    }
-    if (spanData.getInstrumentationLibraryInfo().getVersion() != null) {
-      extraAttributes.put(
-          INSTRUMENTATION_LIBRARY_VERSION_KEY,
-          toAttributeValueString(spanData.getInstrumentationLibraryInfo().getVersion()));
-    }
-    // Add resource labels
-    insertResourceAttributes(spanData.getResource(), extraAttributes);
-    // Add Agent label
-    extraAttributes.put(AGENT_LABEL_KEY, AGENT_LABEL_VALUE);
+    // Span attributes take precedence, then instrumentation scope labels, then the rest.
+    Attributes.Builder attributes = toAttributesBuilderProto(spanData.getAttributes());
+    getScopeAttributes(spanData.getInstrumentationScopeInfo())
+        .forEach((key, value) -> putIfAbsent(attributes, key, value));
+    getResourceAttributes(spanData.getResource())
+        .forEach((key, value) -> putIfAbsent(attributes, key, value));
     SpanName spanName =
         SpanName.newBuilder().setProject(projectId).setTrace(traceId).setSpan(spanId).build();
     Span.Builder spanBuilder =
@@ -106,7 +116,7 @@ class TraceTranslator {
             .setDisplayName(
                 toTruncatableStringProto(toDisplayName(spanData.getName(), spanData.getKind())))
             .setStartTime(toTimestampProto(spanData.getStartEpochNanos()))
-            .setAttributes(toAttributesProto(spanData.getAttributes(), extraAttributes))
+            .setAttributes(attributes)
             .setTimeEvents(toTimeEventsProto(spanData.getEvents()));
     StatusData status = spanData.getStatus();
     if (status != null) {
@@ -128,6 +138,52 @@ class TraceTranslator {
     return spanBuilder.build();
   }
 
+  /** Returns the instrumentation scope labels of spans, cached for a bounded number of scopes. */
+  @VisibleForTesting
+  Map<String, AttributeValue> getScopeAttributes(InstrumentationScopeInfo scope) {
+    Map<String, AttributeValue> attributes = scopeAttributes.get(scope);
+    if (attributes != null) {
+      return attributes;
+    }
+    ImmutableMap.Builder<String, AttributeValue> builder = ImmutableMap.builder();
+    if (scope.getName() != null) {
+      builder.put(INSTRUMENTATION_LIBRARY_NAME_KEY, toAttributeValueString(scope.getName()));
+    }
+    if (scope.getVersion() != null) {
+      builder.put(INSTRUMENTATION_LIBRARY_VERSION_KEY, toAttributeValueString(scope.getVersion()));
+    }
+    attributes = builder.build();
+    if (scopeAttributes.size() < MAX_CACHED_SCOPES) {
+      scopeAttributes.putIfAbsent(scope, attributes);
+    }
+    return attributes;
+  }
+
+  /**
+   * Returns the attributes added to every span of a resource: the fixed attributes, the resource
+   * labels and the agent label. They are computed once for the most recent resource.
+   */
+  @VisibleForTesting
+  Map<String, AttributeValue> getResourceAttributes(Resource resource) {
+    ResourceAttributes cached = lastResourceAttributes;
+    if (cached != null && cached.resource == resource) {
+      return cached.attributes;
+    }
+    Map<String, AttributeValue> attributes = new HashMap<>(fixedAttributes);
+    insertResourceAttributes(resource, attributes);
+    attributes.put(AGENT_LABEL_KEY, AGENT_LABEL_VALUE);
+    ImmutableMap<String, AttributeValue> immutableAttributes = ImmutableMap.copyOf(attributes);
+    lastResourceAttributes = new ResourceAttributes(resource, immutableAttributes);
+    return immutableAttributes;
+  }
+
+  private static void putIfAbsent(
+      Attributes.Builder attributesBuilder, String key, AttributeValue value) {
+    if (!attributesBuilder.containsAttributeMap(key)) {
+      attributesBuilder.putAttributeMap(key, value);
+    }
+  }
+
   @VisibleForTesting
   static void insertResourceAttributes(Resource resource, Map<String, AttributeValue> accumulator) {
     // First add the GCP resource labels.
@@ -146,7 +202,7 @@ class TraceTranslator {
         .forEach(
             (key, value) -> {
               if (!accumulator.containsKey(key.getKey())) {
-                accumulator.put(key.getKey(), toAttributeValueProto(key, value));
+                accumulator.put(key.getKey(), toAttributeValueProto(key.getType(), value));
               }
             });
   }
@@ -198,14 +254,45 @@ class TraceTranslator {
       io.opentelemetry.api.common.Attributes attributes) {
     Attributes.Builder attributesBuilder = Attributes.newBuilder().setDroppedAttributesCount(0);
     attributes.forEach(
-        (key, value) ->
-            attributesBuilder.putAttributeMap(mapKey(key), toAttributeValueProto(key, value)));
+        (key, value) -> {
+          String mappedKey = mapKey(key);
+          if (mappedKey != null) {
+            attributesBuilder.putAttributeMap(mappedKey, toAttributeValueProto(key, value));
+          }
+        });
     return attributesBuilder;
   }
 
-  private static <T> AttributeValue toAttributeValueProto(AttributeKey<?> key, Object value) {
-    AttributeValue.Builder builder = AttributeValue.newBuilder();
+  private AttributeValue toAttributeValueProto(AttributeKey<?> key, Object value) {
+    if (attributeValueCache == null) {
+      return toAttributeValueProto(key.getType(), value);
+    }
     switch (key.getType()) {
+      case STRING:
+      case BOOLEAN:
+      case LONG:
+      case DOUBLE:
+        return attributeValueCache.get(value, TraceTranslator::toScalarAttributeValueProto);
+      default:
+        return toAttributeValueProto(key.getType(), value);
+    }
+  }
+
+  /** Translates a scalar value, whose class tells its attribute type. */
+  private static AttributeValue toScalarAttributeValueProto(Object value) {
+    if (value instanceof String) {
+      return toAttributeValueProto(AttributeType.STRING, value);
+    } else if (value instanceof Boolean) {
+      return toAttributeValueProto(AttributeType.BOOLEAN, value);
+    } else if (value instanceof Long) {
+      return toAttributeValueProto(AttributeType.LONG, value);
+    }
+    return toAttributeValueProto(AttributeType.DOUBLE, value);
+  }
+
+  private static AttributeValue toAttributeValueProto(AttributeType type, Object value) {
+    AttributeValue.Builder builder = AttributeValue.newBuilder();
+    switch (type) {
       case STRING:
         builder.setStringValue(toTruncatableStringProto((String) value));
         break;
@@ -246,12 +333,10 @@ class TraceTranslator {
     return result.toString();
   }
 
-  private <T> String mapKey(AttributeKey<T> key) {
-    if (attributeMapping.containsKey(key.getKey())) {
-      return attributeMapping.get(key.getKey());
-    } else {
-      return key.getKey();
-    }
+  /** Returns the Cloud Trace key of an attribute, or {@code null} if it is dropped. */
+  @Nullable
+  private String mapKey(AttributeKey<?> key) {
+    return attributeMapping.map(key);
   }
 
   @VisibleForTesting
@@ -346,4 +431,14 @@ class TraceTranslator {
   static AttributeValue toStringAttributeValueProto(String value) {
     return AttributeValue.newBuilder().setStringValue(toTruncatableStringProto(value)).build();
   }
+
+  private static final class ResourceAttributes {
+    private final Resource resource;
+    private final Map<String, AttributeValue> attributes;
+
+    private ResourceAttributes(Resource resource, Map<String, AttributeValue> attributes) {
+      this.resource = resource;
+      this.attributes = attributes;
+    }
+  }
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.trace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.opentelemetry.api.common.AttributeKey;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class AttributeKeyMappingTest {
+
+  private final AttributeKeyMapping mapping =
+      AttributeKeyMapping.compile(
+          ImmutableMap.of("http.method", "/http/method", "http.request.header.host", "/http/host"),
+          ImmutableMap.of(
+              "http.request.header.",
+              "/http/header/",
+              "http.request.header.x-internal-",
+              "/internal/",
+              "db.",
+              ""),
+          ImmutableSet.of("http.request.header.cookie", "http.request.header.host"));
+
+  @Test
+  public void renamesExactKeys() {
+    assertEquals("/http/method", mapping.map(AttributeKey.stringKey("http.method")));
+  }
+
+  @Test
+  public void leavesUnmatchedKeysUnchanged() {
+    assertEquals("http.route", mapping.map(AttributeKey.stringKey("http.route")));
+    assertEquals("http.request", mapping.map(AttributeKey.stringKey("http.request")));
+  }
+
+  @Test
+  public void rewritesPrefixes() {
+    assertEquals(
+        "/http/header/accept", mapping.map(AttributeKey.stringKey("http.request.header.accept")));
+    assertEquals("statement", mapping.map(AttributeKey.stringKey("db.statement")));
+  }
+
+  @Test
+  public void dropsKeysWhateverTheirMappings() {
+    assertNull(mapping.map(AttributeKey.stringKey("http.request.header.cookie")));
+    assertNull(mapping.map(AttributeKey.stringKey("http.request.header.host")));
+  }
+
+  @Test
+  public void prefersExactKeysOverPrefixes() {
+    AttributeKeyMapping exactAndPrefix =
+        AttributeKeyMapping.compile(
+            ImmutableMap.of("db.name", "/db/name"),
+            ImmutableMap.of("db.", "/db/"),
+            ImmutableSet.of());
+
+    assertEquals("/db/name", exactAndPrefix.map(AttributeKey.stringKey("db.name")));
+    assertEquals("/db/system", exactAndPrefix.map(AttributeKey.stringKey("db.system")));
+  }
+
+  @Test
+  public void prefersLongestPrefix() {
+    assertEquals(
+        "/internal/id", mapping.map(AttributeKey.stringKey("http.request.header.x-internal-id")));
+    assertEquals(
+        "/http/header/x-internal",
+        mapping.map(AttributeKey.stringKey("http.request.header.x-internal")));
+  }
+
+  @Test
+  public void takesExactKeysAndTargetsLiterally() {
+    AttributeKeyMapping literal =
+        AttributeKeyMapping.compile(ImmutableMap.of("http.*", "/http/*", "http.flavor", ""));
+
+    assertEquals("/http/*", literal.map(AttributeKey.stringKey("http.*")));
+    assertEquals("", literal.map(AttributeKey.stringKey("http.flavor")));
+    assertEquals("http.method", literal.map(AttributeKey.stringKey("http.method")));
+  }
+
+  @Test
+  public void mapsNewKeyInstancesByName() {
+    for (int i = 0; i < 3; i++) {
+      assertEquals(
+          "/http/header/accept", mapping.map(AttributeKey.stringKey("http.request.header.accept")));
+      assertNull(mapping.map(AttributeKey.stringKey("http.request.header.cookie")));
+    }
+  }
+
+  @Test
+  public void emptyMapping() {
+    AttributeKeyMapping empty = AttributeKeyMapping.compile(ImmutableMap.of());
+
+    assertTrue(empty.isEmpty());
+    assertEquals("http.method", empty.map(AttributeKey.stringKey("http.method")));
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.trace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.base.Strings;
+import com.google.devtools.cloudtrace.v2.AttributeValue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class AttributeValueCacheTest {
+
+  private final AtomicInteger translations = new AtomicInteger();
+  private final Function<Object, AttributeValue> translation =
+      value -> {
+        translations.incrementAndGet();
+        return TraceTranslator.toStringAttributeValueProto(String.valueOf(value));
+      };
+
+  @Test
+  public void reusesTranslatedValues() {
+    AttributeValueCache cache = AttributeValueCache.create(10);
+
+    AttributeValue first = cache.get("GET", translation);
+    AttributeValue second = cache.get("GET", translation);
+
+    assertSame(first, second);
+    assertEquals(1, translations.get());
+    assertEquals(1, cache.getHits());
+    assertEquals(1, cache.getMisses());
+    assertEquals(0.5, cache.getHitRate(), 0);
+  }
+
+  @Test
+  public void keepsValuesOfDifferentTypesApart() {
+    AttributeValueCache cache = AttributeValueCache.create(10);
+
+    assertNotSame(cache.get(200L, translation), cache.get("200", translation));
+    assertNotSame(cache.get(1L, translation), cache.get(1.0, translation));
+    assertEquals(4, cache.getMisses());
+  }
+
+  @Test
+  public void doesNotCacheLongStrings() {
+    AttributeValueCache cache = AttributeValueCache.create(10);
+    String longValue = Strings.repeat("x", AttributeValueCache.MAX_CACHED_STRING_LENGTH + 1);
+
+    cache.get(longValue, translation);
+    cache.get(longValue, translation);
+
+    assertEquals(2, translations.get());
+    assertEquals(0, cache.size());
+    assertEquals(0, cache.getHits() + cache.getMisses());
+  }
+
+  @Test
+  public void evictsValuesWhenFull() {
+    AttributeValueCache cache = AttributeValueCache.create(2);
+
+    for (long i = 0; i < 10; i++) {
+      cache.get(i, translation);
+    }
+
+    assertEquals(2, cache.size());
+    assertEquals(8, cache.getEvictions());
+  }
+
+  @Test
+  public void disallowNonPositiveMaxEntries() {
+    assertThrows(IllegalArgumentException.class, () -> AttributeValueCache.create(0));
+  }
+}
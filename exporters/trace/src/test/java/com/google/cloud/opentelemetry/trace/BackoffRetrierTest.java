@@ -0,0 +1,139 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.trace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link BackoffRetrier} and {@link RetryBudget}. */
+@RunWith(JUnit4.class)
+public class BackoffRetrierTest {
+
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+  @After
+  public void tearDown() {
+    scheduler.shutdownNow();
+  }
+
+  @Test
+  public void retriesRetryableFailuresUntilSuccess() {
+    AtomicInteger calls = new AtomicInteger();
+    BackoffRetrier retrier = createRetrier(3, RetryBudget.create(0.1, 10));
+
+    CompletableResultCode result =
+        retrier.run(
+            () ->
+                calls.incrementAndGet() < 3
+                    ? failWith(Status.UNAVAILABLE)
+                    : CompletableResultCode.ofSuccess());
+
+    assertTrue(result.join(5, TimeUnit.SECONDS).isSuccess());
+    assertEquals(3, calls.get());
+  }
+
+  @Test
+  public void stopsAfterMaxRetries() {
+    AtomicInteger calls = new AtomicInteger();
+    BackoffRetrier retrier = createRetrier(2, RetryBudget.create(0.1, 10));
+
+    CompletableResultCode result =
+        retrier.run(
+            () -> {
+              calls.incrementAndGet();
+              return failWith(Status.DEADLINE_EXCEEDED);
+            });
+
+    assertFalse(result.join(5, TimeUnit.SECONDS).isSuccess());
+    assertEquals(3, calls.get());
+  }
+
+  @Test
+  public void doesNotRetryNonRetryableFailures() {
+    AtomicInteger calls = new AtomicInteger();
+    BackoffRetrier retrier = createRetrier(3, RetryBudget.create(0.1, 10));
+
+    CompletableResultCode result =
+        retrier.run(
+            () -> {
+              calls.incrementAndGet();
+              return failWith(Status.PERMISSION_DENIED);
+            });
+
+    assertFalse(result.join(5, TimeUnit.SECONDS).isSuccess());
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  public void retryBudgetCapsRetries() {
+    AtomicInteger calls = new AtomicInteger();
+    // One token saved up and no tokens earned per request.
+    BackoffRetrier retrier = createRetrier(5, RetryBudget.create(0, 1));
+
+    retrier
+        .run(
+            () -> {
+              calls.incrementAndGet();
+              return failWith(Status.UNAVAILABLE);
+            })
+        .join(5, TimeUnit.SECONDS);
+    assertEquals(2, calls.get());
+
+    retrier
+        .run(
+            () -> {
+              calls.incrementAndGet();
+              return failWith(Status.UNAVAILABLE);
+            })
+        .join(5, TimeUnit.SECONDS);
+    assertEquals(3, calls.get());
+  }
+
+  @Test
+  public void retryBudgetRefillsWithRequests() {
+    RetryBudget budget = RetryBudget.create(0.5, 1);
+    assertTrue(budget.tryAcquireRetry());
+    assertFalse(budget.tryAcquireRetry());
+
+    budget.recordRequest();
+    assertFalse(budget.tryAcquireRetry());
+    budget.recordRequest();
+    assertTrue(budget.tryAcquireRetry());
+  }
+
+  private BackoffRetrier createRetrier(int maxRetries, RetryBudget budget) {
+    return new BackoffRetrier(
+        maxRetries, Duration.ofMillis(1), Duration.ofMillis(10), budget, scheduler);
+  }
+
+  private static CompletableResultCode failWith(Status status) {
+    return CompletableResultCode.ofExceptionalFailure(new StatusRuntimeException(status));
+  }
+}
@@ -115,7 +115,7 @@ public class EndToEndTest {
     spanDataList.add(spanDataOne);
 
     // Invokes export();
-    assertTrue(exporter.export(spanDataList).isSuccess());
+    assertTrue(exporter.export(spanDataList).join(10, TimeUnit.SECONDS).isSuccess());
   }
 
   @Test
@@ -131,6 +131,6 @@ public class EndToEndTest {
     Collection<SpanData> spanDataList = new ArrayList<>();
 
     // Invokes export();
-    assertTrue(exporter.export(spanDataList).isSuccess());
+    assertTrue(exporter.export(spanDataList).join(10, TimeUnit.SECONDS).isSuccess());
   }
 }
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.trace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.devtools.cloudtrace.v2.Span;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link ExportWorker}. */
+@RunWith(JUnit4.class)
+public class ExportWorkerTest {
+
+  private final CountDownLatch sinkReleased = new CountDownLatch(1);
+  private final CountDownLatch sinkEntered = new CountDownLatch(1);
+
+  @Test
+  public void exportsBeyondTheQueueCapacityAreRejected() throws InterruptedException {
+    ExportWorker worker = createWorker(1);
+
+    CompletableResultCode running = worker.exportTranslated(spans(1));
+    assertTrue(sinkEntered.await(1, TimeUnit.SECONDS));
+    CompletableResultCode queued = worker.exportTranslated(spans(2));
+    CompletableResultCode rejected = worker.exportTranslated(spans(4));
+
+    assertTrue(rejected.isDone());
+    assertFalse(rejected.isSuccess());
+    // The spans of the queued export count as buffered, and the full queue as pressure.
+    assertEquals(2, worker.getBufferedSpans());
+    assertEquals(1.0, worker.getUtilization(), 0);
+
+    sinkReleased.countDown();
+    assertTrue(running.join(1, TimeUnit.SECONDS).isSuccess());
+    assertTrue(queued.join(1, TimeUnit.SECONDS).isSuccess());
+    assertEquals(0, worker.getBufferedSpans());
+  }
+
+  @Test
+  public void shutdownCompletesOnceQueuedExportsAreDone() throws InterruptedException {
+    ExportWorker worker = createWorker(1);
+
+    worker.exportTranslated(spans(1));
+    assertTrue(sinkEntered.await(1, TimeUnit.SECONDS));
+    CompletableResultCode queued = worker.exportTranslated(spans(1));
+    CompletableResultCode shutdown = worker.shutdown();
+
+    assertFalse(shutdown.isDone());
+    assertFalse(worker.exportTranslated(spans(1)).isSuccess());
+    sinkReleased.countDown();
+    assertTrue(shutdown.join(1, TimeUnit.SECONDS).isSuccess());
+    assertTrue(queued.isSuccess());
+  }
+
+  private ExportWorker createWorker(int maxQueuedExports) {
+    return new ExportWorker(
+        0,
+        "test-id",
+        new TraceTranslator(),
+        null,
+        null,
+        maxQueuedExports,
+        spans -> {
+          sinkEntered.countDown();
+          try {
+            sinkReleased.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableResultCode.ofFailure();
+          }
+          return CompletableResultCode.ofSuccess();
+        });
+  }
+
+  private static List<Span> spans(int count) {
+    return Collections.nCopies(count, Span.getDefaultInstance());
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.trace;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.SettableApiFuture;
+import com.google.devtools.cloudtrace.v2.ProjectName;
+import com.google.devtools.cloudtrace.v2.Span;
+import com.google.protobuf.Empty;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+// An in-memory CloudTraceClient whose RPCs are completed by the test, used ONLY for testing.
+class FakeCloudTraceClient implements CloudTraceClient {
+
+  private final List<List<Span>> requests = new CopyOnWriteArrayList<>();
+  private final List<SettableApiFuture<Empty>> pending = new CopyOnWriteArrayList<>();
+  private volatile boolean autoComplete = true;
+  private volatile boolean shutdown = false;
+  private volatile Predicate<List<Span>> rejectedRequests = spans -> false;
+  private volatile Throwable rejection;
+
+  /** Leaves RPCs outstanding until the test completes them via {@link #pending()}. */
+  FakeCloudTraceClient holdResponses() {
+    this.autoComplete = false;
+    return this;
+  }
+
+  /** Fails every request that matches the predicate with the given error. */
+  FakeCloudTraceClient rejectRequests(Predicate<List<Span>> predicate, Throwable error) {
+    this.rejectedRequests = predicate;
+    this.rejection = error;
+    return this;
+  }
+
+  @Override
+  public void batchWriteSpans(ProjectName name, List<Span> spans) {
+    requests.add(Collections.unmodifiableList(new ArrayList<>(spans)));
+    if (rejectedRequests.test(spans)) {
+      throw rejection instanceof RuntimeException
+          ? (RuntimeException) rejection
+          : new RuntimeException(rejection);
+    }
+  }
+
+  @Override
+  public ApiFuture<Empty> batchWriteSpansAsync(ProjectName name, List<Span> spans) {
+    requests.add(Collections.unmodifiableList(new ArrayList<>(spans)));
+    SettableApiFuture<Empty> future = SettableApiFuture.create();
+    if (rejectedRequests.test(spans)) {
+      future.setException(rejection);
+    } else if (autoComplete) {
+      future.set(Empty.getDefaultInstance());
+    } else {
+      pending.add(future);
+    }
+    return future;
+  }
+
+  @Override
+  public void shutdown() {
+    this.shutdown = true;
+  }
+
+  @Override
+  public boolean awaitTermination(long duration, TimeUnit unit) {
+    // Like a real client, terminated once no RPC is outstanding; the test completes them.
+    return pending.stream().allMatch(SettableApiFuture::isDone);
+  }
+
+  @Override
+  public void shutdownNow() {
+    this.shutdown = true;
+    for (SettableApiFuture<Empty> future : pending) {
+      future.cancel(true);
+    }
+  }
+
+  List<List<Span>> requests() {
+    return requests;
+  }
+
+  List<SettableApiFuture<Empty>> pending() {
+    return pending;
+  }
+
+  boolean isShutdown() {
+    return shutdown;
+  }
+}
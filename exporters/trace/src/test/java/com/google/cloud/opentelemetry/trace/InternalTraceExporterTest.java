@@ -0,0 +1,577 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.trace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.cloud.opentelemetry.exportsupport.CircuitBreaker;
+import com.google.cloud.opentelemetry.exportsupport.CircuitBreakerOpenException;
+import com.google.devtools.cloudtrace.v2.ProjectName;
+import com.google.devtools.cloudtrace.v2.Span;
+import com.google.devtools.cloudtrace.v2.SpanName;
+import com.google.protobuf.Empty;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanId;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceId;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.testing.trace.TestSpanData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.data.StatusData;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link InternalTraceExporter}. */
+@RunWith(JUnit4.class)
+public class InternalTraceExporterTest {
+
+  private static final String PROJECT_ID = "test-id";
+
+  @Rule public final TemporaryFolder spoolFolder = new TemporaryFolder();
+
+  private final FakeCloudTraceClient client = new FakeCloudTraceClient();
+
+  @Test
+  public void exportCompletesWhenRpcSucceeds() {
+    client.holdResponses();
+    InternalTraceExporter exporter = createExporter();
+
+    CompletableResultCode result = exporter.export(generateSpans(3));
+
+    // The RPC is still outstanding, so the result must not be complete yet.
+    assertFalse(result.isDone());
+    assertEquals(1, client.requests().size());
+    assertEquals(3, client.requests().get(0).size());
+
+    client.pending().get(0).set(Empty.getDefaultInstance());
+    assertTrue(result.join(1, TimeUnit.SECONDS).isSuccess());
+  }
+
+  @Test
+  public void exportFailsWhenRpcFails() {
+    client.holdResponses();
+    InternalTraceExporter exporter = createExporter();
+
+    CompletableResultCode result = exporter.export(generateSpans(1));
+    IllegalStateException failure = new IllegalStateException("backend unavailable");
+    client.pending().get(0).setException(failure);
+
+    assertTrue(result.isDone());
+    assertFalse(result.isSuccess());
+    assertEquals(failure, result.getFailureThrowable());
+  }
+
+  @Test
+  public void exportSplitsLargeBatchesIntoConcurrentRequests() {
+    client.holdResponses();
+    InternalTraceExporter exporter =
+        createExporter(
+            TraceConfiguration.builder().setProjectId(PROJECT_ID).setMaxSpansPerRequest(2));
+
+    CompletableResultCode result = exporter.export(generateSpans(5));
+
+    // All three requests are sent before any of them completes.
+    assertEquals(3, client.requests().size());
+    client.pending().get(0).set(Empty.getDefaultInstance());
+    client.pending().get(1).set(Empty.getDefaultInstance());
+    assertFalse(result.isDone());
+    client.pending().get(2).set(Empty.getDefaultInstance());
+    assertTrue(result.join(1, TimeUnit.SECONDS).isSuccess());
+  }
+
+  @Test
+  public void invalidSpanIsolationDropsOnlyInvalidSpans() {
+    String poisonSpanId = SpanId.fromLong(12345 + 5);
+    client.rejectRequests(
+        spans -> spans.stream().anyMatch(span -> span.getSpanId().equals(poisonSpanId)),
+        new StatusRuntimeException(Status.INVALID_ARGUMENT));
+    InternalTraceExporter exporter =
+        createExporter(
+            TraceConfiguration.builder()
+                .setProjectId(PROJECT_ID)
+                .setInvalidSpanIsolationEnabled(true));
+
+    CompletableResultCode result = exporter.export(generateSpans(8));
+
+    assertFalse(result.join(1, TimeUnit.SECONDS).isSuccess());
+    assertEquals(1, exporter.getDroppedInvalidSpans());
+    Set<String> written = new HashSet<>();
+    for (List<Span> request : client.requests()) {
+      if (request.stream().noneMatch(span -> span.getSpanId().equals(poisonSpanId))) {
+        request.forEach(span -> written.add(span.getSpanId()));
+      }
+    }
+    assertEquals(7, written.size());
+  }
+
+  @Test
+  public void invalidSpanIsolationIgnoresOtherErrors() {
+    client.rejectRequests(spans -> true, new StatusRuntimeException(Status.UNAVAILABLE));
+    InternalTraceExporter exporter =
+        createExporter(
+            TraceConfiguration.builder()
+                .setProjectId(PROJECT_ID)
+                .setInvalidSpanIsolationEnabled(true));
+
+    assertFalse(exporter.export(generateSpans(8)).join(1, TimeUnit.SECONDS).isSuccess());
+    assertEquals(1, client.requests().size());
+    assertEquals(0, exporter.getDroppedInvalidSpans());
+  }
+
+  @Test
+  public void exportFailsFastWhenTooManyRequestsInFlight() {
+    client.holdResponses();
+    InternalTraceExporter exporter =
+        createExporter(
+            TraceConfiguration.builder().setProjectId(PROJECT_ID).setMaxInFlightRequests(1));
+
+    CompletableResultCode first = exporter.export(generateSpans(2));
+    CompletableResultCode rejected = exporter.export(generateSpans(3));
+
+    assertTrue(rejected.isDone());
+    assertFalse(rejected.isSuccess());
+    assertTrue(rejected.getFailureThrowable() instanceof InFlightLimitExceededException);
+    assertEquals(1, client.requests().size());
+    assertEquals(3, exporter.getRejectedSpans());
+
+    // Capacity is returned once the outstanding request completes.
+    client.pending().get(0).set(Empty.getDefaultInstance());
+    assertTrue(first.isSuccess());
+    exporter.export(generateSpans(1));
+    assertEquals(2, client.requests().size());
+  }
+
+  @Test
+  public void exportFailsFastWhenTooManyBytesInFlight() {
+    client.holdResponses();
+    InternalTraceExporter exporter =
+        createExporter(
+            TraceConfiguration.builder().setProjectId(PROJECT_ID).setMaxInFlightBytes(1));
+
+    exporter.export(generateSpans(1));
+    CompletableResultCode rejected = exporter.export(generateSpans(1));
+
+    assertTrue(rejected.getFailureThrowable() instanceof InFlightLimitExceededException);
+    assertEquals(1, client.requests().size());
+  }
+
+  @Test
+  public void bufferingCoalescesExportsIntoFullRequests() {
+    InternalTraceExporter exporter =
+        createExporter(
+            TraceConfiguration.builder()
+                .setProjectId(PROJECT_ID)
+                .setBufferingEnabled(true)
+                .setMaxSpansPerRequest(4)
+                .setBufferFlushInterval(Duration.ofHours(1)));
+
+    for (int i = 0; i < 5; i++) {
+      assertTrue(exporter.export(generateSpans(2)).isSuccess());
+    }
+    assertTrue(exporter.flush().join(1, TimeUnit.SECONDS).isSuccess());
+
+    // 10 spans in batches of at most 4.
+    int exported = 0;
+    for (List<Span> request : client.requests()) {
+      assertTrue(request.size() <= 4);
+      exported += request.size();
+    }
+    assertEquals(10, exported);
+    assertEquals(3, client.requests().size());
+  }
+
+  @Test
+  public void offHeapBufferingCoalescesExportsIntoFullRequests() {
+    InternalTraceExporter exporter =
+        createExporter(
+            TraceConfiguration.builder()
+                .setProjectId(PROJECT_ID)
+                .setBufferingEnabled(true)
+                .setOffHeapBufferBytes(64 * 1024)
+                .setMaxSpansPerRequest(4)
+                .setBufferFlushInterval(Duration.ofHours(1)));
+    List<SpanData> spans = generateSpans(10);
+
+    for (int i = 0; i < 5; i++) {
+      assertTrue(exporter.export(spans.subList(2 * i, 2 * i + 2)).isSuccess());
+    }
+    assertTrue(exporter.flush().join(1, TimeUnit.SECONDS).isSuccess());
+
+    List<Span> exported = new ArrayList<>();
+    for (List<Span> request : client.requests()) {
+      assertTrue(request.size() <= 4);
+      exported.addAll(request);
+    }
+    // Every span comes back out of the off-heap buffer intact and in order.
+    assertEquals(10, exported.size());
+    for (int i = 0; i < exported.size(); i++) {
+      assertEquals("span-" + i, exported.get(i).getDisplayName().getValue());
+    }
+    assertEquals(3, client.requests().size());
+  }
+
+  @Test
+  public void bufferingDropsSpansWhenFull() {
+    client.holdResponses();
+    InternalTraceExporter exporter =
+        createExporter(
+            TraceConfiguration.builder()
+                .setProjectId(PROJECT_ID)
+                .setBufferingEnabled(true)
+                .setMaxBufferedSpans(2)
+                .setMaxSpansPerRequest(100)
+                .setBufferFlushInterval(Duration.ofHours(1)));
+
+    assertTrue(exporter.export(generateSpans(2)).isSuccess());
+    assertFalse(exporter.export(generateSpans(1)).isSuccess());
+  }
+
+  @Test
+  public void bufferingShutdownDrainsBeforeClosingClient() {
+    InternalTraceExporter exporter =
+        createExporter(
+            TraceConfiguration.builder()
+                .setProjectId(PROJECT_ID)
+                .setBufferingEnabled(true)
+                .setBufferFlushInterval(Duration.ofHours(1)));
+
+    exporter.export(generateSpans(3));
+    assertTrue(exporter.shutdown().join(1, TimeUnit.SECONDS).isSuccess());
+
+    assertEquals(1, client.requests().size());
+    assertEquals(3, client.requests().get(0).size());
+    assertTrue(client.isShutdown());
+  }
+
+  @Test
+  public void shutdownWaitsForRequestsInFlight() {
+    client.holdResponses();
+    InternalTraceExporter exporter = createExporter();
+
+    CompletableResultCode exported = exporter.export(generateSpans(3));
+    CompletableResultCode shutdown = exporter.shutdown();
+
+    assertFalse(exporter.export(generateSpans(1)).isSuccess());
+    assertFalse(shutdown.join(100, TimeUnit.MILLISECONDS).isDone());
+    client.pending().get(0).set(Empty.getDefaultInstance());
+    assertTrue(exported.join(1, TimeUnit.SECONDS).isSuccess());
+    assertTrue(shutdown.join(1, TimeUnit.SECONDS).isSuccess());
+    assertEquals(1, client.requests().size());
+    assertEquals(0, exporter.getSpansLostOnShutdown());
+  }
+
+  @Test
+  public void shutdownReportsSpansLostWhenTheTimeoutElapses() {
+    client.holdResponses();
+    InternalTraceExporter exporter =
+        createExporter(
+            TraceConfiguration.builder()
+                .setProjectId(PROJECT_ID)
+                .setShutdownTimeout(Duration.ofMillis(100)));
+
+    CompletableResultCode exported = exporter.export(generateSpans(3));
+    CompletableResultCode shutdown = exporter.shutdown();
+
+    assertTrue(shutdown.join(5, TimeUnit.SECONDS).isDone());
+    assertFalse(shutdown.isSuccess());
+    assertEquals(3, exporter.getSpansLostOnShutdown());
+    // The request still in flight was cancelled.
+    assertFalse(exported.join(1, TimeUnit.SECONDS).isSuccess());
+    assertTrue(client.isShutdown());
+  }
+
+  @Test
+  public void shardedExportKeepsTheSpansOfATraceTogether() {
+    InternalTraceExporter exporter =
+        createExporter(TraceConfiguration.builder().setProjectId(PROJECT_ID).setExportWorkers(4));
+    List<SpanData> spans = new ArrayList<>();
+    for (int i = 0; i < 12; i++) {
+      spans.add(
+          TestSpanData.builder()
+              .setSpanContext(
+                  SpanContext.create(
+                      TraceId.fromLongs(321, i % 3),
+                      SpanId.fromLong(12345 + i),
+                      TraceFlags.getDefault(),
+                      TraceState.getDefault()))
+              .setName("span-" + i)
+              .setKind(SpanKind.INTERNAL)
+              .setStatus(StatusData.ok())
+              .setStartEpochNanos(TimeUnit.SECONDS.toNanos(3000))
+              .setEndEpochNanos(TimeUnit.SECONDS.toNanos(3001))
+              .setHasEnded(true)
+              .build());
+    }
+
+    assertTrue(exporter.export(spans).join(1, TimeUnit.SECONDS).isSuccess());
+
+    // Every trace ends up in exactly one request.
+    Set<String> traces = new HashSet<>();
+    int exported = 0;
+    for (List<Span> request : client.requests()) {
+      Set<String> requestTraces = new HashSet<>();
+      for (Span span : request) {
+        requestTraces.add(SpanName.parse(span.getName()).getTrace());
+      }
+      for (String trace : requestTraces) {
+        assertTrue(traces.add(trace));
+      }
+      exported += request.size();
+    }
+    assertEquals(3, traces.size());
+    assertEquals(12, exported);
+    assertTrue(exporter.shutdown().join(1, TimeUnit.SECONDS).isSuccess());
+  }
+
+  @Test
+  public void shardedExportDividesTheInFlightLimitsBetweenWorkers() {
+    client.holdResponses();
+    InternalTraceExporter exporter =
+        createExporter(
+            TraceConfiguration.builder()
+                .setProjectId(PROJECT_ID)
+                .setExportWorkers(2)
+                .setMaxInFlightRequests(2));
+
+    exporter.export(generateSpans(1));
+    // The spans of a trace go to the same worker, whose share is a single request.
+    CompletableResultCode rejected = exporter.export(generateSpans(1)).join(1, TimeUnit.SECONDS);
+
+    assertTrue(rejected.isDone());
+    assertFalse(rejected.isSuccess());
+    assertEquals(1, client.requests().size());
+  }
+
+  @Test
+  public void warmUpSendsAnEmptyRequestPerChannel() {
+    InternalTraceExporter.warmUp(client, ProjectName.of(PROJECT_ID), 3, Duration.ofSeconds(1));
+
+    assertEquals(3, client.requests().size());
+    for (List<Span> request : client.requests()) {
+      assertTrue(request.isEmpty());
+    }
+  }
+
+  @Test
+  public void unavailableSpansAreSpooledAndReplayedAfterRestart() throws InterruptedException {
+    client.rejectRequests(spans -> true, new StatusRuntimeException(Status.UNAVAILABLE));
+    TraceConfiguration.Builder configuration =
+        TraceConfiguration.builder()
+            .setProjectId(PROJECT_ID)
+            .setSpoolDirectory(spoolFolder.getRoot().toPath());
+    InternalTraceExporter exporter = createExporter(configuration);
+
+    // Spans count as exported once they are on disk.
+    assertTrue(exporter.export(generateSpans(3)).join(1, TimeUnit.SECONDS).isSuccess());
+    assertTrue(exporter.shutdown().join(10, TimeUnit.SECONDS).isSuccess());
+
+    FakeCloudTraceClient recoveredClient = new FakeCloudTraceClient();
+    InternalTraceExporter restarted =
+        new InternalTraceExporter(PROJECT_ID, recoveredClient, configuration.build());
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (recoveredClient.requests().isEmpty() && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+
+    assertEquals(1, recoveredClient.requests().size());
+    assertEquals(3, recoveredClient.requests().get(0).size());
+    assertTrue(restarted.shutdown().join(10, TimeUnit.SECONDS).isSuccess());
+  }
+
+  @Test
+  public void spoolReplaySendsOneRequestAtATimeWithinTheRateLimit() throws InterruptedException {
+    client.rejectRequests(spans -> true, new StatusRuntimeException(Status.UNAVAILABLE));
+    TraceConfiguration.Builder configuration =
+        TraceConfiguration.builder()
+            .setProjectId(PROJECT_ID)
+            .setSpoolDirectory(spoolFolder.getRoot().toPath());
+    InternalTraceExporter exporter = createExporter(configuration);
+    for (int i = 0; i < 3; i++) {
+      assertTrue(exporter.export(generateSpans(1)).join(1, TimeUnit.SECONDS).isSuccess());
+    }
+    assertTrue(exporter.shutdown().join(10, TimeUnit.SECONDS).isSuccess());
+
+    FakeCloudTraceClient recoveredClient = new FakeCloudTraceClient().holdResponses();
+    InternalTraceExporter restarted =
+        new InternalTraceExporter(
+            PROJECT_ID, recoveredClient, configuration.setMaxRequestsPerSecond(2).build());
+    awaitRequests(recoveredClient, 1);
+
+    // The next spooled request waits for the first one to complete.
+    Thread.sleep(100);
+    assertEquals(1, recoveredClient.requests().size());
+    recoveredClient.pending().get(0).set(Empty.getDefaultInstance());
+    awaitRequests(recoveredClient, 2);
+    // The third request is left for a later replay, once the rate limit allows it.
+    recoveredClient.pending().get(1).set(Empty.getDefaultInstance());
+    Thread.sleep(100);
+    assertEquals(2, recoveredClient.requests().size());
+    assertTrue(restarted.shutdown().join(10, TimeUnit.SECONDS).isSuccess());
+  }
+
+  @Test
+  public void openCircuitBreakerFailsExportsWithoutSendingThem() {
+    client.rejectRequests(spans -> true, new StatusRuntimeException(Status.UNAVAILABLE));
+    CircuitBreaker circuitBreaker =
+        CircuitBreaker.builder()
+            .setWindowSize(2)
+            .setMinimumCalls(2)
+            .setOpenDuration(Duration.ofMinutes(1))
+            .build();
+    InternalTraceExporter exporter =
+        createExporter(
+            TraceConfiguration.builder()
+                .setProjectId(PROJECT_ID)
+                .setCircuitBreaker(circuitBreaker)
+                .setMaxRetryAttempts(3)
+                .setRetryBudget(RetryBudget.create(1, 10)));
+
+    // The first attempt and its retry trip the breaker, which then rejects the second retry.
+    assertFalse(exporter.export(generateSpans(1)).join(10, TimeUnit.SECONDS).isSuccess());
+    assertEquals(2, client.requests().size());
+    assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    CompletableResultCode result = exporter.export(generateSpans(1));
+
+    assertTrue(result.isDone());
+    assertFalse(result.isSuccess());
+    assertTrue(result.getFailureThrowable().getCause() instanceof CircuitBreakerOpenException);
+    assertEquals(2, client.requests().size());
+    // Rejected calls are not retried.
+    assertEquals(2, circuitBreaker.getRejectedCalls());
+  }
+
+  @Test
+  public void exportShedsSpansBeyondTheRateLimit() {
+    InternalTraceExporter exporter =
+        createExporter(
+            TraceConfiguration.builder().setProjectId(PROJECT_ID).setMaxSpansPerSecond(5));
+
+    assertTrue(exporter.export(generateSpans(5)).join(1, TimeUnit.SECONDS).isSuccess());
+    CompletableResultCode result = exporter.export(generateSpans(3));
+
+    assertTrue(result.isDone());
+    assertTrue(result.getFailureThrowable() instanceof RateLimitExceededException);
+    assertEquals(3, exporter.getShedSpans());
+    assertEquals(1, client.requests().size());
+  }
+
+  @Test
+  public void exportShedsLowValueSpansFirstUnderPressure() {
+    SpanSheddingPolicy sheddingPolicy = SpanSheddingPolicy.builder().build();
+    InternalTraceExporter exporter =
+        createExporter(
+            TraceConfiguration.builder()
+                .setProjectId(PROJECT_ID)
+                .setMaxSpansPerSecond(10)
+                .setSheddingPolicy(sheddingPolicy));
+
+    // Uses up 80% of the rate limit, enough to shed root spans but not errors.
+    assertTrue(exporter.export(generateSpans(8)).join(1, TimeUnit.SECONDS).isSuccess());
+    List<SpanData> spans = Arrays.asList(generateSpan(8, StatusData.error()), generateSpan(9));
+    assertTrue(exporter.export(spans).join(1, TimeUnit.SECONDS).isSuccess());
+
+    assertEquals(2, client.requests().size());
+    assertEquals(1, client.requests().get(1).size());
+    assertEquals(1, sheddingPolicy.getShedSpans(SpanSheddingPolicy.SpanClass.LOCAL_ROOT));
+    assertEquals(0, sheddingPolicy.getShedSpans(SpanSheddingPolicy.SpanClass.ERROR));
+    assertEquals(1, exporter.getShedSpans());
+  }
+
+  @Test
+  public void exportSendsNothingWhenEverySpanIsShed() {
+    SpanSheddingPolicy sheddingPolicy = SpanSheddingPolicy.builder().build();
+    InternalTraceExporter exporter =
+        createExporter(
+            TraceConfiguration.builder()
+                .setProjectId(PROJECT_ID)
+                .setMaxSpansPerSecond(10)
+                .setMaxInFlightRequests(1)
+                .setSheddingPolicy(sheddingPolicy));
+
+    assertTrue(exporter.export(generateSpans(8)).join(1, TimeUnit.SECONDS).isSuccess());
+    CompletableResultCode result = exporter.export(Arrays.asList(generateSpan(9)));
+
+    assertTrue(result.isDone());
+    assertTrue(result.isSuccess());
+    assertEquals(1, sheddingPolicy.getShedSpans(SpanSheddingPolicy.SpanClass.LOCAL_ROOT));
+    assertEquals(1, client.requests().size());
+    assertEquals(1, exporter.getShedSpans());
+    assertEquals(0, exporter.getRejectedSpans());
+  }
+
+  private static void awaitRequests(FakeCloudTraceClient client, int count)
+      throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (client.requests().size() < count && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(count, client.requests().size());
+  }
+
+  private InternalTraceExporter createExporter() {
+    return createExporter(TraceConfiguration.builder().setProjectId(PROJECT_ID));
+  }
+
+  private InternalTraceExporter createExporter(TraceConfiguration.Builder configuration) {
+    return new InternalTraceExporter(PROJECT_ID, client, configuration.build());
+  }
+
+  static List<SpanData> generateSpans(int count) {
+    List<SpanData> spans = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      spans.add(generateSpan(i));
+    }
+    return spans;
+  }
+
+  static SpanData generateSpan(int i) {
+    return generateSpan(i, StatusData.ok());
+  }
+
+  static SpanData generateSpan(int i, StatusData status) {
+    String traceId = TraceId.fromLongs(321, 123 + i);
+    return TestSpanData.builder()
+        .setSpanContext(
+            SpanContext.create(
+                traceId,
+                SpanId.fromLong(12345 + i),
+                TraceFlags.getDefault(),
+                TraceState.getDefault()))
+        .setName("span-" + i)
+        .setKind(SpanKind.INTERNAL)
+        .setStatus(status)
+        .setStartEpochNanos(TimeUnit.SECONDS.toNanos(3000))
+        .setEndEpochNanos(TimeUnit.SECONDS.toNanos(3001))
+        .setHasEnded(true)
+        .build();
+  }
+}
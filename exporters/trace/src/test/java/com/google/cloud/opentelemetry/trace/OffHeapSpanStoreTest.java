@@ -0,0 +1,125 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.trace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.base.Strings;
+import com.google.devtools.cloudtrace.v2.Span;
+import com.google.devtools.cloudtrace.v2.TruncatableString;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link OffHeapSpanStore}. */
+@RunWith(JUnit4.class)
+public class OffHeapSpanStoreTest {
+
+  @Test
+  public void drainsSpansInTheOrderTheyWereQueued() {
+    OffHeapSpanStore store = new OffHeapSpanStore(1024 * 1024);
+    List<Span> spans = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      Span span = span(i, 100);
+      spans.add(span);
+      assertTrue(store.offer(span));
+    }
+
+    List<Span> drained = new ArrayList<>();
+    store.drainTo(drained, 30);
+    assertEquals(70, store.size());
+    store.drainTo(drained, 100);
+
+    assertEquals(spans, drained);
+    assertEquals(0, store.size());
+    assertEquals(0, store.getUtilization(), 0);
+  }
+
+  @Test
+  public void rejectsSpansBeyondTheByteCap() {
+    OffHeapSpanStore store = new OffHeapSpanStore(4096);
+    int queued = 0;
+    while (store.offer(span(queued, 500))) {
+      queued++;
+    }
+
+    assertTrue(queued > 0);
+    assertTrue(store.getUtilization() > 0.8);
+    assertFalse(store.offer(span(queued, 8192)));
+
+    // Draining makes room again.
+    List<Span> drained = new ArrayList<>();
+    store.drainTo(drained, queued);
+    assertEquals(queued, drained.size());
+    assertTrue(store.offer(span(queued, 500)));
+  }
+
+  @Test
+  public void spansLargerThanASlabDoNotFit() {
+    OffHeapSpanStore store = new OffHeapSpanStore(4L * OffHeapSpanStore.MAX_SLAB_BYTES);
+    Span oversized = span(0, OffHeapSpanStore.MAX_SLAB_BYTES);
+
+    assertTrue(store.fits(span(1, 500)));
+    assertFalse(store.fits(oversized));
+    assertFalse(store.offer(oversized));
+    assertEquals(0, store.size());
+  }
+
+  @Test
+  public void utilizationAccountsForSlabSpaceThatCannotBeAllocated() {
+    OffHeapSpanStore store = new OffHeapSpanStore(2L * OffHeapSpanStore.MAX_SLAB_BYTES);
+    int displayNameLength = OffHeapSpanStore.MAX_SLAB_BYTES * 6 / 10;
+
+    // Each span takes a slab of its own, since a second one does not fit in the first's tail.
+    assertTrue(store.offer(span(0, displayNameLength)));
+    assertTrue(store.offer(span(1, displayNameLength)));
+    assertFalse(store.offer(span(2, displayNameLength)));
+
+    // The spans take 60% of the capacity, but only the tail of the last slab is allocatable.
+    assertTrue(store.getUtilization() > 0.75);
+  }
+
+  @Test
+  public void reusesSlabsOnceTheyAreDrained() {
+    OffHeapSpanStore store = new OffHeapSpanStore(2L * OffHeapSpanStore.MAX_SLAB_BYTES);
+    List<Span> expected = new ArrayList<>();
+    List<Span> drained = new ArrayList<>();
+    // Several laps over both slabs, with the reader always a few spans behind the writer.
+    for (int i = 0; i < 1000; i++) {
+      Span span = span(i, 10_000);
+      assertTrue(store.offer(span));
+      expected.add(span);
+      if (store.size() > 50) {
+        store.drainTo(drained, 10);
+      }
+    }
+    store.drainTo(drained, Integer.MAX_VALUE);
+
+    assertEquals(expected, drained);
+  }
+
+  private static Span span(int index, int displayNameLength) {
+    return Span.newBuilder()
+        .setName("projects/test-id/traces/00000000000000000000000000000001/spans/" + index)
+        .setDisplayName(
+            TruncatableString.newBuilder().setValue(Strings.repeat("x", displayNameLength)))
+        .build();
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.trace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.devtools.cloudtrace.v2.AttributeValue;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.testing.trace.TestSpanData;
+import io.opentelemetry.sdk.trace.data.EventData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.data.StatusData;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class OtlpTraceExporterTest {
+
+  private static final String PROJECT_ID = "test-project";
+  private static final Resource RESOURCE =
+      Resource.create(
+          Attributes.builder()
+              .put("service.name", "my-service")
+              .put("service.namespace", "qa")
+              .put("service.instance.id", "23")
+              .build());
+
+  private final InMemorySpanExporter spans = InMemorySpanExporter.create();
+
+  @Test
+  public void mapsAttributeKeysAndKeepsTheirTypes() {
+    OtlpTraceExporter exporter =
+        new OtlpTraceExporter(
+            spans,
+            PROJECT_ID,
+            AttributeKeyMapping.compile(ImmutableMap.of("http.status_code", "/http/status_code")),
+            Collections.emptyMap());
+    SpanData span =
+        createSpan(
+            Attributes.builder()
+                .put("http.status_code", 200L)
+                .put("latency", 1.5)
+                .put(AttributeKey.stringArrayKey("tags"), Arrays.asList("a", "b"))
+                .build());
+
+    exporter.export(Collections.singletonList(span));
+
+    SpanData exported = spans.getFinishedSpanItems().get(0);
+    assertEquals(
+        Long.valueOf(200), exported.getAttributes().get(AttributeKey.longKey("/http/status_code")));
+    assertNull(exported.getAttributes().get(AttributeKey.longKey("http.status_code")));
+    assertEquals(
+        Double.valueOf(1.5), exported.getAttributes().get(AttributeKey.doubleKey("latency")));
+    assertEquals(
+        Arrays.asList("a", "b"), exported.getAttributes().get(AttributeKey.stringArrayKey("tags")));
+    EventData event = exported.getEvents().get(0);
+    assertEquals("GET", event.getAttributes().get(AttributeKey.stringKey("/http/status_code")));
+  }
+
+  @Test
+  public void addsFixedAttributes() {
+    OtlpTraceExporter exporter =
+        new OtlpTraceExporter(
+            spans,
+            PROJECT_ID,
+            AttributeKeyMapping.compile(ImmutableMap.of()),
+            ImmutableMap.of(
+                "fixed-string",
+                TraceTranslator.toStringAttributeValueProto("value"),
+                "fixed-int",
+                AttributeValue.newBuilder().setIntValue(7).build()));
+
+    exporter.export(Collections.singletonList(createSpan(Attributes.empty())));
+
+    Attributes attributes = spans.getFinishedSpanItems().get(0).getAttributes();
+    assertEquals("value", attributes.get(AttributeKey.stringKey("fixed-string")));
+    assertEquals(Long.valueOf(7), attributes.get(AttributeKey.longKey("fixed-int")));
+  }
+
+  @Test
+  public void addsProjectAndMonitoredResourceLabelsToResource() {
+    OtlpTraceExporter exporter =
+        new OtlpTraceExporter(
+            spans,
+            PROJECT_ID,
+            AttributeKeyMapping.compile(ImmutableMap.of()),
+            Collections.emptyMap());
+
+    exporter.export(Collections.singletonList(createSpan(Attributes.empty())));
+
+    Attributes resource = spans.getFinishedSpanItems().get(0).getResource().getAttributes();
+    assertEquals(PROJECT_ID, resource.get(AttributeKey.stringKey("gcp.project_id")));
+    assertEquals("my-service", resource.get(AttributeKey.stringKey("g.co/r/generic_task/job")));
+    assertEquals("my-service", resource.get(AttributeKey.stringKey("service.name")));
+  }
+
+  @Test
+  public void mapsEachResourceOnce() {
+    OtlpTraceExporter exporter =
+        new OtlpTraceExporter(
+            spans,
+            PROJECT_ID,
+            AttributeKeyMapping.compile(ImmutableMap.of()),
+            Collections.emptyMap());
+
+    exporter.export(Arrays.asList(createSpan(Attributes.empty()), createSpan(Attributes.empty())));
+
+    List<SpanData> exported = spans.getFinishedSpanItems();
+    assertSame(exported.get(0).getResource(), exported.get(1).getResource());
+    assertSame(exporter.mapResource(RESOURCE), exported.get(0).getResource());
+  }
+
+  private static SpanData createSpan(Attributes attributes) {
+    return TestSpanData.builder()
+        .setName("test-span")
+        .setSpanContext(
+            SpanContext.create(
+                "00000000000000000000000000000001",
+                "0000000000000002",
+                TraceFlags.getSampled(),
+                TraceState.getDefault()))
+        .setStartEpochNanos(1L)
+        .setEndEpochNanos(2L)
+        .setHasEnded(true)
+        .setStatus(StatusData.ok())
+        .setKind(SpanKind.SERVER)
+        .setAttributes(attributes)
+        .setEvents(
+            Collections.singletonList(
+                EventData.create(
+                    1L, "event", Attributes.of(AttributeKey.stringKey("http.status_code"), "GET"))))
+        .setTotalRecordedEvents(1)
+        .setResource(RESOURCE)
+        .build();
+  }
+}
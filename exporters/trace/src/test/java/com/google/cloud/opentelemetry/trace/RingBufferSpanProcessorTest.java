@@ -0,0 +1,197 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.trace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link RingBufferSpanProcessor}. */
+@RunWith(JUnit4.class)
+public class RingBufferSpanProcessorTest {
+
+  private final RecordingSpanExporter exporter = new RecordingSpanExporter();
+  private SdkTracerProvider tracerProvider;
+
+  @After
+  public void tearDown() {
+    if (tracerProvider != null) {
+      tracerProvider.shutdown().join(1, TimeUnit.SECONDS);
+    }
+  }
+
+  @Test
+  public void flushExportsEndedSpans() {
+    Tracer tracer =
+        createTracer(
+            RingBufferSpanProcessor.builder(exporter).setScheduleDelay(Duration.ofHours(1)));
+
+    endSpans(tracer, 10);
+
+    assertTrue(tracerProvider.forceFlush().join(1, TimeUnit.SECONDS).isSuccess());
+    assertEquals(10, exporter.spans.size());
+    assertTrue(exporter.flushed);
+  }
+
+  @Test
+  public void fullBatchIsExportedWithoutWaitingForTheScheduleDelay() throws InterruptedException {
+    Tracer tracer =
+        createTracer(
+            RingBufferSpanProcessor.builder(exporter)
+                .setMaxExportBatchSize(4)
+                .setScheduleDelay(Duration.ofHours(1)));
+
+    endSpans(tracer, 4);
+
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (exporter.spans.size() < 4 && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(4, exporter.spans.size());
+  }
+
+  @Test
+  public void spansEndedWhileTheBufferIsFullAreDropped() throws InterruptedException {
+    exporter.release = new CountDownLatch(1);
+    RingBufferSpanProcessor processor =
+        RingBufferSpanProcessor.builder(exporter)
+            .setCapacity(4)
+            .setMaxExportBatchSize(4)
+            .setScheduleDelay(Duration.ofHours(1))
+            .build();
+    Tracer tracer = createTracer(processor);
+
+    // The first batch holds up the exporter, the second fills the buffer.
+    endSpans(tracer, 4);
+    assertTrue(exporter.exporting.await(5, TimeUnit.SECONDS));
+    endSpans(tracer, 6);
+
+    assertEquals(2, processor.getDroppedSpans());
+    exporter.release.countDown();
+    assertTrue(processor.forceFlush().join(5, TimeUnit.SECONDS).isSuccess());
+    assertEquals(8, exporter.spans.size());
+  }
+
+  @Test
+  public void shutdownExportsRemainingSpansAndShutsDownTheExporter() {
+    RingBufferSpanProcessor processor =
+        RingBufferSpanProcessor.builder(exporter).setScheduleDelay(Duration.ofHours(1)).build();
+    Tracer tracer = createTracer(processor);
+
+    endSpans(tracer, 3);
+
+    assertTrue(processor.shutdown().join(5, TimeUnit.SECONDS).isSuccess());
+    assertEquals(3, exporter.spans.size());
+    assertTrue(exporter.shutdown);
+    assertFalse(processor.forceFlush().isSuccess());
+  }
+
+  @Test
+  public void failedExportsAreCounted() {
+    exporter.failExports = true;
+    RingBufferSpanProcessor processor =
+        RingBufferSpanProcessor.builder(exporter).setScheduleDelay(Duration.ofHours(1)).build();
+    Tracer tracer = createTracer(processor);
+
+    endSpans(tracer, 5);
+
+    assertTrue(processor.forceFlush().join(5, TimeUnit.SECONDS).isSuccess());
+    assertEquals(5, processor.getFailedSpans());
+  }
+
+  @Test
+  public void capacityMustBeAPowerOfTwo() {
+    RingBufferSpanProcessor.Builder builder =
+        RingBufferSpanProcessor.builder(exporter).setCapacity(1000);
+
+    assertThrows(IllegalArgumentException.class, builder::build);
+  }
+
+  @Test
+  public void translatingOnEndRequiresATraceExporter() {
+    RingBufferSpanProcessor.Builder builder =
+        RingBufferSpanProcessor.builder(exporter).setTranslateOnEnd(true);
+
+    assertThrows(IllegalArgumentException.class, builder::build);
+  }
+
+  private Tracer createTracer(RingBufferSpanProcessor.Builder processor) {
+    return createTracer(processor.build());
+  }
+
+  private Tracer createTracer(RingBufferSpanProcessor processor) {
+    tracerProvider = SdkTracerProvider.builder().addSpanProcessor(processor).build();
+    return tracerProvider.get("test");
+  }
+
+  private static void endSpans(Tracer tracer, int count) {
+    for (int i = 0; i < count; i++) {
+      tracer.spanBuilder("span-" + i).startSpan().end();
+    }
+  }
+
+  private static final class RecordingSpanExporter implements SpanExporter {
+    final List<SpanData> spans = new CopyOnWriteArrayList<>();
+    final CountDownLatch exporting = new CountDownLatch(1);
+    volatile CountDownLatch release;
+    volatile boolean failExports;
+    volatile boolean flushed;
+    volatile boolean shutdown;
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> batch) {
+      spans.addAll(batch);
+      exporting.countDown();
+      if (release != null) {
+        try {
+          release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      return failExports ? CompletableResultCode.ofFailure() : CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+      flushed = true;
+      return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+      shutdown = true;
+      return CompletableResultCode.ofSuccess();
+    }
+  }
+}
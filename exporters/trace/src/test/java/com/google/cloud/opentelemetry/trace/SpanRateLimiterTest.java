@@ -0,0 +1,108 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.trace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link SpanRateLimiter}. */
+@RunWith(JUnit4.class)
+public class SpanRateLimiterTest {
+
+  private long now = 0;
+
+  @Test
+  public void shedsSpansBeyondTheRate() {
+    SpanRateLimiter limiter = new SpanRateLimiter(100, 0, () -> now);
+
+    assertTrue(limiter.tryAcquire(1, 60));
+    assertTrue(limiter.tryAcquire(1, 40));
+    assertFalse(limiter.tryAcquire(1, 1));
+
+    now += TimeUnit.MILLISECONDS.toNanos(500);
+    assertTrue(limiter.tryAcquire(1, 50));
+    assertFalse(limiter.tryAcquire(1, 1));
+  }
+
+  @Test
+  public void shedsRequestsBeyondTheRate() {
+    SpanRateLimiter limiter = new SpanRateLimiter(0, 2, () -> now);
+
+    assertTrue(limiter.tryAcquire(1, 1000));
+    assertTrue(limiter.tryAcquire(1, 1000));
+    assertFalse(limiter.tryAcquire(1, 1));
+  }
+
+  @Test
+  public void admitsBatchLargerThanBucketOnceFull() {
+    SpanRateLimiter limiter = new SpanRateLimiter(100, 0, () -> now);
+
+    assertTrue(limiter.tryAcquire(1, 300));
+    // The excess is paid off before any further spans are admitted.
+    now += TimeUnit.SECONDS.toNanos(2);
+    assertFalse(limiter.tryAcquire(1, 1));
+    now += TimeUnit.SECONDS.toNanos(2);
+    assertTrue(limiter.tryAcquire(1, 100));
+  }
+
+  @Test
+  public void resourceExhaustedShrinksRateUntilRequestsSucceed() {
+    SpanRateLimiter limiter = new SpanRateLimiter(100, 0, () -> now);
+
+    limiter.onResourceExhausted();
+    // Failures within the same second count once.
+    limiter.onResourceExhausted();
+    assertEquals(0.5, limiter.getRateFactor(), 1e-9);
+    assertTrue(limiter.tryAcquire(1, 50));
+    assertFalse(limiter.tryAcquire(1, 1));
+
+    now += TimeUnit.SECONDS.toNanos(1);
+    for (int i = 0; i < 10; i++) {
+      limiter.onResourceExhausted();
+      now += TimeUnit.SECONDS.toNanos(1);
+    }
+    assertEquals(SpanRateLimiter.MIN_RATE_FACTOR, limiter.getRateFactor(), 1e-9);
+
+    for (int i = 0; i < 30; i++) {
+      now += TimeUnit.SECONDS.toNanos(1);
+      limiter.onSuccess();
+    }
+    assertEquals(1, limiter.getRateFactor(), 1e-9);
+  }
+
+  @Test
+  public void recoveryDependsOnElapsedTimeNotOnRequestCount() {
+    SpanRateLimiter limiter = new SpanRateLimiter(100, 0, () -> now);
+
+    limiter.onResourceExhausted();
+    // Hundreds of requests succeeding within 100ms barely restore the rate.
+    for (int i = 0; i < 500; i++) {
+      now += TimeUnit.MICROSECONDS.toNanos(200);
+      limiter.onSuccess();
+    }
+    assertEquals(0.5 + 0.1 * SpanRateLimiter.RECOVERY_PER_SECOND, limiter.getRateFactor(), 1e-9);
+
+    now += TimeUnit.SECONDS.toNanos(2);
+    limiter.onSuccess();
+    assertEquals(0.5 + 2.1 * SpanRateLimiter.RECOVERY_PER_SECOND, limiter.getRateFactor(), 1e-9);
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.trace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.cloud.opentelemetry.trace.SpanRequestSplitter.SpanRequest;
+import com.google.devtools.cloudtrace.v2.AttributeValue;
+import com.google.devtools.cloudtrace.v2.BatchWriteSpansRequest;
+import com.google.devtools.cloudtrace.v2.ProjectName;
+import com.google.devtools.cloudtrace.v2.Span;
+import com.google.devtools.cloudtrace.v2.TruncatableString;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link SpanRequestSplitter}. */
+@RunWith(JUnit4.class)
+public class SpanRequestSplitterTest {
+
+  private static final ProjectName PROJECT_NAME = ProjectName.of("test-id");
+
+  @Test
+  public void keepsSmallBatchInOneRequest() {
+    SpanRequestSplitter splitter = new SpanRequestSplitter(PROJECT_NAME, 10, 1024 * 1024);
+    List<Span> spans = generateSpans(5, 100);
+
+    List<SpanRequest> requests = splitter.split(spans);
+
+    assertEquals(1, requests.size());
+    assertEquals(spans, requests.get(0).getSpans());
+  }
+
+  @Test
+  public void returnsNoRequestForNoSpans() {
+    SpanRequestSplitter splitter = new SpanRequestSplitter(PROJECT_NAME, 10, 1024 * 1024);
+
+    assertTrue(splitter.split(Collections.emptyList()).isEmpty());
+  }
+
+  @Test
+  public void reportsTheSizeOfEachRequest() {
+    SpanRequestSplitter splitter = new SpanRequestSplitter(PROJECT_NAME, 2, 1024 * 1024);
+
+    for (List<Span> spans : Arrays.asList(generateSpans(1, 100), generateSpans(5, 100))) {
+      for (SpanRequest request : splitter.split(spans)) {
+        BatchWriteSpansRequest serialized =
+            BatchWriteSpansRequest.newBuilder().addAllSpans(request.getSpans()).build();
+        assertEquals(serialized.getSerializedSize(), request.getSpanBytes());
+      }
+    }
+  }
+
+  @Test
+  public void splitsBySpanCount() {
+    SpanRequestSplitter splitter = new SpanRequestSplitter(PROJECT_NAME, 2, 1024 * 1024);
+
+    List<SpanRequest> requests = splitter.split(generateSpans(5, 100));
+
+    assertEquals(3, requests.size());
+    assertEquals(2, requests.get(0).getSpans().size());
+    assertEquals(2, requests.get(1).getSpans().size());
+    assertEquals(1, requests.get(2).getSpans().size());
+  }
+
+  @Test
+  public void splitsBySerializedSize() {
+    int maxRequestBytes = 4096;
+    SpanRequestSplitter splitter = new SpanRequestSplitter(PROJECT_NAME, 1000, maxRequestBytes);
+    List<Span> spans = generateSpans(20, 1000);
+
+    List<SpanRequest> requests = splitter.split(spans);
+
+    assertTrue(requests.size() > 1);
+    int total = 0;
+    for (SpanRequest request : requests) {
+      BatchWriteSpansRequest serialized =
+          BatchWriteSpansRequest.newBuilder()
+              .setName(PROJECT_NAME.toString())
+              .addAllSpans(request.getSpans())
+              .build();
+      assertTrue(serialized.getSerializedSize() <= maxRequestBytes);
+      total += request.getSpans().size();
+    }
+    assertEquals(spans.size(), total);
+  }
+
+  @Test
+  public void sendsOversizedSpanAlone() {
+    SpanRequestSplitter splitter = new SpanRequestSplitter(PROJECT_NAME, 1000, 512);
+
+    List<SpanRequest> requests = splitter.split(generateSpans(3, 2048));
+
+    assertEquals(3, requests.size());
+    for (SpanRequest request : requests) {
+      assertEquals(1, request.getSpans().size());
+    }
+  }
+
+  private static List<Span> generateSpans(int count, int attributeLength) {
+    StringBuilder value = new StringBuilder();
+    for (int i = 0; i < attributeLength; i++) {
+      value.append('x');
+    }
+    List<Span> spans = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      spans.add(
+          Span.newBuilder()
+              .setSpanId(String.format("%016x", i))
+              .setAttributes(
+                  Span.Attributes.newBuilder()
+                      .putAttributeMap(
+                          "payload",
+                          AttributeValue.newBuilder()
+                              .setStringValue(
+                                  TruncatableString.newBuilder().setValue(value.toString()))
+                              .build()))
+              .build());
+    }
+    return spans;
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.trace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import com.google.cloud.opentelemetry.trace.SpanSheddingPolicy.SpanClass;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanId;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceId;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.sdk.testing.trace.TestSpanData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.data.StatusData;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link SpanSheddingPolicy}. */
+@RunWith(JUnit4.class)
+public class SpanSheddingPolicyTest {
+
+  private static final String TRACE_ID = TraceId.fromLongs(321, 123);
+  private static final AttributeKey<String> TENANT = AttributeKey.stringKey("tenant");
+
+  private final SpanSheddingPolicy policy =
+      SpanSheddingPolicy.builder()
+          .setImportantAttributes(attributes -> "premium".equals(attributes.get(TENANT)))
+          .build();
+
+  @Test
+  public void classifiesSpansByValue() {
+    assertEquals(
+        SpanClass.ERROR,
+        policy.classify(span(true, StatusData.error(), Attributes.empty(), 1), 1));
+    assertEquals(
+        SpanClass.SLOW, policy.classify(span(true, StatusData.ok(), Attributes.empty(), 1), 1));
+    assertEquals(
+        SpanClass.IMPORTANT,
+        policy.classify(
+            span(true, StatusData.ok(), Attributes.of(TENANT, "premium"), 1), Long.MAX_VALUE));
+    assertEquals(
+        SpanClass.LOCAL_ROOT,
+        policy.classify(span(false, StatusData.ok(), Attributes.empty(), 1), Long.MAX_VALUE));
+    assertEquals(
+        SpanClass.ROUTINE,
+        policy.classify(span(true, StatusData.ok(), Attributes.empty(), 1), Long.MAX_VALUE));
+  }
+
+  @Test
+  public void keepsEverySpanWithoutPressure() {
+    List<SpanData> spans = Arrays.asList(routineSpan(), routineSpan());
+
+    assertSame(spans, policy.shed(spans, 0.4));
+    assertEquals(0, policy.getShedSpans(SpanClass.ROUTINE));
+  }
+
+  @Test
+  public void shedsLowValueClassesFirst() {
+    List<SpanData> spans =
+        Arrays.asList(
+            span(true, StatusData.error(), Attributes.empty(), 1),
+            span(true, StatusData.ok(), Attributes.of(TENANT, "premium"), 1),
+            span(false, StatusData.ok(), Attributes.empty(), 1),
+            routineSpan());
+
+    assertEquals(3, policy.shed(spans, 0.5).size());
+    assertEquals(2, policy.shed(spans, 0.7).size());
+    assertEquals(1, policy.shed(spans, 0.9).size());
+    assertEquals(1, policy.shed(spans, 5).size());
+
+    assertEquals(4, policy.getShedSpans(SpanClass.ROUTINE));
+    assertEquals(3, policy.getShedSpans(SpanClass.LOCAL_ROOT));
+    assertEquals(2, policy.getShedSpans(SpanClass.IMPORTANT));
+    assertEquals(0, policy.getShedSpans(SpanClass.ERROR));
+  }
+
+  @Test
+  public void identifiesSlowSpansFromRecentDurations() {
+    List<SpanData> spans = new ArrayList<>();
+    for (int i = 0; i < SpanSheddingPolicy.MIN_DURATION_SAMPLES; i++) {
+      spans.add(routineSpan());
+    }
+    policy.shed(spans, 0);
+
+    SpanData slowSpan =
+        span(true, StatusData.ok(), Attributes.empty(), TimeUnit.SECONDS.toNanos(10));
+    Collection<SpanData> kept = policy.shed(Arrays.asList(routineSpan(), slowSpan), 0.9);
+
+    assertEquals(1, kept.size());
+    assertSame(slowSpan, kept.iterator().next());
+    assertEquals(1, policy.getShedSpans(SpanClass.ROUTINE));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsPercentileOutOfRange() {
+    SpanSheddingPolicy.builder().setSlowSpanPercentile(1).build();
+  }
+
+  private static SpanData routineSpan() {
+    return span(true, StatusData.ok(), Attributes.empty(), TimeUnit.MILLISECONDS.toNanos(5));
+  }
+
+  private static SpanData span(
+      boolean hasLocalParent, StatusData status, Attributes attributes, long durationNanos) {
+    SpanContext parent =
+        hasLocalParent
+            ? SpanContext.create(
+                TRACE_ID, SpanId.fromLong(1), TraceFlags.getDefault(), TraceState.getDefault())
+            : SpanContext.getInvalid();
+    return TestSpanData.builder()
+        .setSpanContext(
+            SpanContext.create(
+                TRACE_ID, SpanId.fromLong(2), TraceFlags.getDefault(), TraceState.getDefault()))
+        .setParentSpanContext(parent)
+        .setName("span")
+        .setKind(SpanKind.INTERNAL)
+        .setStatus(status)
+        .setAttributes(attributes)
+        .setTotalAttributeCount(attributes.size())
+        .setStartEpochNanos(TimeUnit.SECONDS.toNanos(3000))
+        .setEndEpochNanos(TimeUnit.SECONDS.toNanos(3000) + durationNanos)
+        .setHasEnded(true)
+        .build();
+  }
+}
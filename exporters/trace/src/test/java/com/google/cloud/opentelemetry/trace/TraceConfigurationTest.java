@@ -16,6 +16,7 @@
 package com.google.cloud.opentelemetry.trace;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThrows;
@@ -25,6 +26,8 @@ import com.google.auth.Credentials;
 import com.google.auth.oauth2.AccessToken;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.cloud.ServiceOptions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.devtools.cloudtrace.v2.AttributeValue;
 import java.time.Duration;
 import java.util.Collections;
@@ -55,7 +58,39 @@ public class TraceConfigurationTest {
     assertNotNull(configuration.getProjectId());
     assertNull(configuration.getTraceServiceStub());
     assertTrue(configuration.getFixedAttributes().isEmpty());
+    assertTrue(configuration.getAttributePrefixMapping().isEmpty());
+    assertTrue(configuration.getDroppedAttributes().isEmpty());
     assertEquals(TraceConfiguration.DEFAULT_DEADLINE, configuration.getDeadline());
+    assertFalse(configuration.getBufferingEnabled());
+    assertEquals(
+        TraceConfiguration.DEFAULT_MAX_BUFFERED_SPANS, configuration.getMaxBufferedSpans());
+    assertEquals(
+        TraceConfiguration.DEFAULT_MAX_SPANS_PER_REQUEST, configuration.getMaxSpansPerRequest());
+    assertEquals(TraceConfiguration.DEFAULT_MAX_REQUEST_BYTES, configuration.getMaxRequestBytes());
+    assertFalse(configuration.getInvalidSpanIsolationEnabled());
+    assertEquals(0, configuration.getMaxRetryAttempts());
+    assertEquals(
+        TraceConfiguration.DEFAULT_INITIAL_RETRY_DELAY, configuration.getInitialRetryDelay());
+    assertEquals(TraceConfiguration.DEFAULT_MAX_RETRY_DELAY, configuration.getMaxRetryDelay());
+    assertEquals(RetryBudget.getDefault(), configuration.getRetryBudget());
+    assertEquals(0, configuration.getMaxInFlightRequests());
+    assertEquals(0, configuration.getMaxInFlightBytes());
+    assertEquals(1, configuration.getChannelPoolSize());
+    assertEquals(1, configuration.getExportWorkers());
+    assertEquals(0, configuration.getOffHeapBufferBytes());
+    assertNull(configuration.getSpoolDirectory());
+    assertEquals(TraceConfiguration.DEFAULT_SPOOL_MAX_BYTES, configuration.getSpoolMaxBytes());
+    assertNull(configuration.getCircuitBreaker());
+    assertNull(configuration.getSheddingPolicy());
+    assertNull(configuration.getAttributeValueCache());
+    assertFalse(configuration.getEagerInitialization());
+    assertEquals(TraceConfiguration.DEFAULT_SHUTDOWN_TIMEOUT, configuration.getShutdownTimeout());
+    assertNull(configuration.getOtlpEndpoint());
+    assertFalse(configuration.getUseHttpJsonTransport());
+    assertEquals(0, configuration.getMaxSpansPerSecond(), 0);
+    assertEquals(0, configuration.getMaxRequestsPerSecond(), 0);
+    assertEquals(
+        TraceConfiguration.DEFAULT_BUFFER_FLUSH_INTERVAL, configuration.getBufferFlushInterval());
   }
 
   @Test
@@ -109,6 +144,24 @@ public class TraceConfigurationTest {
     assertThrows(NullPointerException.class, () -> builder.setFixedAttributes(null));
   }
 
+  @Test
+  public void keepsPrefixMappingsAndDroppedAttributesApartFromTheAttributeMapping() {
+    TraceConfiguration configuration =
+        TraceConfiguration.builder()
+            .setProjectId(PROJECT_ID)
+            .addAttributeMapping("http.*.method", "")
+            .addAttributePrefixMapping("http.request.header.", "/http/header/")
+            .dropAttribute("http.request.header.cookie")
+            .build();
+
+    assertEquals("", configuration.getAttributeMapping().get("http.*.method"));
+    assertEquals(
+        ImmutableMap.of("http.request.header.", "/http/header/"),
+        configuration.getAttributePrefixMapping());
+    assertEquals(
+        ImmutableSet.of("http.request.header.cookie"), configuration.getDroppedAttributes());
+  }
+
   @Test
   public void disallowNullFixedAttributeKey() {
     TraceConfiguration.Builder builder = TraceConfiguration.builder().setProjectId("test");
@@ -148,6 +201,99 @@ public class TraceConfigurationTest {
     assertThrows(IllegalArgumentException.class, builder::build);
   }
 
+  @Test
+  public void disallowNonPositiveBufferSettings() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> TraceConfiguration.builder().setProjectId("test").setMaxBufferedSpans(0).build());
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> TraceConfiguration.builder().setProjectId("test").setMaxSpansPerRequest(0).build());
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> TraceConfiguration.builder().setProjectId("test").setMaxRequestBytes(0).build());
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            TraceConfiguration.builder()
+                .setProjectId("test")
+                .setBufferFlushInterval(NEG_ONE_MINUTE)
+                .build());
+  }
+
+  @Test
+  public void disallowInvalidRetrySettings() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> TraceConfiguration.builder().setProjectId("test").setMaxRetryAttempts(-1).build());
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            TraceConfiguration.builder()
+                .setProjectId("test")
+                .setInitialRetryDelay(ONE_MINUTE)
+                .setMaxRetryDelay(Duration.ofSeconds(1))
+                .build());
+  }
+
+  @Test
+  public void disallowNonPositiveChannelPoolSize() {
+    TraceConfiguration.Builder builder =
+        TraceConfiguration.builder().setProjectId("test").setChannelPoolSize(0);
+
+    assertThrows(IllegalArgumentException.class, builder::build);
+  }
+
+  @Test
+  public void disallowNegativeOffHeapBufferBytes() {
+    TraceConfiguration.Builder builder =
+        TraceConfiguration.builder().setProjectId("test").setOffHeapBufferBytes(-1);
+
+    assertThrows(IllegalArgumentException.class, builder::build);
+  }
+
+  @Test
+  public void disallowNonPositiveExportWorkers() {
+    TraceConfiguration.Builder builder =
+        TraceConfiguration.builder().setProjectId("test").setExportWorkers(0);
+
+    assertThrows(IllegalArgumentException.class, builder::build);
+  }
+
+  @Test
+  public void disallowNonPositiveShutdownTimeout() {
+    TraceConfiguration.Builder builder =
+        TraceConfiguration.builder().setProjectId("test").setShutdownTimeout(Duration.ZERO);
+
+    assertThrows(IllegalArgumentException.class, builder::build);
+  }
+
+  @Test
+  public void disallowOtlpEndpointWithoutScheme() {
+    TraceConfiguration.Builder builder =
+        TraceConfiguration.builder().setProjectId("test").setOtlpEndpoint("localhost:4317");
+
+    assertThrows(IllegalArgumentException.class, builder::build);
+  }
+
+  @Test
+  public void disallowNegativeRateLimits() {
+    assertThrows(
+        IllegalArgumentException.class,
+        TraceConfiguration.builder().setProjectId("test").setMaxSpansPerSecond(-1)::build);
+    assertThrows(
+        IllegalArgumentException.class,
+        TraceConfiguration.builder().setProjectId("test").setMaxRequestsPerSecond(-1)::build);
+  }
+
+  @Test
+  public void disallowNonPositiveSpoolMaxBytes() {
+    TraceConfiguration.Builder builder =
+        TraceConfiguration.builder().setProjectId("test").setSpoolMaxBytes(0);
+
+    assertThrows(IllegalArgumentException.class, builder::build);
+  }
+
   @Test
   public void verifyCallToDefaultProjectIdIsMemoize() {
     try (MockedStatic<ServiceOptions> serviceOptionsMockedStatic =
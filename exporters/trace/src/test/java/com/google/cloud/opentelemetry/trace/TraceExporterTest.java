@@ -16,14 +16,21 @@
 package com.google.cloud.opentelemetry.trace;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
 
+import com.google.api.core.ApiFutures;
+import com.google.api.gax.grpc.InstantiatingGrpcChannelProvider;
+import com.google.api.gax.rpc.UnaryCallable;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.cloud.ServiceOptions;
 import com.google.cloud.trace.v2.TraceServiceClient;
 import com.google.cloud.trace.v2.TraceServiceSettings;
 import com.google.cloud.trace.v2.stub.TraceServiceStub;
-import com.google.devtools.cloudtrace.v2.ProjectName;
+import com.google.devtools.cloudtrace.v2.BatchWriteSpansRequest;
+import com.google.protobuf.Empty;
 import io.opentelemetry.api.GlobalOpenTelemetry;
 import io.opentelemetry.sdk.OpenTelemetrySdk;
 import io.opentelemetry.sdk.common.CompletableResultCode;
@@ -33,9 +40,11 @@ import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
 import io.opentelemetry.sdk.trace.export.SpanExporter;
 import java.io.IOException;
 import java.util.Collections;
+import java.util.concurrent.TimeUnit;
 import org.junit.After;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
@@ -47,6 +56,7 @@ public class TraceExporterTest {
   private static final String PROJECT_ID = "test-id";
   @Mock private TraceServiceClient mockedTraceServiceClient;
   @Mock private TraceServiceStub mockedTraceServiceStub;
+  @Mock private UnaryCallable<BatchWriteSpansRequest, Empty> mockedBatchWriteSpansCallable;
 
   @After
   public void tearDown() {
@@ -61,6 +71,7 @@ public class TraceExporterTest {
       mockedTraceServiceClient
           .when(() -> TraceServiceClient.create(Mockito.eq(mockedTraceServiceStub)))
           .thenReturn(this.mockedTraceServiceClient);
+      stubBatchWriteSpansCallable();
 
       TraceConfiguration configuration =
           TraceConfiguration.builder()
@@ -74,8 +85,8 @@ public class TraceExporterTest {
 
       mockedTraceServiceClient.verify(
           () -> TraceServiceClient.create(Mockito.eq(mockedTraceServiceStub)));
-      Mockito.verify(this.mockedTraceServiceClient)
-          .batchWriteSpans((ProjectName) Mockito.any(), Mockito.anyList());
+      Mockito.verify(this.mockedBatchWriteSpansCallable)
+          .futureCall(Mockito.any(BatchWriteSpansRequest.class));
     }
   }
 
@@ -94,6 +105,7 @@ public class TraceExporterTest {
       mockedTraceServiceClient
           .when(() -> TraceServiceClient.create(Mockito.any(TraceServiceSettings.class)))
           .thenReturn(this.mockedTraceServiceClient);
+      stubBatchWriteSpansCallable();
 
       SpanExporter exporter = TraceExporter.createWithDefaultConfiguration();
       assertNotNull(exporter);
@@ -103,8 +115,63 @@ public class TraceExporterTest {
       mockedTraceServiceClient.verify(
           () -> TraceServiceClient.create((TraceServiceSettings) Mockito.any()), Mockito.times(1));
       mockedServiceOptions.verify(ServiceOptions::getDefaultProjectId, Mockito.times(1));
-      Mockito.verify(this.mockedTraceServiceClient)
-          .batchWriteSpans((ProjectName) Mockito.any(), Mockito.anyList());
+      Mockito.verify(this.mockedBatchWriteSpansCallable)
+          .futureCall(Mockito.any(BatchWriteSpansRequest.class));
+    }
+  }
+
+  @Test
+  public void verifyChannelPoolSizeIsApplied() throws IOException {
+    try (MockedStatic<TraceServiceClient> mockedTraceServiceClient =
+        Mockito.mockStatic(TraceServiceClient.class)) {
+      mockedTraceServiceClient
+          .when(() -> TraceServiceClient.create(Mockito.any(TraceServiceSettings.class)))
+          .thenReturn(this.mockedTraceServiceClient);
+
+      InternalTraceExporter.createWithConfiguration(
+          TraceConfiguration.builder()
+              .setProjectId(PROJECT_ID)
+              .setCredentials(Mockito.mock(GoogleCredentials.class))
+              .setChannelPoolSize(4)
+              .build());
+
+      ArgumentCaptor<TraceServiceSettings> settings =
+          ArgumentCaptor.forClass(TraceServiceSettings.class);
+      mockedTraceServiceClient.verify(() -> TraceServiceClient.create(settings.capture()));
+      InstantiatingGrpcChannelProvider channelProvider =
+          (InstantiatingGrpcChannelProvider) settings.getValue().getTransportChannelProvider();
+      assertEquals(4, channelProvider.getChannelPoolSettings().getInitialChannelCount());
+    }
+  }
+
+  @Test
+  public void verifyRingBufferProcessorExportsSpansTranslatedOnEnd() {
+    try (MockedStatic<TraceServiceClient> mockedTraceServiceClient =
+        Mockito.mockStatic(TraceServiceClient.class)) {
+      mockedTraceServiceClient
+          .when(() -> TraceServiceClient.create(Mockito.eq(mockedTraceServiceStub)))
+          .thenReturn(this.mockedTraceServiceClient);
+      stubBatchWriteSpansCallable();
+
+      SpanExporter exporter =
+          TraceExporter.createWithConfiguration(
+              TraceConfiguration.builder()
+                  .setTraceServiceStub(mockedTraceServiceStub)
+                  .setProjectId(PROJECT_ID)
+                  .build());
+      RingBufferSpanProcessor processor =
+          RingBufferSpanProcessor.builder(exporter).setTranslateOnEnd(true).build();
+      SdkTracerProvider tracerProvider =
+          SdkTracerProvider.builder().addSpanProcessor(processor).build();
+      tracerProvider.get("test").spanBuilder("translated").startSpan().end();
+
+      assertTrue(processor.forceFlush().join(5, TimeUnit.SECONDS).isSuccess());
+      ArgumentCaptor<BatchWriteSpansRequest> request =
+          ArgumentCaptor.forClass(BatchWriteSpansRequest.class);
+      Mockito.verify(this.mockedBatchWriteSpansCallable).futureCall(request.capture());
+      assertEquals(1, request.getValue().getSpansCount());
+      assertEquals("translated", request.getValue().getSpans(0).getDisplayName().getValue());
+      tracerProvider.shutdown().join(5, TimeUnit.SECONDS);
     }
   }
 
@@ -129,6 +196,69 @@ public class TraceExporterTest {
     }
   }
 
+  @Test
+  public void verifyEagerInitializationCompletesReadiness() {
+    SpanExporter exporter =
+        TraceExporter.createWithConfiguration(
+            TraceConfiguration.builder()
+                .setTraceServiceStub(mockedTraceServiceStub)
+                .setProjectId(PROJECT_ID)
+                .setEagerInitialization(true)
+                .build());
+
+    assertTrue(TraceExporter.readinessOf(exporter).join(5, TimeUnit.SECONDS).isSuccess());
+  }
+
+  @Test
+  public void verifyReadinessFailsWhenExporterCreationFails() {
+    try (MockedStatic<InternalTraceExporter> mockedInternalTraceExporter =
+        Mockito.mockStatic(InternalTraceExporter.class)) {
+      mockedInternalTraceExporter
+          .when(() -> InternalTraceExporter.createWithConfiguration(Mockito.any()))
+          .thenThrow(IOException.class);
+
+      SpanExporter exporter = TraceExporter.createWithDefaultConfiguration();
+      assertFalse(TraceExporter.readinessOf(exporter).isDone());
+
+      exporter.flush();
+      assertTrue(TraceExporter.readinessOf(exporter).isDone());
+      assertFalse(TraceExporter.readinessOf(exporter).isSuccess());
+    }
+  }
+
+  @Test
+  public void verifyReadinessFailsWhenExporterCreationThrows() {
+    try (MockedStatic<InternalTraceExporter> mockedInternalTraceExporter =
+        Mockito.mockStatic(InternalTraceExporter.class)) {
+      IllegalArgumentException failure = new IllegalArgumentException("bad configuration");
+      mockedInternalTraceExporter
+          .when(() -> InternalTraceExporter.createWithConfiguration(Mockito.any()))
+          .thenThrow(failure);
+
+      SpanExporter exporter = TraceExporter.createWithDefaultConfiguration();
+      assertThrows(IllegalArgumentException.class, exporter::flush);
+
+      CompletableResultCode readiness = TraceExporter.readinessOf(exporter);
+      assertTrue(readiness.join(5, TimeUnit.SECONDS).isDone());
+      assertFalse(readiness.isSuccess());
+      assertEquals(failure, readiness.getFailureThrowable());
+    }
+  }
+
+  @Test
+  public void verifyReadinessOfRejectsOtherExporters() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> TraceExporter.readinessOf(Mockito.mock(SpanExporter.class)));
+  }
+
+  private void stubBatchWriteSpansCallable() {
+    Mockito.when(this.mockedTraceServiceClient.batchWriteSpansCallable())
+        .thenReturn(this.mockedBatchWriteSpansCallable);
+    Mockito.when(this.mockedBatchWriteSpansCallable.futureCall(Mockito.any()))
+        .thenReturn(ApiFutures.immediateFuture(Empty.getDefaultInstance()));
+  }
+
   private void generateOpenTelemetryUsingTraceExporter(SpanExporter traceExporter) {
     SdkTracerProvider tracerProvider =
         SdkTracerProvider.builder()
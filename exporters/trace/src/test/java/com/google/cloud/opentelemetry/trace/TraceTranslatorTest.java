@@ -16,9 +16,14 @@
 package com.google.cloud.opentelemetry.trace;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.devtools.cloudtrace.v2.AttributeValue;
 import com.google.devtools.cloudtrace.v2.Span;
 import com.google.devtools.cloudtrace.v2.TruncatableString;
@@ -31,6 +36,7 @@ import io.opentelemetry.api.trace.SpanKind;
 import io.opentelemetry.api.trace.StatusCode;
 import io.opentelemetry.api.trace.TraceFlags;
 import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.sdk.common.InstrumentationScopeInfo;
 import io.opentelemetry.sdk.resources.Resource;
 import io.opentelemetry.sdk.testing.trace.TestSpanData;
 import io.opentelemetry.sdk.trace.data.EventData;
@@ -99,6 +105,106 @@ public class TraceTranslatorTest {
         resourceAttributes.get("g.co/r/generic_task/location").getStringValue().getValue());
   }
 
+  @Test
+  public void testResourceAttributesAreComputedOncePerResource() {
+    TraceTranslator withFixedAttributes =
+        new TraceTranslator(
+            ImmutableMap.of(),
+            Collections.singletonMap(
+                "fixed", TraceTranslator.toStringAttributeValueProto("attribute")));
+    Resource resource =
+        Resource.create(
+            Attributes.builder()
+                .put(ServiceAttributes.SERVICE_NAME, "a")
+                .put(ServiceIncubatingAttributes.SERVICE_INSTANCE_ID, "1")
+                .build());
+    Resource otherResource =
+        Resource.create(
+            Attributes.builder()
+                .put(ServiceAttributes.SERVICE_NAME, "b")
+                .put(ServiceIncubatingAttributes.SERVICE_INSTANCE_ID, "1")
+                .build());
+
+    Map<String, AttributeValue> attributes = withFixedAttributes.getResourceAttributes(resource);
+
+    assertEquals("attribute", attributes.get("fixed").getStringValue().getValue());
+    assertEquals("a", attributes.get("g.co/r/generic_task/job").getStringValue().getValue());
+    assertTrue(attributes.containsKey("g.co/agent"));
+    assertSame(attributes, withFixedAttributes.getResourceAttributes(resource));
+    Map<String, AttributeValue> otherAttributes =
+        withFixedAttributes.getResourceAttributes(otherResource);
+    assertNotSame(attributes, otherAttributes);
+    assertEquals("b", otherAttributes.get("g.co/r/generic_task/job").getStringValue().getValue());
+  }
+
+  @Test
+  public void testScopeAttributesAreCachedPerScope() {
+    InstrumentationScopeInfo scope =
+        InstrumentationScopeInfo.builder("my-library").setVersion("1.0").build();
+
+    Map<String, AttributeValue> attributes = translator.getScopeAttributes(scope);
+
+    assertEquals("my-library", attributes.get("otel.scope.name").getStringValue().getValue());
+    assertEquals("1.0", attributes.get("otel.scope.version").getStringValue().getValue());
+    assertSame(
+        attributes,
+        translator.getScopeAttributes(
+            InstrumentationScopeInfo.builder("my-library").setVersion("1.0").build()));
+    assertFalse(
+        translator
+            .getScopeAttributes(InstrumentationScopeInfo.create("other-library"))
+            .containsKey("otel.scope.version"));
+  }
+
+  @Test
+  public void testAttributeKeyRewriting() {
+    TraceTranslator rewriting =
+        new TraceTranslator(
+            AttributeKeyMapping.compile(
+                ImmutableMap.of(),
+                ImmutableMap.of("http.request.header.", "/http/header/"),
+                ImmutableSet.of("http.request.header.cookie")),
+            Collections.emptyMap(),
+            null);
+    Attributes attributes =
+        Attributes.builder()
+            .put("http.request.header.accept", "text/html")
+            .put("http.request.header.cookie", "secret")
+            .put("http.route", "/users")
+            .build();
+
+    Map<String, AttributeValue> attributeMap =
+        rewriting.toAttributesProto(attributes, Collections.emptyMap()).getAttributeMapMap();
+
+    assertEquals(2, attributeMap.size());
+    assertEquals("text/html", attributeMap.get("/http/header/accept").getStringValue().getValue());
+    assertEquals("/users", attributeMap.get("http.route").getStringValue().getValue());
+  }
+
+  @Test
+  public void testAttributeValuesAreSharedThroughTheCache() {
+    AttributeValueCache cache = AttributeValueCache.create(100);
+    TraceTranslator withCache =
+        new TraceTranslator(
+            AttributeKeyMapping.compile(ImmutableMap.of()), Collections.emptyMap(), cache);
+    Attributes attributes =
+        Attributes.builder()
+            .put("method", "GET")
+            .put("other.method", "GET")
+            .put("count", 1L)
+            .build();
+
+    Span.Attributes first = withCache.toAttributesProto(attributes, Collections.emptyMap());
+    Span.Attributes second = withCache.toAttributesProto(attributes, Collections.emptyMap());
+
+    assertEquals(translator.toAttributesProto(attributes, Collections.emptyMap()), first);
+    assertSame(first.getAttributeMapMap().get("method"), second.getAttributeMapMap().get("method"));
+    assertSame(
+        first.getAttributeMapMap().get("method"), first.getAttributeMapMap().get("other.method"));
+    assertEquals(2, cache.getMisses());
+    assertEquals(4, cache.getHits());
+  }
+
   @Test
   public void testNullTruncatableStringProto() {
     assertThrows(NullPointerException.class, () -> TraceTranslator.toTruncatableStringProto(null));
@@ -0,0 +1,352 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.exportsupport;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * A circuit breaker that stops calls to a backend that is failing or responding slowly, so that
+ * callers fail fast instead of each waiting out a full deadline.
+ *
+ * <p>The breaker records the outcome of the most recent calls in a sliding window. While {@link
+ * State#CLOSED}, calls are permitted. Once the window holds enough calls and the share of failed
+ * or slow calls reaches its threshold, the breaker trips to {@link State#OPEN} and rejects calls
+ * for the open duration. It then moves to {@link State#HALF_OPEN} and lets a few probe calls
+ * through: if all of them succeed the breaker closes again, otherwise it reopens.
+ *
+ * <p>A breaker should guard a single backend; do not share one instance between exporters. This
+ * class is thread safe.
+ */
+public final class CircuitBreaker {
+
+  /** The states of a {@link CircuitBreaker}. */
+  public enum State {
+    /** Calls are permitted and their outcomes recorded. */
+    CLOSED,
+    /** Calls are rejected until the open duration has elapsed. */
+    OPEN,
+    /** A limited number of probe calls are permitted to test whether the backend recovered. */
+    HALF_OPEN
+  }
+
+  private final int windowSize;
+  private final int minimumCalls;
+  private final double failureRateThreshold;
+  private final double slowCallRateThreshold;
+  private final long slowCallNanos;
+  private final long openNanos;
+  private final int probeCalls;
+  private final LongSupplier nanoTime;
+
+  // Outcomes of the last windowSize calls while closed, as a ring buffer.
+  private final boolean[] failedCalls;
+  private final boolean[] slowCalls;
+  private int recordedCalls;
+  private int nextSlot;
+  private int failedCount;
+  private int slowCount;
+
+  private State state = State.CLOSED;
+  private long openedAtNanos;
+  private int permittedProbes;
+  private int successfulProbes;
+  private long rejectedCalls;
+
+  private CircuitBreaker(Builder builder, LongSupplier nanoTime) {
+    this.windowSize = builder.windowSize;
+    this.minimumCalls = builder.minimumCalls;
+    this.failureRateThreshold = builder.failureRateThreshold;
+    this.slowCallRateThreshold = builder.slowCallRateThreshold;
+    this.slowCallNanos = builder.slowCallDuration.toNanos();
+    this.openNanos = builder.openDuration.toNanos();
+    this.probeCalls = builder.probeCalls;
+    this.nanoTime = nanoTime;
+    this.failedCalls = new boolean[windowSize];
+    this.slowCalls = new boolean[windowSize];
+  }
+
+  /**
+   * Returns a new {@link Builder} with the default settings.
+   *
+   * @return a {@code Builder}.
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Returns whether a call may be made now. Every permitted call must be followed by a call to
+   * {@link #onSuccess(long)} or {@link #onFailure(long)}.
+   *
+   * @return {@code true} if the call is permitted, {@code false} if it should fail fast.
+   */
+  public synchronized boolean tryAcquirePermission() {
+    if (state == State.OPEN) {
+      if (nanoTime.getAsLong() - openedAtNanos < openNanos) {
+        rejectedCalls++;
+        return false;
+      }
+      state = State.HALF_OPEN;
+      permittedProbes = 0;
+      successfulProbes = 0;
+    }
+    if (state == State.HALF_OPEN) {
+      if (permittedProbes >= probeCalls) {
+        rejectedCalls++;
+        return false;
+      }
+      permittedProbes++;
+    }
+    return true;
+  }
+
+  /**
+   * Records a call that completed without a backend failure.
+   *
+   * @param durationNanos how long the call took.
+   */
+  public synchronized void onSuccess(long durationNanos) {
+    record(false, durationNanos >= slowCallNanos);
+  }
+
+  /**
+   * Records a call that failed because of the backend, e.g. because it was unavailable or timed
+   * out.
+   *
+   * @param durationNanos how long the call took.
+   */
+  public synchronized void onFailure(long durationNanos) {
+    record(true, durationNanos >= slowCallNanos);
+  }
+
+  /**
+   * Returns the current state of the breaker.
+   *
+   * @return the current {@link State}.
+   */
+  public synchronized State getState() {
+    if (state == State.OPEN && nanoTime.getAsLong() - openedAtNanos >= openNanos) {
+      // Report the transition even if no call has been attempted since.
+      return State.HALF_OPEN;
+    }
+    return state;
+  }
+
+  /**
+   * Returns the share of failed calls in the current window, or 0 if no calls were recorded.
+   *
+   * @return the failure rate, between 0 and 1.
+   */
+  public synchronized double getFailureRate() {
+    return recordedCalls == 0 ? 0 : (double) failedCount / recordedCalls;
+  }
+
+  /**
+   * Returns the share of slow calls in the current window, or 0 if no calls were recorded.
+   *
+   * @return the slow call rate, between 0 and 1.
+   */
+  public synchronized double getSlowCallRate() {
+    return recordedCalls == 0 ? 0 : (double) slowCount / recordedCalls;
+  }
+
+  /**
+   * Returns the total number of calls rejected because the breaker was open or had no probes
+   * left.
+   *
+   * @return the number of rejected calls.
+   */
+  public synchronized long getRejectedCalls() {
+    return rejectedCalls;
+  }
+
+  private void record(boolean failed, boolean slow) {
+    switch (state) {
+      case OPEN:
+        // The call started before the breaker tripped.
+        return;
+      case HALF_OPEN:
+        if (failed || slow) {
+          trip();
+        } else if (++successfulProbes >= probeCalls) {
+          state = State.CLOSED;
+          resetWindow();
+        }
+        return;
+      case CLOSED:
+        if (recordedCalls == windowSize) {
+          failedCount -= failedCalls[nextSlot] ? 1 : 0;
+          slowCount -= slowCalls[nextSlot] ? 1 : 0;
+        } else {
+          recordedCalls++;
+        }
+        failedCalls[nextSlot] = failed;
+        slowCalls[nextSlot] = slow;
+        failedCount += failed ? 1 : 0;
+        slowCount += slow ? 1 : 0;
+        nextSlot = (nextSlot + 1) % windowSize;
+        if (recordedCalls >= minimumCalls
+            && (getFailureRate() >= failureRateThreshold
+                || getSlowCallRate() >= slowCallRateThreshold)) {
+          trip();
+        }
+        return;
+    }
+  }
+
+  private void trip() {
+    state = State.OPEN;
+    openedAtNanos = nanoTime.getAsLong();
+    resetWindow();
+  }
+
+  private void resetWindow() {
+    recordedCalls = 0;
+    nextSlot = 0;
+    failedCount = 0;
+    slowCount = 0;
+  }
+
+  /** Builder for {@link CircuitBreaker}. */
+  public static final class Builder {
+    private int windowSize = 20;
+    private int minimumCalls = 10;
+    private double failureRateThreshold = 0.5;
+    private double slowCallRateThreshold = 1.0;
+    private Duration slowCallDuration = Duration.ofSeconds(5);
+    private Duration openDuration = Duration.ofSeconds(30);
+    private int probeCalls = 3;
+
+    private Builder() {}
+
+    /**
+     * Sets the number of most recent calls used to compute the failure and slow call rates.
+     * Defaults to 20.
+     *
+     * @param windowSize the window size, must be positive.
+     * @return this.
+     */
+    public Builder setWindowSize(int windowSize) {
+      this.windowSize = windowSize;
+      return this;
+    }
+
+    /**
+     * Sets the number of calls the window must hold before the breaker can trip. Defaults to 10.
+     *
+     * @param minimumCalls the minimum number of calls, between 1 and the window size.
+     * @return this.
+     */
+    public Builder setMinimumCalls(int minimumCalls) {
+      this.minimumCalls = minimumCalls;
+      return this;
+    }
+
+    /**
+     * Sets the share of failed calls at which the breaker trips. Defaults to 0.5.
+     *
+     * @param failureRateThreshold the threshold, greater than 0 and at most 1.
+     * @return this.
+     */
+    public Builder setFailureRateThreshold(double failureRateThreshold) {
+      this.failureRateThreshold = failureRateThreshold;
+      return this;
+    }
+
+    /**
+     * Sets the share of slow calls at which the breaker trips. Defaults to 1, so the breaker only
+     * trips on latency when every call in the window was slow.
+     *
+     * @param slowCallRateThreshold the threshold, greater than 0 and at most 1.
+     * @return this.
+     */
+    public Builder setSlowCallRateThreshold(double slowCallRateThreshold) {
+      this.slowCallRateThreshold = slowCallRateThreshold;
+      return this;
+    }
+
+    /**
+     * Sets how long a call may take before it counts as slow. Defaults to 5 seconds.
+     *
+     * @param slowCallDuration the slow call duration, must be positive.
+     * @return this.
+     */
+    public Builder setSlowCallDuration(Duration slowCallDuration) {
+      this.slowCallDuration = slowCallDuration;
+      return this;
+    }
+
+    /**
+     * Sets how long the breaker rejects calls after tripping. Defaults to 30 seconds.
+     *
+     * @param openDuration the open duration, must be positive.
+     * @return this.
+     */
+    public Builder setOpenDuration(Duration openDuration) {
+      this.openDuration = openDuration;
+      return this;
+    }
+
+    /**
+     * Sets the number of probe calls permitted while half-open, all of which must succeed for the
+     * breaker to close. Defaults to 3.
+     *
+     * @param probeCalls the number of probe calls, must be positive.
+     * @return this.
+     */
+    public Builder setProbeCalls(int probeCalls) {
+      this.probeCalls = probeCalls;
+      return this;
+    }
+
+    /**
+     * Builds a {@link CircuitBreaker}.
+     *
+     * @return a new {@code CircuitBreaker}.
+     * @throws IllegalArgumentException if a setting is out of range.
+     */
+    public CircuitBreaker build() {
+      return build(System::nanoTime);
+    }
+
+    CircuitBreaker build(LongSupplier nanoTime) {
+      checkArgument(windowSize > 0, "Window size must be positive.");
+      checkArgument(
+          minimumCalls > 0 && minimumCalls <= windowSize,
+          "Minimum calls must be between 1 and the window size.");
+      checkArgument(
+          failureRateThreshold > 0 && failureRateThreshold <= 1,
+          "Failure rate threshold must be in (0, 1].");
+      checkArgument(
+          slowCallRateThreshold > 0 && slowCallRateThreshold <= 1,
+          "Slow call rate threshold must be in (0, 1].");
+      checkArgument(
+          !slowCallDuration.isNegative() && !slowCallDuration.isZero(),
+          "Slow call duration must be positive.");
+      checkArgument(
+          !openDuration.isNegative() && !openDuration.isZero(), "Open duration must be positive.");
+      checkArgument(probeCalls > 0, "Probe calls must be positive.");
+      return new CircuitBreaker(this, nanoTime);
+    }
+
+    private static void checkArgument(boolean expression, String message) {
+      if (!expression) {
+        throw new IllegalArgumentException(message);
+      }
+    }
+  }
+}
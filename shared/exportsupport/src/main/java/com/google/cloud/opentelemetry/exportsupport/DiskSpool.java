@@ -0,0 +1,447 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.exportsupport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A size-capped, crash-safe FIFO queue of byte records stored in memory-mapped segment files.
+ *
+ * <p>Records are appended to the newest segment and read back from the oldest one. Once a segment
+ * is full a new one is started, and once the spool holds more segments than its size cap allows
+ * the oldest segment is deleted along with any records in it that were not yet read.
+ *
+ * <p>Each segment starts with a header holding the offset of the first record that has not been
+ * committed yet. Records are written as {@code [length][crc32][payload]}, with the length written
+ * last, so a record that was only partly written when the process died is detected and discarded
+ * when the spool is reopened. Records that were read but not committed are read again after a
+ * restart, so consumers should tolerate receiving a record more than once.
+ *
+ * <p>A spool directory can only be opened by one {@code DiskSpool} at a time. This class is thread
+ * safe.
+ */
+public final class DiskSpool implements Closeable {
+
+  private static final Logger logger = LoggerFactory.getLogger(DiskSpool.class);
+
+  static final int MAGIC = 0x4F54_5350;
+  static final int SEGMENT_HEADER_BYTES = 8;
+  static final int RECORD_HEADER_BYTES = 8;
+  static final int MIN_SEGMENT_BYTES = 64 * 1024;
+  static final int MAX_SEGMENT_BYTES = 8 * 1024 * 1024;
+
+  private static final String LOCK_FILE_NAME = "spool.lock";
+  private static final Pattern SEGMENT_FILE_NAME = Pattern.compile("segment-(\\d{20})\\.spool");
+
+  private final Path directory;
+  private final int segmentBytes;
+  private final int maxSegments;
+  private final FileChannel lockChannel;
+  private final FileLock lock;
+  // Ordered from oldest to newest, the last segment is the one being appended to.
+  private final ArrayDeque<Segment> segments;
+  // The segment and offset of the record last returned by peek(), so that commit() never removes a
+  // different record if that segment was dropped in the meantime.
+  private Segment peekedSegment;
+  private int peekedOffset;
+  private long nextSequence;
+  private long droppedRecords;
+  private boolean closed;
+
+  private DiskSpool(
+      Path directory,
+      int segmentBytes,
+      int maxSegments,
+      FileChannel lockChannel,
+      FileLock lock,
+      ArrayDeque<Segment> segments,
+      long nextSequence) {
+    this.directory = directory;
+    this.segmentBytes = segmentBytes;
+    this.maxSegments = maxSegments;
+    this.lockChannel = lockChannel;
+    this.lock = lock;
+    this.segments = segments;
+    this.nextSequence = nextSequence;
+  }
+
+  /**
+   * Opens the spool stored in {@code directory}, creating it if needed and recovering any records
+   * left behind by a previous process.
+   *
+   * @param directory the directory holding the segment files.
+   * @param maxBytes the maximum number of bytes the segment files may take up on disk. At least
+   *     two segments of 64 KiB are always kept.
+   * @return the opened spool.
+   * @throws IOException if the directory cannot be used or is already in use by another spool.
+   */
+  public static DiskSpool open(Path directory, long maxBytes) throws IOException {
+    if (maxBytes <= 0) {
+      throw new IllegalArgumentException("maxBytes must be positive");
+    }
+    int segmentBytes =
+        (int) Math.max(MIN_SEGMENT_BYTES, Math.min(MAX_SEGMENT_BYTES, maxBytes / 2));
+    int maxSegments = (int) Math.max(2, Math.min(Integer.MAX_VALUE, maxBytes / segmentBytes));
+
+    Files.createDirectories(directory);
+    FileChannel lockChannel =
+        FileChannel.open(
+            directory.resolve(LOCK_FILE_NAME),
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE);
+    FileLock lock;
+    try {
+      lock = lockChannel.tryLock();
+    } catch (OverlappingFileLockException e) {
+      // Another spool in this JVM holds the lock.
+      lock = null;
+    } catch (IOException | RuntimeException e) {
+      lockChannel.close();
+      throw e;
+    }
+    if (lock == null) {
+      lockChannel.close();
+      throw new IOException("Spool directory " + directory + " is already in use");
+    }
+
+    ArrayDeque<Segment> segments = new ArrayDeque<>();
+    long nextSequence = 0;
+    try {
+      for (Path path : listSegmentFiles(directory)) {
+        long sequence = parseSequence(path);
+        nextSequence = Math.max(nextSequence, sequence + 1);
+        Segment segment = Segment.recover(path);
+        if (segment == null) {
+          deleteQuietly(path);
+        } else if (segment.unreadRecords == 0) {
+          segment.delete();
+        } else {
+          segments.addLast(segment);
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      for (Segment segment : segments) {
+        segment.closeQuietly();
+      }
+      lock.release();
+      lockChannel.close();
+      throw e;
+    }
+    return new DiskSpool(
+        directory, segmentBytes, maxSegments, lockChannel, lock, segments, nextSequence);
+  }
+
+  /**
+   * Appends a record to the end of the spool.
+   *
+   * <p>If the spool is full, the oldest segment is dropped to make room.
+   *
+   * @param record the record to append.
+   * @return {@code true} if the record was written, {@code false} if it is larger than a segment.
+   * @throws IOException if a new segment file cannot be created.
+   */
+  public synchronized boolean append(byte[] record) throws IOException {
+    checkOpen();
+    int recordBytes = RECORD_HEADER_BYTES + record.length;
+    if (record.length == 0 || recordBytes > segmentBytes - SEGMENT_HEADER_BYTES) {
+      droppedRecords++;
+      return false;
+    }
+    Segment active = segments.peekLast();
+    if (active == null || !active.hasRoomFor(recordBytes)) {
+      if (active != null) {
+        active.force();
+      }
+      active = Segment.create(segmentPath(nextSequence++), segmentBytes);
+      segments.addLast(active);
+      while (segments.size() > maxSegments) {
+        Segment oldest = segments.removeFirst();
+        droppedRecords += oldest.unreadRecords;
+        oldest.delete();
+      }
+    }
+    active.append(record);
+    return true;
+  }
+
+  /**
+   * Returns the oldest record that has not been committed yet, without removing it.
+   *
+   * @return the oldest uncommitted record, or {@code null} if the spool is empty.
+   */
+  public synchronized byte[] peek() {
+    checkOpen();
+    Segment oldest = segments.peekFirst();
+    if (oldest == null) {
+      return null;
+    }
+    peekedSegment = oldest;
+    peekedOffset = oldest.readOffset;
+    return oldest.peek();
+  }
+
+  /**
+   * Removes the record last returned by {@link #peek()}. Does nothing if that record was already
+   * committed or dropped.
+   *
+   * @throws IOException if a fully consumed segment file cannot be deleted.
+   */
+  public synchronized void commit() throws IOException {
+    checkOpen();
+    Segment oldest = segments.peekFirst();
+    if (oldest == null || oldest != peekedSegment || oldest.readOffset != peekedOffset) {
+      return;
+    }
+    peekedSegment = null;
+    oldest.commit();
+    if (oldest.unreadRecords == 0) {
+      segments.removeFirst();
+      oldest.delete();
+    }
+  }
+
+  /** Returns {@code true} if there are no uncommitted records in the spool. */
+  public synchronized boolean isEmpty() {
+    return segments.isEmpty();
+  }
+
+  /**
+   * Returns the total number of records dropped because they did not fit in a segment or because
+   * their segment was deleted to make room before they were read.
+   */
+  public synchronized long getDroppedRecords() {
+    return droppedRecords;
+  }
+
+  /** Flushes all segments to disk and releases the spool directory. */
+  @Override
+  public synchronized void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      for (Segment segment : segments) {
+        segment.force();
+        segment.closeQuietly();
+      }
+      segments.clear();
+      lock.release();
+    } finally {
+      lockChannel.close();
+    }
+  }
+
+  private void checkOpen() {
+    if (closed) {
+      throw new IllegalStateException("Spool " + directory + " is closed");
+    }
+  }
+
+  private Path segmentPath(long sequence) {
+    return directory.resolve(String.format("segment-%020d.spool", sequence));
+  }
+
+  private static List<Path> listSegmentFiles(Path directory) throws IOException {
+    List<Path> paths = new ArrayList<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+      for (Path path : stream) {
+        if (SEGMENT_FILE_NAME.matcher(path.getFileName().toString()).matches()) {
+          paths.add(path);
+        }
+      }
+    }
+    // The zero-padded sequence number makes name order the same as creation order.
+    Collections.sort(paths);
+    return paths;
+  }
+
+  private static long parseSequence(Path path) {
+    Matcher matcher = SEGMENT_FILE_NAME.matcher(path.getFileName().toString());
+    if (!matcher.matches()) {
+      throw new IllegalArgumentException("Not a segment file: " + path);
+    }
+    return Long.parseLong(matcher.group(1));
+  }
+
+  private static void deleteQuietly(Path path) {
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      logger.warn("Failed to delete spool segment {}.", path, e);
+    }
+  }
+
+  private static int checksum(ByteBuffer buffer, int offset, int length) {
+    CRC32 crc = new CRC32();
+    ByteBuffer slice = buffer.duplicate();
+    slice.limit(offset + length).position(offset);
+    crc.update(slice);
+    return (int) crc.getValue();
+  }
+
+  /** A single memory-mapped segment file. */
+  private static final class Segment {
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private int readOffset;
+    private int writeOffset;
+    private int unreadRecords;
+
+    private Segment(
+        Path path,
+        FileChannel channel,
+        MappedByteBuffer buffer,
+        int readOffset,
+        int writeOffset,
+        int unreadRecords) {
+      this.path = path;
+      this.channel = channel;
+      this.buffer = buffer;
+      this.readOffset = readOffset;
+      this.writeOffset = writeOffset;
+      this.unreadRecords = unreadRecords;
+    }
+
+    static Segment create(Path path, int segmentBytes) throws IOException {
+      FileChannel channel =
+          FileChannel.open(
+              path,
+              StandardOpenOption.CREATE_NEW,
+              StandardOpenOption.READ,
+              StandardOpenOption.WRITE);
+      try {
+        // Mapping past the end of the file grows it, the new space reads as zeroes.
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, SEGMENT_HEADER_BYTES);
+        return new Segment(path, channel, buffer, SEGMENT_HEADER_BYTES, SEGMENT_HEADER_BYTES, 0);
+      } catch (IOException | RuntimeException e) {
+        channel.close();
+        throw e;
+      }
+    }
+
+    /**
+     * Maps an existing segment file and finds the records in it that were fully written and not
+     * yet committed. Returns {@code null} if the file is not a valid segment.
+     */
+    static Segment recover(Path path) throws IOException {
+      FileChannel channel =
+          FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+      try {
+        long size = channel.size();
+        if (size < SEGMENT_HEADER_BYTES || size > Integer.MAX_VALUE) {
+          channel.close();
+          return null;
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        int readOffset = buffer.getInt(4);
+        if (buffer.getInt(0) != MAGIC || readOffset < SEGMENT_HEADER_BYTES || readOffset > size) {
+          channel.close();
+          return null;
+        }
+        int offset = readOffset;
+        int unreadRecords = 0;
+        while (offset + RECORD_HEADER_BYTES <= size) {
+          int length = buffer.getInt(offset);
+          if (length <= 0 || length > size - offset - RECORD_HEADER_BYTES) {
+            break;
+          }
+          int crc = buffer.getInt(offset + 4);
+          if (checksum(buffer, offset + RECORD_HEADER_BYTES, length) != crc) {
+            break;
+          }
+          offset += RECORD_HEADER_BYTES + length;
+          unreadRecords++;
+        }
+        // Recovered segments are only read from, anything after the last valid record was torn
+        // by a crash. New records always go into a fresh segment.
+        return new Segment(path, channel, buffer, readOffset, (int) size, unreadRecords);
+      } catch (IOException | RuntimeException e) {
+        channel.close();
+        throw e;
+      }
+    }
+
+    boolean hasRoomFor(int recordBytes) {
+      return writeOffset + recordBytes <= buffer.capacity();
+    }
+
+    void append(byte[] record) {
+      int offset = writeOffset;
+      buffer.position(offset + RECORD_HEADER_BYTES);
+      buffer.put(record);
+      buffer.putInt(offset + 4, checksum(buffer, offset + RECORD_HEADER_BYTES, record.length));
+      // The length goes last so that a record is only visible once it is complete.
+      buffer.putInt(offset, record.length);
+      writeOffset = offset + RECORD_HEADER_BYTES + record.length;
+      unreadRecords++;
+    }
+
+    byte[] peek() {
+      int length = buffer.getInt(readOffset);
+      byte[] record = new byte[length];
+      ByteBuffer source = buffer.duplicate();
+      source.position(readOffset + RECORD_HEADER_BYTES);
+      source.get(record);
+      return record;
+    }
+
+    void commit() {
+      readOffset += RECORD_HEADER_BYTES + buffer.getInt(readOffset);
+      unreadRecords--;
+      buffer.putInt(4, readOffset);
+    }
+
+    void force() {
+      buffer.force();
+    }
+
+    void delete() throws IOException {
+      closeQuietly();
+      Files.deleteIfExists(path);
+    }
+
+    void closeQuietly() {
+      try {
+        channel.close();
+      } catch (IOException e) {
+        logger.warn("Failed to close spool segment {}.", path, e);
+      }
+    }
+  }
+}
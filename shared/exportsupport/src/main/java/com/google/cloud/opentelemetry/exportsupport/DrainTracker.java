@@ -0,0 +1,86 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.exportsupport;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks work in progress, such as requests in flight, so that a shutdown can wait for it to
+ * finish before releasing the resources it uses.
+ *
+ * <p>Each unit of work carries a number of items, e.g. the spans in a request, so that the items
+ * still pending when a shutdown gives up waiting can be reported as lost. This class is thread
+ * safe.
+ */
+public final class DrainTracker {
+
+  private long pendingWork;
+  private long pendingItems;
+
+  /**
+   * Records the start of a unit of work. Every call must be followed by a call to {@link
+   * #end(long)} with the same number of items once the work finished, whether it succeeded or not.
+   *
+   * @param items the number of items the work carries.
+   */
+  public synchronized void begin(long items) {
+    pendingWork++;
+    pendingItems += items;
+  }
+
+  /**
+   * Records the end of a unit of work started with {@link #begin(long)}.
+   *
+   * @param items the number of items the work carried.
+   */
+  public synchronized void end(long items) {
+    pendingWork--;
+    pendingItems -= items;
+    if (pendingWork == 0) {
+      notifyAll();
+    }
+  }
+
+  /**
+   * Waits until no work is in progress, or until the timeout elapses.
+   *
+   * @param timeout the maximum time to wait.
+   * @param unit the unit of {@code timeout}.
+   * @return {@code true} if all work finished, {@code false} if the timeout elapsed first.
+   * @throws InterruptedException if the current thread was interrupted while waiting.
+   */
+  public synchronized boolean awaitDrained(long timeout, TimeUnit unit)
+      throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    while (pendingWork > 0) {
+      long remainingNanos = deadline - System.nanoTime();
+      if (remainingNanos <= 0) {
+        return false;
+      }
+      TimeUnit.NANOSECONDS.timedWait(this, remainingNanos);
+    }
+    return true;
+  }
+
+  /**
+   * Returns the number of items carried by work that is still in progress.
+   *
+   * @return the number of pending items.
+   */
+  public synchronized long getPendingItems() {
+    return pendingItems;
+  }
+}
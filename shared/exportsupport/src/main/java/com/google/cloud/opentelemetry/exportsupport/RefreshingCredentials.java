@@ -0,0 +1,222 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.exportsupport;
+
+import com.google.auth.Credentials;
+import com.google.auth.RequestMetadataCallback;
+import com.google.auth.oauth2.AccessToken;
+import com.google.auth.oauth2.GoogleCredentials;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link Credentials} that refresh their access token in the background ahead of its expiry, so
+ * that requests never wait for a token to be fetched.
+ *
+ * <p>{@link GoogleCredentials} refresh an expired token on the thread of the next request, which
+ * adds the latency of a token request to that call. This wrapper instead refreshes the token on a
+ * shared daemon thread a margin before it expires, retrying with backoff if the refresh fails,
+ * while requests keep using the current token. Credentials that do not use access tokens, such as
+ * service account credentials without scopes that sign their own JWTs, are passed through.
+ *
+ * <p>One instance should be shared by all clients using the same credentials, so that the token is
+ * only refreshed once. {@link #getApplicationDefault()} returns the instance shared by the
+ * exporters when no credentials are configured. This class is thread safe.
+ */
+public final class RefreshingCredentials extends Credentials implements Closeable {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final Logger logger = LoggerFactory.getLogger(RefreshingCredentials.class);
+
+  /** The default time before expiry at which a token is refreshed. */
+  public static final Duration DEFAULT_REFRESH_MARGIN = Duration.ofMinutes(5);
+
+  static final long MIN_REFRESH_DELAY_MILLIS = 1000;
+  static final long INITIAL_RETRY_DELAY_MILLIS = 1000;
+  static final long MAX_RETRY_DELAY_MILLIS = 60_000;
+
+  private static RefreshingCredentials applicationDefault;
+
+  private final GoogleCredentials delegate;
+  private final long refreshMarginMillis;
+  private final boolean shared;
+  private transient ScheduledFuture<?> pendingRefresh;
+  private int failedRefreshes;
+  private boolean closed;
+
+  private RefreshingCredentials(
+      GoogleCredentials delegate, Duration refreshMargin, boolean shared) {
+    this.delegate = delegate;
+    this.refreshMarginMillis = refreshMargin.toMillis();
+    this.shared = shared;
+  }
+
+  /**
+   * Returns the {@link GoogleCredentials#getApplicationDefault() application default credentials},
+   * wrapped so that their token is refreshed in the background. All callers share one instance.
+   *
+   * @return the shared application default credentials.
+   * @throws IOException if the application default credentials cannot be loaded.
+   */
+  public static synchronized RefreshingCredentials getApplicationDefault() throws IOException {
+    if (applicationDefault == null) {
+      applicationDefault =
+          start(
+              new RefreshingCredentials(
+                  GoogleCredentials.getApplicationDefault(), DEFAULT_REFRESH_MARGIN, true));
+    }
+    return applicationDefault;
+  }
+
+  /**
+   * Wraps credentials so that their token is refreshed in the background, starting with an
+   * immediate refresh. Close the returned instance once no client uses it any more.
+   *
+   * @param credentials the credentials to refresh.
+   * @param refreshMargin how long before expiry a token is refreshed, must be positive.
+   * @return the wrapped credentials.
+   */
+  public static RefreshingCredentials create(
+      GoogleCredentials credentials, Duration refreshMargin) {
+    if (refreshMargin.isNegative() || refreshMargin.isZero()) {
+      throw new IllegalArgumentException("Refresh margin must be positive.");
+    }
+    return start(new RefreshingCredentials(credentials, refreshMargin, false));
+  }
+
+  private static RefreshingCredentials start(RefreshingCredentials credentials) {
+    credentials.scheduleRefresh(0);
+    return credentials;
+  }
+
+  @Override
+  public String getAuthenticationType() {
+    return delegate.getAuthenticationType();
+  }
+
+  @Override
+  public String getUniverseDomain() throws IOException {
+    return delegate.getUniverseDomain();
+  }
+
+  @Override
+  public Map<String, List<String>> getRequestMetadata(URI uri) throws IOException {
+    return delegate.getRequestMetadata(uri);
+  }
+
+  @Override
+  public void getRequestMetadata(URI uri, Executor executor, RequestMetadataCallback callback) {
+    delegate.getRequestMetadata(uri, executor, callback);
+  }
+
+  @Override
+  public boolean hasRequestMetadata() {
+    return delegate.hasRequestMetadata();
+  }
+
+  @Override
+  public boolean hasRequestMetadataOnly() {
+    return delegate.hasRequestMetadataOnly();
+  }
+
+  @Override
+  public void refresh() throws IOException {
+    delegate.refresh();
+  }
+
+  /**
+   * Stops refreshing the token in the background. Has no effect on the instance returned by {@link
+   * #getApplicationDefault()}, which is shared.
+   */
+  @Override
+  public synchronized void close() {
+    if (shared) {
+      return;
+    }
+    closed = true;
+    if (pendingRefresh != null) {
+      pendingRefresh.cancel(false);
+    }
+  }
+
+  private synchronized void scheduleRefresh(long delayMillis) {
+    if (!closed) {
+      pendingRefresh =
+          Scheduler.INSTANCE.schedule(
+              this::refreshInBackground, delayMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private void refreshInBackground() {
+    if (delegate.createScopedRequired()) {
+      // These credentials sign a JWT for every request rather than using access tokens.
+      return;
+    }
+    long delayMillis;
+    try {
+      delegate.refresh();
+      failedRefreshes = 0;
+      delayMillis = nextRefreshDelayMillis(delegate.getAccessToken());
+    } catch (IOException | RuntimeException e) {
+      failedRefreshes++;
+      delayMillis =
+          Math.min(
+              INITIAL_RETRY_DELAY_MILLIS << Math.min(failedRefreshes - 1, 16),
+              MAX_RETRY_DELAY_MILLIS);
+      logger.debug("Failed to refresh access token, retrying in {} ms.", delayMillis, e);
+    }
+    if (delayMillis >= 0) {
+      scheduleRefresh(delayMillis);
+    }
+  }
+
+  /** Returns when to refresh the given token next, or -1 if it never expires. */
+  private long nextRefreshDelayMillis(AccessToken token) {
+    Date expirationTime = token == null ? null : token.getExpirationTime();
+    if (expirationTime == null) {
+      return -1;
+    }
+    long expiresInMillis = expirationTime.getTime() - System.currentTimeMillis();
+    // Refresh short-lived tokens halfway through their lifetime rather than right away.
+    return Math.max(
+        Math.max(expiresInMillis - refreshMarginMillis, expiresInMillis / 2),
+        MIN_REFRESH_DELAY_MILLIS);
+  }
+
+  /** Holds the daemon thread refreshing all tokens, created on first use. */
+  private static final class Scheduler {
+    static final ScheduledExecutorService INSTANCE =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "google-cloud-credentials-refresh");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.exportsupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.cloud.opentelemetry.exportsupport.CircuitBreaker.State;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+public class CircuitBreakerTest {
+
+  private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+  private static final long SLOW = TimeUnit.SECONDS.toNanos(10);
+
+  private long now = 0;
+
+  private CircuitBreaker createBreaker() {
+    return CircuitBreaker.builder()
+        .setWindowSize(10)
+        .setMinimumCalls(4)
+        .setFailureRateThreshold(0.5)
+        .setSlowCallRateThreshold(0.75)
+        .setSlowCallDuration(Duration.ofSeconds(5))
+        .setOpenDuration(Duration.ofSeconds(30))
+        .setProbeCalls(2)
+        .build(() -> now);
+  }
+
+  @Test
+  public void testTripsWhenFailureRateReachesThreshold() {
+    CircuitBreaker breaker = createBreaker();
+    recordCalls(breaker, false, 3);
+    recordCalls(breaker, true, 2);
+    assertEquals(State.CLOSED, breaker.getState());
+
+    recordCalls(breaker, true, 1);
+
+    assertEquals(State.OPEN, breaker.getState());
+    assertFalse(breaker.tryAcquirePermission());
+    assertEquals(1, breaker.getRejectedCalls());
+  }
+
+  @Test
+  public void testDoesNotTripBeforeMinimumCalls() {
+    CircuitBreaker breaker = createBreaker();
+    recordCalls(breaker, true, 3);
+    assertEquals(State.CLOSED, breaker.getState());
+    assertEquals(1.0, breaker.getFailureRate());
+  }
+
+  @Test
+  public void testTripsWhenSlowCallRateReachesThreshold() {
+    CircuitBreaker breaker = createBreaker();
+    for (int i = 0; i < 3; i++) {
+      assertTrue(breaker.tryAcquirePermission());
+      breaker.onSuccess(SLOW);
+    }
+    recordCalls(breaker, false, 1);
+    assertEquals(State.OPEN, breaker.getState());
+  }
+
+  @Test
+  public void testOldOutcomesLeaveTheWindow() {
+    CircuitBreaker breaker = createBreaker();
+    recordCalls(breaker, false, 8);
+    recordCalls(breaker, true, 2);
+    assertEquals(0.2, breaker.getFailureRate(), 1e-9);
+    recordCalls(breaker, false, 10);
+    assertEquals(0.0, breaker.getFailureRate());
+    assertEquals(State.CLOSED, breaker.getState());
+  }
+
+  @Test
+  public void testClosesAfterSuccessfulProbes() {
+    CircuitBreaker breaker = createBreaker();
+    recordCalls(breaker, true, 4);
+    assertEquals(State.OPEN, breaker.getState());
+
+    now += TimeUnit.SECONDS.toNanos(30);
+    assertEquals(State.HALF_OPEN, breaker.getState());
+    assertTrue(breaker.tryAcquirePermission());
+    assertTrue(breaker.tryAcquirePermission());
+    // Only two probes are let through at a time.
+    assertFalse(breaker.tryAcquirePermission());
+    breaker.onSuccess(FAST);
+    breaker.onSuccess(FAST);
+
+    assertEquals(State.CLOSED, breaker.getState());
+    assertTrue(breaker.tryAcquirePermission());
+  }
+
+  @Test
+  public void testReopensWhenProbeFails() {
+    CircuitBreaker breaker = createBreaker();
+    recordCalls(breaker, true, 4);
+    now += TimeUnit.SECONDS.toNanos(30);
+
+    assertTrue(breaker.tryAcquirePermission());
+    breaker.onFailure(FAST);
+
+    assertEquals(State.OPEN, breaker.getState());
+    assertFalse(breaker.tryAcquirePermission());
+  }
+
+  @Test
+  public void testRejectsInvalidSettings() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> CircuitBreaker.builder().setWindowSize(5).setMinimumCalls(6).build());
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> CircuitBreaker.builder().setFailureRateThreshold(0).build());
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> CircuitBreaker.builder().setOpenDuration(Duration.ZERO).build());
+  }
+
+  private static void recordCalls(CircuitBreaker breaker, boolean failed, int count) {
+    for (int i = 0; i < count; i++) {
+      assertTrue(breaker.tryAcquirePermission());
+      if (failed) {
+        breaker.onFailure(FAST);
+      } else {
+        breaker.onSuccess(FAST);
+      }
+    }
+  }
+}
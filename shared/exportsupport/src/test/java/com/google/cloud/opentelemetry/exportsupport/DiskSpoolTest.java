@@ -0,0 +1,174 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.exportsupport;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class DiskSpoolTest {
+
+  private static final long MAX_BYTES = 4L * DiskSpool.MIN_SEGMENT_BYTES;
+
+  @TempDir Path directory;
+
+  @Test
+  public void testRecordsAreReadInOrder() throws IOException {
+    try (DiskSpool spool = DiskSpool.open(directory, MAX_BYTES)) {
+      assertTrue(spool.isEmpty());
+      assertNull(spool.peek());
+      assertTrue(spool.append(bytes("first")));
+      assertTrue(spool.append(bytes("second")));
+
+      assertFalse(spool.isEmpty());
+      assertArrayEquals(bytes("first"), spool.peek());
+      // Peeking again without committing returns the same record.
+      assertArrayEquals(bytes("first"), spool.peek());
+      spool.commit();
+      assertArrayEquals(bytes("second"), spool.peek());
+      spool.commit();
+      assertTrue(spool.isEmpty());
+      assertNull(spool.peek());
+    }
+  }
+
+  @Test
+  public void testUncommittedRecordsSurviveReopening() throws IOException {
+    try (DiskSpool spool = DiskSpool.open(directory, MAX_BYTES)) {
+      spool.append(bytes("first"));
+      spool.append(bytes("second"));
+      spool.append(bytes("third"));
+      spool.peek();
+      spool.commit();
+    }
+    try (DiskSpool spool = DiskSpool.open(directory, MAX_BYTES)) {
+      assertEquals("second", str(spool.peek()));
+      spool.commit();
+      assertEquals("third", str(spool.peek()));
+      spool.commit();
+      assertTrue(spool.isEmpty());
+    }
+    // Fully consumed segments are deleted.
+    assertTrue(segmentFiles().isEmpty());
+  }
+
+  @Test
+  public void testTornRecordIsDiscardedOnRecovery() throws IOException {
+    try (DiskSpool spool = DiskSpool.open(directory, MAX_BYTES)) {
+      spool.append(bytes("complete"));
+      spool.append(bytes("torn"));
+    }
+    // Corrupt the payload of the second record as if the process died while writing it.
+    Path segment = segmentFiles().get(0);
+    long secondPayload =
+        DiskSpool.SEGMENT_HEADER_BYTES
+            + DiskSpool.RECORD_HEADER_BYTES
+            + bytes("complete").length
+            + DiskSpool.RECORD_HEADER_BYTES;
+    try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+      file.seek(secondPayload);
+      file.write(bytes("XXXX"));
+    }
+
+    try (DiskSpool spool = DiskSpool.open(directory, MAX_BYTES)) {
+      assertEquals("complete", str(spool.peek()));
+      spool.commit();
+      assertTrue(spool.isEmpty());
+      // New records are still accepted after recovery.
+      assertTrue(spool.append(bytes("after")));
+      assertEquals("after", str(spool.peek()));
+    }
+  }
+
+  @Test
+  public void testOldestSegmentIsDroppedWhenFull() throws IOException {
+    byte[] record = new byte[DiskSpool.MIN_SEGMENT_BYTES / 4];
+    try (DiskSpool spool = DiskSpool.open(directory, 2L * DiskSpool.MIN_SEGMENT_BYTES)) {
+      // Three records fit in a segment, so the seventh one starts a third segment.
+      for (int i = 0; i < 7; i++) {
+        record[0] = (byte) i;
+        assertTrue(spool.append(record));
+      }
+      assertEquals(3, spool.getDroppedRecords());
+      assertEquals(3, spool.peek()[0]);
+      assertEquals(2, segmentFiles().size());
+    }
+  }
+
+  @Test
+  public void testCommitAfterDroppedSegmentDoesNotSkipRecords() throws IOException {
+    byte[] record = new byte[DiskSpool.MIN_SEGMENT_BYTES / 4];
+    try (DiskSpool spool = DiskSpool.open(directory, 2L * DiskSpool.MIN_SEGMENT_BYTES)) {
+      for (int i = 0; i < 6; i++) {
+        record[0] = (byte) i;
+        spool.append(record);
+      }
+      assertEquals(0, spool.peek()[0]);
+      // The peeked record's segment is dropped before it is committed.
+      spool.append(record);
+      spool.commit();
+      assertEquals(3, spool.peek()[0]);
+    }
+  }
+
+  @Test
+  public void testOversizedRecordIsRejected() throws IOException {
+    try (DiskSpool spool = DiskSpool.open(directory, MAX_BYTES)) {
+      assertFalse(spool.append(new byte[(int) MAX_BYTES]));
+      assertEquals(1, spool.getDroppedRecords());
+      assertTrue(spool.isEmpty());
+    }
+  }
+
+  @Test
+  public void testDirectoryCannotBeOpenedTwice() throws IOException {
+    try (DiskSpool spool = DiskSpool.open(directory, MAX_BYTES)) {
+      assertThrows(IOException.class, () -> DiskSpool.open(directory, MAX_BYTES));
+    }
+  }
+
+  private List<Path> segmentFiles() throws IOException {
+    List<Path> files = new ArrayList<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "segment-*.spool")) {
+      stream.forEach(files::add);
+    }
+    Collections.sort(files);
+    return files;
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static String str(byte[] value) {
+    return new String(value, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.exportsupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+public class DrainTrackerTest {
+
+  @Test
+  public void testDrainedWithoutWork() throws InterruptedException {
+    DrainTracker tracker = new DrainTracker();
+
+    assertTrue(tracker.awaitDrained(0, TimeUnit.SECONDS));
+    assertEquals(0, tracker.getPendingItems());
+  }
+
+  @Test
+  public void testTimesOutWithPendingItems() throws InterruptedException {
+    DrainTracker tracker = new DrainTracker();
+    tracker.begin(3);
+    tracker.begin(5);
+    tracker.end(3);
+
+    assertFalse(tracker.awaitDrained(10, TimeUnit.MILLISECONDS));
+    assertEquals(5, tracker.getPendingItems());
+  }
+
+  @Test
+  public void testWaitsForWorkToEnd() throws InterruptedException {
+    DrainTracker tracker = new DrainTracker();
+    tracker.begin(2);
+    ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    try {
+      executor.schedule(() -> tracker.end(2), 50, TimeUnit.MILLISECONDS);
+
+      assertTrue(tracker.awaitDrained(10, TimeUnit.SECONDS));
+      assertEquals(0, tracker.getPendingItems());
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
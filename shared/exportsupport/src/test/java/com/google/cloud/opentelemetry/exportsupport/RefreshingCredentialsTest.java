@@ -0,0 +1,132 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.opentelemetry.exportsupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.auth.oauth2.AccessToken;
+import com.google.auth.oauth2.GoogleCredentials;
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+public class RefreshingCredentialsTest {
+
+  private static final URI SERVICE_URI = URI.create("https://cloudtrace.googleapis.com/");
+
+  @Test
+  public void testPrefetchesTokenWithoutBlockingRequests() throws Exception {
+    CountingCredentials delegate = new CountingCredentials(Duration.ofHours(1), 0);
+    try (RefreshingCredentials credentials =
+        RefreshingCredentials.create(delegate, RefreshingCredentials.DEFAULT_REFRESH_MARGIN)) {
+      awaitRefreshes(delegate, 1);
+
+      assertEquals(
+          Collections.singletonList("Bearer token-1"),
+          credentials.getRequestMetadata(SERVICE_URI).get("Authorization"));
+      assertEquals(1, delegate.refreshes.get());
+    }
+  }
+
+  @Test
+  public void testRefreshesTokenAheadOfExpiry() throws Exception {
+    CountingCredentials delegate = new CountingCredentials(Duration.ofMillis(1500), 0);
+    try (RefreshingCredentials credentials =
+        RefreshingCredentials.create(delegate, Duration.ofSeconds(1))) {
+      awaitRefreshes(delegate, 3);
+    }
+  }
+
+  @Test
+  public void testRetriesFailedRefreshes() throws Exception {
+    CountingCredentials delegate = new CountingCredentials(Duration.ofHours(1), 2);
+    try (RefreshingCredentials credentials =
+        RefreshingCredentials.create(delegate, RefreshingCredentials.DEFAULT_REFRESH_MARGIN)) {
+      awaitRefreshes(delegate, 1);
+
+      assertEquals(3, delegate.attempts.get());
+      assertEquals(
+          Collections.singletonList("Bearer token-1"),
+          credentials.getRequestMetadata(SERVICE_URI).get("Authorization"));
+    }
+  }
+
+  @Test
+  public void testCloseStopsRefreshing() throws Exception {
+    CountingCredentials delegate = new CountingCredentials(Duration.ofMillis(100), 0);
+    RefreshingCredentials credentials =
+        RefreshingCredentials.create(delegate, Duration.ofSeconds(1));
+    awaitRefreshes(delegate, 1);
+    credentials.close();
+    int refreshes = delegate.refreshes.get();
+
+    Thread.sleep(2 * RefreshingCredentials.MIN_REFRESH_DELAY_MILLIS);
+
+    assertEquals(refreshes, delegate.refreshes.get());
+  }
+
+  @Test
+  public void testRejectsNonPositiveRefreshMargin() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            RefreshingCredentials.create(
+                new CountingCredentials(Duration.ofHours(1), 0), Duration.ZERO));
+  }
+
+  private static void awaitRefreshes(CountingCredentials delegate, int refreshes)
+      throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (delegate.refreshes.get() < refreshes && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertTrue(delegate.refreshes.get() >= refreshes, "Token was not refreshed in time.");
+  }
+
+  /** Credentials issuing numbered tokens, after failing a given number of times. */
+  private static final class CountingCredentials extends GoogleCredentials {
+    private static final long serialVersionUID = 1L;
+
+    final AtomicInteger attempts = new AtomicInteger();
+    final AtomicInteger refreshes = new AtomicInteger();
+    private final Duration lifetime;
+    private int failures;
+
+    CountingCredentials(Duration lifetime, int failures) {
+      this.lifetime = lifetime;
+      this.failures = failures;
+    }
+
+    @Override
+    public AccessToken refreshAccessToken() throws IOException {
+      attempts.incrementAndGet();
+      if (failures > 0) {
+        failures--;
+        throw new IOException("Token endpoint unavailable.");
+      }
+      int refresh = refreshes.incrementAndGet();
+      return new AccessToken(
+          "token-" + refresh, new Date(System.currentTimeMillis() + lifetime.toMillis()));
+    }
+  }
+}